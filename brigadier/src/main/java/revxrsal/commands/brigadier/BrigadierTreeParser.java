@@ -219,7 +219,8 @@ public final class BrigadierTreeParser {
                     ArgumentStack args = ArgumentStack.parseForAutoCompletion(
                             input.startsWith("/") ? input.substring(1) : input
                     );
-                    parameter.getSuggestionProvider().getSuggestions(args, actor, command)
+                    parameter.getCommandHandler().getAutoCompleter()
+                            .suggest(parameter, args, actor, command)
                             .stream()
                             .filter(c -> c.toLowerCase().startsWith(args.getLast().toLowerCase()))
                             .sorted(String.CASE_INSENSITIVE_ORDER)
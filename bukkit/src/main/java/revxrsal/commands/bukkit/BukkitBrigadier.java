@@ -30,6 +30,9 @@ import revxrsal.commands.bukkit.brigadier.ArgumentTypeResolver;
 import revxrsal.commands.bukkit.brigadier.MinecraftArgumentType;
 import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.core.CommandPath;
+
+import java.util.Collection;
 
 /**
  * Represents the Brigadier hook for Bukkit
@@ -127,6 +130,27 @@ public interface BukkitBrigadier {
      */
     void register();
 
+    /**
+     * Registers the brigadier nodes of the given root commands and categories,
+     * replacing their previous nodes. This is used for commands that are
+     * registered or changed after the brigadier has been registered.
+     * <p>
+     * By default, this registers the nodes of all the commands again.
+     *
+     * @param roots The root paths to register
+     */
+    default void register(@NotNull Collection<CommandPath> roots) {
+        register();
+    }
+
+    /**
+     * Removes the brigadier node of the given root command, along with the
+     * nodes of its aliases.
+     *
+     * @param label The root command label
+     */
+    void unregister(@NotNull String label);
+
     /**
      * Returns the command handler that instantiated this Brigadier
      * instance.
@@ -10,6 +10,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.bukkit.core.BukkitActor;
+import revxrsal.commands.bukkit.core.BukkitHandler;
 import revxrsal.commands.bukkit.exception.SenderNotConsoleException;
 import revxrsal.commands.bukkit.exception.SenderNotPlayerException;
 import revxrsal.commands.command.CommandActor;
@@ -102,6 +103,8 @@ public interface BukkitCommandActor extends CommandActor {
      * @return The wrapping {@link BukkitCommandActor}.
      */
     static @NotNull BukkitCommandActor wrap(@NotNull CommandSender sender, @NotNull CommandHandler handler) {
+        if (handler instanceof BukkitHandler)
+            return ((BukkitHandler) handler).wrap(sender);
         return new BukkitActor(sender, handler);
     }
 }
@@ -1,15 +1,23 @@
 package revxrsal.commands.bukkit;
 
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.bukkit.core.BukkitHandler;
+import revxrsal.commands.util.OnlinePlayerIndex;
 
 import java.util.Optional;
 
 /**
  * Represents Bukkit's command handler implementation
+ * <p>
+ * {@link org.bukkit.OfflinePlayer} parameters are resolved from the players that
+ * have joined the server, and never look up unknown names on the main thread.
+ * To resolve such names as well, declare the parameter as a
+ * {@code CompletableFuture<OfflinePlayer>}, which is completed once the
+ * name is looked up in the background.
  */
 public interface BukkitCommandHandler extends CommandHandler {
 
@@ -67,6 +75,15 @@ public interface BukkitCommandHandler extends CommandHandler {
      */
     @NotNull Plugin getPlugin();
 
+    /**
+     * Returns the index of online players, which is used to complete and
+     * resolve players. Players that a player cannot see are not suggested
+     * to them, which can be changed with {@link OnlinePlayerIndex#setVisibility(java.util.function.BiPredicate)}.
+     *
+     * @return The online player index
+     */
+    @NotNull OnlinePlayerIndex<Player> getPlayerIndex();
+
     /**
      * Creates a new {@link BukkitCommandHandler} for the specified plugin
      *
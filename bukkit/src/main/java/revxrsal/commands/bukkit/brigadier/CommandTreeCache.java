@@ -0,0 +1,283 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.bukkit.brigadier;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.tree.CommandNode;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.bukkit.BukkitCommandActor;
+import revxrsal.commands.bukkit.BukkitCommandHandler;
+import revxrsal.commands.bukkit.BukkitCommandPermission;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandPermission;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Caches the command trees sent to players, by the permissions the tree
+ * depends on.
+ * <p>
+ * Every distinct permission required by a node gets an index, and a player's
+ * fingerprint is the set of indices of the permissions they have. Players
+ * with the same fingerprint see the same tree, so it is only pruned once for
+ * all of them, and every permission is checked once per player rather than
+ * once per node. Every player is given a copy of the literal roots of the
+ * cached tree, as other plugins may modify the tree sent to them. The nodes
+ * below them are shared.
+ * <p>
+ * The fingerprint of every player is also kept until the tree changes, and is
+ * recomputed whenever a tree is sent to them, so that the requirements of the
+ * registered nodes can be tested without checking every permission again.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class CommandTreeCache {
+
+    /**
+     * The maximum number of trees to keep. When exceeded, the least recently
+     * used ones are evicted.
+     */
+    private static final int MAXIMUM_TREES = 256;
+
+    private final BukkitCommandHandler handler;
+    private final Map<String, ? extends CommandNode<?>> commands;
+    private volatile @Nullable Snapshot snapshot;
+
+    CommandTreeCache(@NotNull BukkitCommandHandler handler, @NotNull Map<String, ? extends CommandNode<?>> commands) {
+        this.handler = handler;
+        this.commands = commands;
+    }
+
+    /**
+     * Discards the cached trees. This should be called whenever the
+     * registered nodes change.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Removes the fingerprint of the given player. This should be called when
+     * they leave.
+     *
+     * @param player The player to forget
+     */
+    public void forget(@NotNull Player player) {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot != null)
+            snapshot.fingerprints.remove(player.getUniqueId());
+    }
+
+    /**
+     * Tests whether the given player has the given permission, using the
+     * fingerprint they were last sent a tree with, if any.
+     *
+     * @param player     The player to test
+     * @param permission The permission to test
+     * @return True if they have the permission
+     */
+    public boolean hasPermission(@NotNull Player player, @NotNull CommandPermission permission) {
+        Snapshot snapshot = snapshot();
+        Integer index = snapshot.indices.get(snapshot.key(permission));
+        if (index == null)
+            return permission.canExecute(BukkitCommandActor.wrap(player, handler));
+        return snapshot.fingerprints.computeIfAbsent(player.getUniqueId(),
+                id -> snapshot.fingerprint(BukkitCommandActor.wrap(player, handler))).get(index);
+    }
+
+    private @NotNull Snapshot snapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null)
+            this.snapshot = snapshot = new Snapshot();
+        return snapshot;
+    }
+
+    /**
+     * Returns the nodes that the given player can see, by their labels. Labels
+     * that the player cannot see at all are absent.
+     * <p>
+     * The returned nodes are copies of the cached ones, so they may be
+     * modified freely. Their children are shared, and must not be modified.
+     *
+     * @param player The player to get for
+     * @return The visible nodes
+     */
+    public @NotNull Map<String, CommandNode<?>> getTree(@NotNull Player player) {
+        Snapshot snapshot = snapshot();
+        BitSet fingerprint = snapshot.fingerprint(BukkitCommandActor.wrap(player, handler));
+        snapshot.fingerprints.put(player.getUniqueId(), fingerprint);
+        Map<String, CommandNode<?>> tree;
+        synchronized (snapshot.trees) {
+            tree = snapshot.trees.get(fingerprint);
+        }
+        if (tree == null) {
+            // pruned outside the lock, so that other players are not held up
+            Map<String, CommandNode<?>> pruned = copyTree(snapshot.roots, node -> snapshot.canUse(node, fingerprint));
+            synchronized (snapshot.trees) {
+                tree = snapshot.trees.putIfAbsent(fingerprint, pruned);
+            }
+            if (tree == null)
+                tree = pruned;
+        }
+        return copyRoots(tree);
+    }
+
+    /**
+     * Copies the given nodes, without copying their children. Redirects
+     * between the given nodes point at the copies of their targets.
+     *
+     * @param roots The nodes to copy, by their labels
+     * @return The copied nodes, by their labels
+     */
+    private static Map<String, CommandNode<?>> copyRoots(Map<String, CommandNode<?>> roots) {
+        Map<CommandNode<?>, CommandNode<?>> copies = new IdentityHashMap<>();
+        Map<String, CommandNode<?>> tree = new HashMap<>();
+        roots.forEach((label, node) -> {
+            if (node.getRedirect() == null)
+                tree.put(label, copyRoot(node, copies));
+        });
+        roots.forEach((label, node) -> {
+            if (node.getRedirect() != null)
+                tree.put(label, copyRoot(node, copies));
+        });
+        return tree;
+    }
+
+    private static CommandNode<?> copyRoot(CommandNode node, Map<CommandNode<?>, CommandNode<?>> copies) {
+        ArgumentBuilder builder = node.createBuilder();
+        if (node.getRedirect() != null)
+            builder.forward(copies.getOrDefault(node.getRedirect(), node.getRedirect()), node.getRedirectModifier(), node.isFork());
+        CommandNode copy = builder.build();
+        copies.put(node, copy);
+        for (CommandNode<?> child : (Collection<CommandNode<?>>) node.getChildren())
+            copy.addChild(child);
+        return copy;
+    }
+
+    /**
+     * Copies the given nodes and their descendants, keeping only the nodes
+     * that match the given filter. Redirects point at the copies of their
+     * targets.
+     *
+     * @param roots  The nodes to copy, by their labels
+     * @param filter The filter of nodes to keep
+     * @return The copied nodes, by their labels
+     */
+    private static Map<String, CommandNode<?>> copyTree(Map<String, CommandNode<?>> roots, Predicate<CommandNode<?>> filter) {
+        Map<CommandNode<?>, CommandNode<?>> copies = new IdentityHashMap<>();
+        Map<String, CommandNode<?>> tree = new HashMap<>();
+        // copy nodes with children first, so that redirects can point at their copies
+        roots.forEach((label, node) -> {
+            if (node.getRedirect() == null)
+                copy(node, filter, copies).ifPresent(copy -> tree.put(label, copy));
+        });
+        roots.forEach((label, node) -> {
+            if (node.getRedirect() != null)
+                copy(node, filter, copies).ifPresent(copy -> tree.put(label, copy));
+        });
+        return tree;
+    }
+
+    private static Optional<CommandNode<?>> copy(CommandNode node, Predicate<CommandNode<?>> filter, Map<CommandNode<?>, CommandNode<?>> copies) {
+        if (copies.containsKey(node))
+            return Optional.ofNullable(copies.get(node));
+        copies.put(node, null);
+        if (!filter.test(node))
+            return Optional.empty();
+        ArgumentBuilder builder = node.createBuilder();
+        if (node.getRedirect() != null) {
+            Optional<CommandNode<?>> target = copy(node.getRedirect(), filter, copies);
+            if (!target.isPresent())
+                return Optional.empty();
+            builder.forward(target.get(), node.getRedirectModifier(), node.isFork());
+        }
+        CommandNode copy = builder.build();
+        copies.put(node, copy);
+        for (CommandNode<?> child : (Collection<CommandNode<?>>) node.getChildren())
+            copy(child, filter, copies).ifPresent(copy::addChild);
+        return Optional.of(copy);
+    }
+
+    private final class Snapshot {
+
+        private final Map<String, CommandNode<?>> roots = new HashMap<>(commands);
+        private final List<CommandPermission> permissions = new ArrayList<>();
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private final Map<UUID, BitSet> fingerprints = new ConcurrentHashMap<>();
+        private final Map<BitSet, Map<String, CommandNode<?>>> trees = new LinkedHashMap<BitSet, Map<String, CommandNode<?>>>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<BitSet, Map<String, CommandNode<?>>> eldest) {
+                return size() > MAXIMUM_TREES;
+            }
+        };
+
+        Snapshot() {
+            Set<CommandNode<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (CommandNode<?> node : roots.values())
+                index(node, visited);
+        }
+
+        private void index(CommandNode<?> node, Set<CommandNode<?>> visited) {
+            if (!visited.add(node))
+                return;
+            if (node.getRequirement() instanceof PermissionRequirement) {
+                CommandPermission permission = ((PermissionRequirement) node.getRequirement()).getPermission();
+                if (permission != CommandPermission.ALWAYS_TRUE && indices.putIfAbsent(key(permission), permissions.size()) == null)
+                    permissions.add(permission);
+            }
+            if (node.getRedirect() != null)
+                index(node.getRedirect(), visited);
+            for (CommandNode<?> child : node.getChildren())
+                index(child, visited);
+        }
+
+        BitSet fingerprint(CommandActor actor) {
+            BitSet fingerprint = new BitSet(permissions.size());
+            for (int i = 0; i < permissions.size(); i++) {
+                if (permissions.get(i).canExecute(actor))
+                    fingerprint.set(i);
+            }
+            return fingerprint;
+        }
+
+        boolean canUse(CommandNode<?> node, BitSet fingerprint) {
+            if (!(node.getRequirement() instanceof PermissionRequirement))
+                return true;
+            CommandPermission permission = ((PermissionRequirement) node.getRequirement()).getPermission();
+            return permission == CommandPermission.ALWAYS_TRUE || fingerprint.get(indices.get(key(permission)));
+        }
+
+        /**
+         * Bukkit permissions are compared by their nodes, so commands that
+         * share a permission share its index as well.
+         */
+        private Object key(CommandPermission permission) {
+            if (permission instanceof BukkitCommandPermission)
+                return ((BukkitCommandPermission) permission).getPermission().getName();
+            return permission;
+        }
+    }
+}
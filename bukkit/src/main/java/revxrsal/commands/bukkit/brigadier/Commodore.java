@@ -35,6 +35,7 @@ import com.mojang.brigadier.tree.RootCommandNode;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -189,4 +190,37 @@ abstract class Commodore {
      */
     abstract void register(LiteralCommandNode<?> node);
 
+    /**
+     * Removes the argument data registered for the given label, as well as
+     * the redirects of its aliases.
+     *
+     * @param label the command label
+     */
+    abstract void unregister(String label);
+
+    /**
+     * Returns the cache of the trees sent to players, if the nodes sent to
+     * each player are filtered by their permissions when they are sent.
+     *
+     * @return The tree cache, or null if sent nodes are not filtered
+     */
+    @Nullable CommandTreeCache getTreeCache() {
+        return null;
+    }
+
+    /**
+     * Tests whether the given node is the node of the given label, or an
+     * alias redirecting to it.
+     *
+     * @param node  the node
+     * @param label the command label
+     * @return true if the node belongs to the label
+     */
+    protected static boolean isNodeOf(LiteralCommandNode<?> node, String label) {
+        if (node.getLiteral().equals(label))
+            return true;
+        return node.getRedirect() instanceof LiteralCommandNode
+                && ((LiteralCommandNode<?>) node.getRedirect()).getLiteral().equals(label);
+    }
+
 }
\ No newline at end of file
@@ -27,19 +27,22 @@ import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.bukkit.BukkitBrigadier;
+import revxrsal.commands.bukkit.BukkitCommandActor;
 import revxrsal.commands.bukkit.BukkitCommandHandler;
 import revxrsal.commands.bukkit.EntitySelector;
-import revxrsal.commands.bukkit.core.BukkitActor;
 import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.command.CommandPermission;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.util.Primitives;
+import revxrsal.commands.util.TypeIndexedList;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
 import static revxrsal.commands.bukkit.brigadier.ArgumentTypeResolver.forType;
 import static revxrsal.commands.bukkit.brigadier.CommodoreProvider.isSupported;
@@ -51,7 +54,7 @@ public final class CommodoreBukkitBrigadier implements BukkitBrigadier {
     private final BukkitCommandHandler handler;
     private boolean nativePlayerCompletions = true;
     private final Commodore commodore;
-    private final List<ArgumentTypeResolver> resolvers = new ArrayList<>();
+    private final TypeIndexedList<ArgumentTypeResolver> resolvers = new TypeIndexedList<>();
 
     public CommodoreBukkitBrigadier(BukkitCommandHandler handler) {
         this.handler = handler;
@@ -78,31 +81,32 @@ public final class CommodoreBukkitBrigadier implements BukkitBrigadier {
     @Override public void bind(@NotNull Class<?> type, @NotNull ArgumentTypeResolver resolver) {
         notNull(type, "type");
         notNull(resolver, "resolver");
-        resolvers.add(
-                parameter -> Primitives.wrap(parameter.getType()) == type
-                        ? resolver.getArgumentType(parameter)
-                        : null
-        );
+        ArgumentTypeResolver bound = parameter -> Primitives.wrap(parameter.getType()) == type
+                ? resolver.getArgumentType(parameter)
+                : null;
+        Class<?> primitive = Primitives.unwrap(type);
+        if (primitive != type)
+            resolvers.addIndexed(bound, type, primitive);
+        else
+            resolvers.addIndexed(bound, type);
     }
 
     @Override public void bind(@NotNull Class<?> type, @NotNull ArgumentType<?> argumentType) {
         notNull(type, "type");
         notNull(argumentType, "argument type");
-        resolvers.add(forType(type, argumentType));
+        resolvers.addIndexed(forType(type, argumentType), type);
     }
 
     @Override public void bind(@NotNull Class<?> type, @NotNull MinecraftArgumentType argumentType) {
         notNull(type, "type");
         notNull(argumentType, "argument type");
-        argumentType.getIfPresent().ifPresent(c -> resolvers.add(forType(type, c)));
+        argumentType.getIfPresent().ifPresent(c -> resolvers.addIndexed(forType(type, c), type));
     }
 
     public @NotNull ArgumentType<?> getArgumentType(@NotNull CommandParameter parameter) {
-        for (ArgumentTypeResolver resolver : resolvers) {
-            ArgumentType<?> type = resolver.getArgumentType(parameter);
-            if (type != null)
-                return type;
-        }
+        ArgumentType<?> type = resolvers.find(parameter.getType(), resolver -> resolver.getArgumentType(parameter));
+        if (type != null)
+            return type;
         return StringArgumentType.string();
     }
 
@@ -113,7 +117,25 @@ public final class CommodoreBukkitBrigadier implements BukkitBrigadier {
 
     @Override public @NotNull CommandActor wrapSource(@NotNull Object commandSource) {
         checkSupported();
-        return new BukkitActor(commodore.getBukkitSender(commandSource), handler);
+        return BukkitCommandActor.wrap(commodore.getBukkitSender(commandSource), handler);
+    }
+
+    /**
+     * Tests whether the given command source has the given permission. When
+     * the sent nodes are cached by permissions, the fingerprint of the player
+     * is used, rather than checking the permission again.
+     *
+     * @param commandSource The command source
+     * @param permission    The permission to test
+     * @return True if the source has the permission
+     */
+    boolean hasPermission(@NotNull Object commandSource, @NotNull CommandPermission permission) {
+        checkSupported();
+        CommandSender sender = commodore.getBukkitSender(commandSource);
+        CommandTreeCache treeCache = commodore.getTreeCache();
+        if (treeCache != null && sender instanceof Player)
+            return treeCache.hasPermission((Player) sender, permission);
+        return permission.canExecute(BukkitCommandActor.wrap(sender, handler));
     }
 
     @Override public void disableNativePlayerCompletion() {
@@ -130,6 +152,19 @@ public final class CommodoreBukkitBrigadier implements BukkitBrigadier {
         parser.parse(handler).forEach(n -> register(n.getNode()));
     }
 
+    @Override public void register(@NotNull Collection<CommandPath> roots) {
+        notNull(roots, "roots");
+        if (!isSupported()) return;
+        NodeParser parser = new NodeParser(this);
+        parser.parse(handler, roots).forEach(n -> register(n.getNode()));
+    }
+
+    @Override public void unregister(@NotNull String label) {
+        notNull(label, "label");
+        if (!isSupported()) return;
+        commodore.unregister(label);
+    }
+
     @Override public @NotNull BukkitCommandHandler getCommandHandler() {
         return handler;
     }
@@ -27,17 +27,22 @@ import com.mojang.brigadier.LiteralMessage;
 import com.mojang.brigadier.Message;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.context.ParsedCommandNode;
 import com.mojang.brigadier.suggestion.SuggestionProvider;
+import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.bukkit.BukkitBrigadier;
 import revxrsal.commands.bukkit.core.BukkitHandler;
 import revxrsal.commands.command.*;
 import revxrsal.commands.command.trait.PermissionHolder;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.core.EitherParameter;
 import revxrsal.commands.exception.ArgumentParseException;
 import revxrsal.commands.util.Either;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -73,6 +78,20 @@ final class NodeParser {
         return nodes;
     }
 
+    public List<Node> parse(CommandHandler handler, Collection<CommandPath> roots) {
+        List<Node> nodes = new ArrayList<>();
+        for (CommandPath root : roots) {
+            CommandCategory category = handler.getCategory(root);
+            if (category != null) {
+                nodes.add(create(category));
+                continue;
+            }
+            ExecutableCommand command = handler.getCommand(root);
+            if (command != null) nodes.add(create(command));
+        }
+        return nodes;
+    }
+
     private List<Node> createNodes(CommandParameter parameter) {
         if (parameter.isSwitch()) {
             String switchLiteral = parameter.getCommandHandler().getSwitchPrefix() + parameter.getSwitchName();
@@ -118,7 +137,7 @@ final class NodeParser {
     }
 
     private Predicate<Object> generateRequirement(PermissionHolder holder) {
-        return sender -> holder.getPermission().canExecute(brigadier.wrapSource(sender));
+        return new PermissionRequirement(brigadier, holder);
     }
 
     public Node create(ExecutableCommand command) {
@@ -187,14 +206,18 @@ final class NodeParser {
         return (context, builder) -> {
             try {
                 CommandActor actor = brigadier.wrapSource(context.getSource());
+                // the client may request suggestions for nodes it was never sent
+                if (!parameter.getDeclaringCommand().hasPermission(actor) || !parameter.hasPermission(actor))
+                    return builder.buildFuture();
                 String tooltipMessage = parameter.getDescription() == null ? parameter.getName() : parameter.getDescription();
                 Message tooltip = new LiteralMessage(tooltipMessage);
-                String input = context.getInput();
+                // only tokenize the arguments of the command, which Brigadier has already found
+                String input = builder.getInput();
+                int start = argumentsStart(context, parameter.getDeclaringCommand(), builder.getStart());
                 try {
-                    ArgumentStack args = ArgumentStack.parseForAutoCompletion(
-                            input.startsWith("/") ? input.substring(1) : input
-                    );
-                    parameter.getSuggestionProvider().getSuggestions(args, actor, parameter.getDeclaringCommand())
+                    ArgumentStack args = ArgumentStack.parseForAutoCompletion(input.substring(start));
+                    parameter.getCommandHandler().getAutoCompleter()
+                            .suggest(parameter, args, actor, parameter.getDeclaringCommand())
                             .stream()
                             .filter(c -> c.toLowerCase().startsWith(args.getLast().toLowerCase()))
                             .sorted(String.CASE_INSENSITIVE_ORDER)
@@ -207,4 +230,24 @@ final class NodeParser {
             return builder.buildFuture();
         };
     }
+
+    /**
+     * Returns the index in the input at which the arguments of the given command
+     * start, that is, right after the literals of its path.
+     *
+     * @param context  The context being suggested for
+     * @param command  The command
+     * @param fallback The index to return if no arguments have been parsed yet
+     * @return The start of the command arguments
+     */
+    private static int argumentsStart(@NotNull CommandContext<?> context, @NotNull ExecutableCommand command, int fallback) {
+        int path = command.getPath().size();
+        for (CommandContext<?> c = context; c != null; c = c.getChild()) {
+            for (ParsedCommandNode<?> parsed : c.getNodes()) {
+                if (path-- == 0)
+                    return parsed.getRange().getStart();
+            }
+        }
+        return fallback;
+    }
 }
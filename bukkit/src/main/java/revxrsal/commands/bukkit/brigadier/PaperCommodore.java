@@ -24,14 +24,19 @@
  */
 package revxrsal.commands.bukkit.brigadier;
 
+import com.destroystokyo.paper.event.brigadier.AsyncPlayerSendCommandsEvent;
 import com.destroystokyo.paper.event.brigadier.CommandRegisteredEvent;
+import com.mojang.brigadier.tree.CommandNode;
 import com.mojang.brigadier.tree.LiteralCommandNode;
+import com.mojang.brigadier.tree.RootCommandNode;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.command.UnknownCommandEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.bukkit.BukkitCommandActor;
@@ -41,9 +46,9 @@ import revxrsal.commands.command.ArgumentStack;
 import revxrsal.commands.exception.ArgumentParseException;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.mojang.brigadier.builder.LiteralArgumentBuilder.literal;
 import static revxrsal.commands.util.Strings.stripNamespace;
@@ -51,12 +56,14 @@ import static revxrsal.commands.util.Strings.stripNamespace;
 @SuppressWarnings({"rawtypes"})
 final class PaperCommodore extends Commodore implements Listener {
 
-    private final Map<String, LiteralCommandNode<?>> commands = new HashMap<>();
+    private final Map<String, LiteralCommandNode<?>> commands = new ConcurrentHashMap<>();
     private final BukkitCommandHandler handler;
     private final String fallbackPrefix;
+    private final CommandTreeCache treeCache;
 
     PaperCommodore(@NotNull BukkitCommandHandler handler) {
         this.handler = handler;
+        this.treeCache = new CommandTreeCache(handler, commands);
         Plugin plugin = handler.getPlugin();
         fallbackPrefix = plugin.getName().toLowerCase().trim();
         registerListener(plugin);
@@ -66,6 +73,8 @@ final class PaperCommodore extends Commodore implements Listener {
         // Put each listener in a class, in case one of them fails due to incompatibility.
         Bukkit.getPluginManager().registerEvents(new UnknownCommandListener(), plugin);
         Bukkit.getPluginManager().registerEvents(new CommandRegisterListener(), plugin);
+        Bukkit.getPluginManager().registerEvents(new SendCommandsListener(), plugin);
+        Bukkit.getPluginManager().registerEvents(new QuitListener(), plugin);
     }
 
     public final class UnknownCommandListener implements Listener {
@@ -110,10 +119,44 @@ final class PaperCommodore extends Commodore implements Listener {
         }
     }
 
+    public final class SendCommandsListener implements Listener {
+
+        /*
+         * Replaces our nodes in the tree sent to the player with the ones cached for
+         * their permissions, so the server's own filtering of them is discarded.
+         * This runs before other plugins, so that they can still filter our nodes,
+         * and every event gets its own copy of them.
+         */
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onSendCommands(AsyncPlayerSendCommandsEvent<?> event) {
+            if (!event.isAsynchronous() && event.hasFiredAsync())
+                return; // already done off the main thread
+            RootCommandNode root = event.getCommandNode();
+            Map<String, CommandNode<?>> tree = treeCache.getTree(event.getPlayer());
+            for (String label : commands.keySet()) {
+                if (root.getChild(label) == null)
+                    continue; // hidden by the server, such as namespaced labels
+                removeChild(root, label);
+                CommandNode<?> node = tree.get(label);
+                if (node != null)
+                    root.addChild(node);
+            }
+        }
+    }
+
+    public final class QuitListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(PlayerQuitEvent event) {
+            treeCache.forget(event.getPlayer());
+        }
+    }
+
     @Override
     public void register(LiteralCommandNode<?> node) {
         Objects.requireNonNull(node, "node");
         commands.put(node.getLiteral(), node);
+        treeCache.invalidate();
     }
 
     @Override
@@ -136,6 +179,19 @@ final class PaperCommodore extends Commodore implements Listener {
                 commands.put(redirectNode.getLiteral(), redirectNode);
             }
         }
+        treeCache.invalidate();
+    }
+
+    @Override
+    public void unregister(String label) {
+        Objects.requireNonNull(label, "label");
+        commands.values().removeIf(node -> isNodeOf(node, label));
+        treeCache.invalidate();
+    }
+
+    @Override
+    @NotNull CommandTreeCache getTreeCache() {
+        return treeCache;
     }
 
     static void ensureSetup() {
@@ -0,0 +1,63 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.bukkit.brigadier;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.bukkit.BukkitBrigadier;
+import revxrsal.commands.command.CommandPermission;
+import revxrsal.commands.command.trait.PermissionHolder;
+
+import java.util.function.Predicate;
+
+/**
+ * The requirement of a node that belongs to a {@link PermissionHolder}. This is
+ * a class rather than a lambda so that {@link CommandTreeCache} can tell which
+ * permission a node depends on.
+ * <p>
+ * When the sent nodes are filtered by {@link CommandTreeCache}, the permission
+ * is tested against the player's cached fingerprint, so that the server does not
+ * check the permission of every node for every player.
+ */
+final class PermissionRequirement implements Predicate<Object> {
+
+    private final BukkitBrigadier brigadier;
+    private final CommandPermission permission;
+
+    PermissionRequirement(@NotNull BukkitBrigadier brigadier, @NotNull PermissionHolder holder) {
+        this.brigadier = brigadier;
+        this.permission = holder.getPermission();
+    }
+
+    public @NotNull CommandPermission getPermission() {
+        return permission;
+    }
+
+    @Override public boolean test(Object sender) {
+        if (permission == CommandPermission.ALWAYS_TRUE)
+            return true;
+        if (brigadier instanceof CommodoreBukkitBrigadier)
+            return ((CommodoreBukkitBrigadier) brigadier).hasPermission(sender, permission);
+        return permission.canExecute(brigadier.wrapSource(sender));
+    }
+}
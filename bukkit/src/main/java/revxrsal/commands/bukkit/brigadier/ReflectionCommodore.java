@@ -95,6 +95,7 @@ final class ReflectionCommodore extends Commodore {
 
     private final Plugin plugin;
     private final List<LiteralCommandNode<?>> registeredNodes = new ArrayList<>();
+    private final Set<String> listenedCommands = new HashSet<>();
 
     ReflectionCommodore(BukkitCommandHandler handler) {
         this.plugin = handler.getPlugin();
@@ -121,6 +122,7 @@ final class ReflectionCommodore extends Commodore {
 
         removeChild(root, node.getName());
         root.addChild(node);
+        registeredNodes.removeIf(registered -> registered.getName().equals(node.getName()));
         registeredNodes.add(node);
     }
 
@@ -141,7 +143,22 @@ final class ReflectionCommodore extends Commodore {
                 register(LiteralArgumentBuilder.literal(alias).redirect((LiteralCommandNode<Object>) node).build());
             }
         }
-        plugin.getServer().getPluginManager().registerEvents(new CommandDataSendListener(command), plugin);
+        if (listenedCommands.add(command.getName()))
+            plugin.getServer().getPluginManager().registerEvents(new CommandDataSendListener(command), plugin);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void unregister(String label) {
+        Objects.requireNonNull(label, "label");
+
+        RootCommandNode root = getDispatcher().getRoot();
+        registeredNodes.removeIf(node -> {
+            if (!isNodeOf(node, label))
+                return false;
+            removeChild(root, node.getName());
+            return true;
+        });
     }
 
     /**
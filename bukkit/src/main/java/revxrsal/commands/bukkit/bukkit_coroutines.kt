@@ -0,0 +1,95 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copyright (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.bukkit
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import org.bukkit.Bukkit
+import org.bukkit.event.EventHandler
+import org.bukkit.event.EventPriority
+import org.bukkit.event.Listener
+import org.bukkit.event.player.PlayerQuitEvent
+import org.bukkit.event.server.PluginDisableEvent
+import org.bukkit.plugin.Plugin
+import revxrsal.commands.ktx.SuspendFunctionsSupport
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * A [CoroutineDispatcher] that runs coroutines on the server's main thread
+ */
+class BukkitMainDispatcher(private val plugin: Plugin) : CoroutineDispatcher() {
+
+    override fun isDispatchNeeded(context: CoroutineContext) = !Bukkit.isPrimaryThread()
+
+    override fun dispatch(context: CoroutineContext, block: Runnable) {
+        Bukkit.getScheduler().runTask(plugin, block)
+    }
+}
+
+/**
+ * A [CoroutineDispatcher] that runs coroutines on the server's asynchronous
+ * scheduler threads
+ */
+class BukkitAsyncDispatcher(private val plugin: Plugin) : CoroutineDispatcher() {
+
+    override fun isDispatchNeeded(context: CoroutineContext) = Bukkit.isPrimaryThread()
+
+    override fun dispatch(context: CoroutineContext, block: Runnable) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, block)
+    }
+}
+
+/**
+ * Tells the command handler to add support for functions with the [suspend]
+ * modifier. Commands resume on the server's main thread, unless they
+ * switch to another dispatcher, such as [BukkitAsyncDispatcher].
+ *
+ * Running commands are cancelled when their player quits, and when the
+ * plugin is disabled.
+ *
+ * @return The created support, which can be used to cancel running commands
+ * @see SuspendFunctionsSupport
+ */
+fun BukkitCommandHandler.supportSuspendFunctions(
+    defaultTimeoutMillis: Long = 0
+): SuspendFunctionsSupport {
+    val scope = CoroutineScope(SupervisorJob() + BukkitMainDispatcher(plugin))
+    val support = SuspendFunctionsSupport(scope, defaultTimeoutMillis)
+    accept(support)
+    Bukkit.getPluginManager().registerEvents(object : Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        fun onPlayerQuit(event: PlayerQuitEvent) {
+            support.cancel(event.player.uniqueId)
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        fun onPluginDisable(event: PluginDisableEvent) {
+            if (event.plugin == plugin)
+                scope.cancel()
+        }
+    }, plugin)
+    return support
+}
@@ -3,6 +3,7 @@ package revxrsal.commands.bukkit.core;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
@@ -20,13 +21,17 @@ import revxrsal.commands.locales.Locales;
 
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import static revxrsal.commands.util.Preconditions.notNull;
-import static revxrsal.commands.util.Strings.colorize;
+import static revxrsal.commands.util.Strings.joinLines;
 import static revxrsal.commands.util.Suppliers.lazy;
 
 @Internal
@@ -34,8 +39,21 @@ public final class BukkitActor implements BukkitCommandActor {
 
     private static final UUID CONSOLE_UUID = UUID.nameUUIDFromBytes("CONSOLE".getBytes(StandardCharsets.UTF_8));
 
+    // the UUIDs of senders that are neither players nor the console, by their names.
+    // the least recently used ones are evicted when there are too many.
+    private static final int MAX_NAME_UUIDS = 256;
+    private static final Map<String, UUID> NAME_UUIDS = new LinkedHashMap<String, UUID>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+            return size() > MAX_NAME_UUIDS;
+        }
+    };
+
+    // marks a player locale that is not recognized, so the handler's locale is used instead
+    private static final Locale UNKNOWN_LOCALE = new Locale("");
+
     private final CommandSender sender;
     private final BukkitHandler handler;
+    private volatile @Nullable Locale locale; // the player's locale, or null if not resolved yet
 
     public BukkitActor(CommandSender sender, CommandHandler handler) {
         this.sender = notNull(sender, "sender");
@@ -93,17 +111,49 @@ public final class BukkitActor implements BukkitCommandActor {
         else if (isConsole())
             return CONSOLE_UUID;
         else
-            return UUID.nameUUIDFromBytes(getName().getBytes(StandardCharsets.UTF_8));
+            return nameUUID(getName());
+    }
+
+    private static UUID nameUUID(String name) {
+        synchronized (NAME_UUIDS) {
+            return NAME_UUIDS.computeIfAbsent(name, n -> UUID.nameUUIDFromBytes(n.getBytes(StandardCharsets.UTF_8)));
+        }
     }
 
     @Override public void reply(@NotNull String message) {
         notNull(message, "message");
-        sender.sendMessage(colorize(handler.getMessagePrefix() + message));
+        sender.sendMessage(handler.colorizeReply(message));
     }
 
     @Override public void error(@NotNull String message) {
         notNull(message, "message");
-        sender.sendMessage(colorize(handler.getMessagePrefix() + "&c" + message));
+        sender.sendMessage(handler.colorizeError(message));
+    }
+
+    @Override public void reply(@NotNull Collection<String> lines) {
+        notNull(lines, "lines");
+        send(lines, handler::colorizeReply);
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        notNull(lines, "lines");
+        send(lines, handler::colorizeError);
+    }
+
+    private void send(Collection<String> lines, UnaryOperator<String> colorizer) {
+        if (lines.isEmpty())
+            return;
+        if (ADVENTURE.get() && Legacy.isAudience(sender)) {
+            // Bukkit sends every line of a message separately, while a component
+            // is sent as a whole.
+            Legacy.send(sender, joinLines(lines, colorizer));
+        } else {
+            String[] messages = new String[lines.size()];
+            int i = 0;
+            for (String line : lines)
+                messages[i++] = colorizer.apply(line);
+            sender.sendMessage(messages);
+        }
     }
 
     @Override public BukkitCommandHandler getCommandHandler() {
@@ -111,22 +161,67 @@ public final class BukkitActor implements BukkitCommandActor {
     }
 
     @Override public @NotNull Locale getLocale() {
-        if (isPlayer()) {
-            String playerLocale;
-            try {
-                playerLocale = requirePlayer().getLocale();
-            } catch (NoSuchMethodError e) {
-                Optional<MethodCaller> getLocale = BukkitActor.getLocale.get();
-                if (getLocale.isPresent()) {
-                    playerLocale = (String) getLocale.get().call(requirePlayer().spigot());
-                } else {
-                    return BukkitCommandActor.super.getLocale();
-                }
-            }
-            Locale locale = Locales.get(playerLocale);
-            return locale == null ? BukkitCommandActor.super.getLocale() : locale;
+        if (!isPlayer())
+            return BukkitCommandActor.super.getLocale();
+        Locale locale = this.locale;
+        if (locale == null) {
+            locale = resolveLocale();
+            if (handler.localeEvents) // otherwise, we won't know when it changes
+                this.locale = locale;
+        }
+        return locale == UNKNOWN_LOCALE ? BukkitCommandActor.super.getLocale() : locale;
+    }
+
+    /**
+     * Sets the cached locale of this actor. This is invoked when the player
+     * changes their locale.
+     *
+     * @param playerLocale The new locale of the player
+     */
+    void setLocale(@NotNull String playerLocale) {
+        this.locale = toLocale(playerLocale);
+    }
+
+    private @NotNull Locale resolveLocale() {
+        String playerLocale;
+        try {
+            playerLocale = requirePlayer().getLocale();
+        } catch (NoSuchMethodError e) {
+            Optional<MethodCaller> getLocale = BukkitActor.getLocale.get();
+            if (!getLocale.isPresent())
+                return UNKNOWN_LOCALE;
+            playerLocale = (String) getLocale.get().call(requirePlayer().spigot());
+        }
+        return toLocale(playerLocale);
+    }
+
+    private static @NotNull Locale toLocale(@Nullable String playerLocale) {
+        Locale locale = playerLocale == null ? null : Locales.get(playerLocale);
+        return locale == null ? UNKNOWN_LOCALE : locale;
+    }
+
+    // whether Adventure is present, as it is not on plain Spigot
+    private static final Supplier<Boolean> ADVENTURE = lazy(() -> {
+        try {
+            Class.forName("net.kyori.adventure.audience.Audience");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    });
+
+    // in a separate class, as Adventure may not be present
+    private static final class Legacy {
+
+        private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacySection();
+
+        static boolean isAudience(CommandSender sender) {
+            return sender instanceof Audience;
+        }
+
+        static void send(CommandSender sender, String message) {
+            ((Audience) sender).sendMessage(SERIALIZER.deserialize(message));
         }
-        return BukkitCommandActor.super.getLocale();
     }
 
     private static final Supplier<Optional<MethodCaller>> getLocale = lazy(() -> {
@@ -27,7 +27,7 @@ public final class BukkitCommandExecutor implements TabExecutor {
                              @NotNull Command command,
                              @NotNull String label,
                              @NotNull String[] args) {
-        BukkitCommandActor actor = new BukkitActor(sender, handler);
+        BukkitCommandActor actor = handler.wrap(sender);
         try {
             ArgumentStack arguments = ArgumentStack.parse(args);
             arguments.addFirst(stripNamespace(command.getName()));
@@ -46,7 +46,7 @@ public final class BukkitCommandExecutor implements TabExecutor {
                                       @NotNull String alias,
                                       @NotNull String[] args) {
         try {
-            BukkitCommandActor actor = new BukkitActor(sender, handler);
+            BukkitCommandActor actor = handler.wrap(sender);
             ArgumentStack arguments = ArgumentStack.parseForAutoCompletion(args);
 
             arguments.addFirst(stripNamespace(command.getName()));
@@ -24,15 +24,18 @@
 package revxrsal.commands.bukkit.core;
 
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.server.PluginDisableEvent;
-import revxrsal.commands.bukkit.BukkitCommandHandler;
 
 final class BukkitCommandListeners implements Listener {
 
-    private final BukkitCommandHandler handler;
+    private final BukkitHandler handler;
 
-    public BukkitCommandListeners(BukkitCommandHandler handler) {
+    public BukkitCommandListeners(BukkitHandler handler) {
         this.handler = handler;
     }
 
@@ -41,4 +44,40 @@ final class BukkitCommandListeners implements Listener {
         if (!event.getPlugin().equals(handler.getPlugin())) return;
         handler.unregisterAllCommands();
     }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        handler.playerIndex.add(event.getPlayer());
+        handler.offlinePlayers.remember(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        handler.playerIndex.remove(event.getPlayer());
+        handler.invalidateActor(event.getPlayer());
+    }
+
+    // in a separate class, as the event does not exist before 1.12
+    static final class LocaleListener implements Listener {
+
+        private final BukkitHandler handler;
+
+        LocaleListener(BukkitHandler handler) {
+            this.handler = handler;
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onLocaleChange(PlayerLocaleChangeEvent event) {
+            handler.updateLocale(event.getPlayer(), event.getLocale());
+        }
+
+        static boolean isSupported() {
+            try {
+                Class.forName("org.bukkit.event.player.PlayerLocaleChangeEvent");
+                return true;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+    }
 }
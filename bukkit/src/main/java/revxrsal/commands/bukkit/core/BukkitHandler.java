@@ -11,14 +11,12 @@ import org.bukkit.command.*;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
-import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import revxrsal.commands.CommandHandler;
 import revxrsal.commands.autocomplete.SuggestionProvider;
 import revxrsal.commands.bukkit.BukkitBrigadier;
 import revxrsal.commands.bukkit.BukkitCommandActor;
@@ -28,11 +26,12 @@ import revxrsal.commands.bukkit.adventure.ComponentResponseHandler;
 import revxrsal.commands.bukkit.brigadier.CommodoreBukkitBrigadier;
 import revxrsal.commands.bukkit.core.EntitySelectorResolver.SelectorSuggestionFactory;
 import revxrsal.commands.bukkit.exception.*;
-import revxrsal.commands.command.CommandCategory;
+import revxrsal.commands.command.CommandParameter;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.BaseCommandHandler;
 import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.exception.EnumNotFoundException;
+import revxrsal.commands.util.OnlinePlayerIndex;
 import revxrsal.commands.util.Primitives;
 
 import java.lang.reflect.Constructor;
@@ -41,23 +40,30 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import static revxrsal.commands.util.Preconditions.notNull;
 
 @ApiStatus.Internal
 public final class BukkitHandler extends BaseCommandHandler implements BukkitCommandHandler {
 
-    public static final SuggestionProvider playerSuggestionProvider = (args, sender, command) -> Bukkit.getOnlinePlayers()
-            .stream()
-            .filter(player -> !((BukkitCommandActor) sender).isPlayer() || ((BukkitCommandActor) sender).requirePlayer().canSee(player))
-            .map(HumanEntity::getName)
-            .collect(Collectors.toList());
+    public static final SuggestionProvider playerSuggestionProvider = (args, sender, command) ->
+            ((BukkitHandler) sender.getCommandHandler()).playerIndex
+                    .suggest(args.isEmpty() ? "" : args.get(args.size() - 1), sender);
 
     private final Plugin plugin;
     private Optional<BukkitBrigadier> brigadier;
+    private volatile boolean brigadierRegistered = false;
+    private final AtomicBoolean commandsUpdatePending = new AtomicBoolean();
+    private final Map<CommandSender, BukkitActor> actors = new ConcurrentHashMap<>();
+    boolean localeEvents = false; // whether players' locales can be cached, as we are notified when they change
+    final OnlinePlayerIndex<Player> playerIndex = new OnlinePlayerIndex<>(Player::getName);
+    final OfflinePlayerCache offlinePlayers = new OfflinePlayerCache(this);
     @Nullable Object bukkitAudiences; // use Object to avoid loading the class
 
     @SuppressWarnings("rawtypes")
@@ -70,6 +76,11 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
             brigadier = Optional.empty();
         }
         registerSenderResolver(BukkitSenderResolver.INSTANCE);
+        playerIndex.sync(Bukkit.getOnlinePlayers());
+        playerIndex.setVisibility((actor, player) -> {
+            CommandSender sender = ((BukkitCommandActor) actor).getSender();
+            return !(sender instanceof Player) || ((Player) sender).canSee(player);
+        });
         registerValueResolver(Player.class, context -> {
             String value = context.pop();
             if (value.equalsIgnoreCase("self") || value.equalsIgnoreCase("me"))
@@ -91,7 +102,7 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
                     throw new MalformedEntitySelectorException(context.actor(), value, e.getCause().getMessage());
                 }
             }
-            Player player = Bukkit.getPlayerExact(value);
+            Player player = playerIndex.get(value);
             if (player == null)
                 throw new InvalidPlayerException(context.parameter(), value);
             return player;
@@ -100,11 +111,30 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
             String value = context.pop();
             if (value.equalsIgnoreCase("self") || value.equalsIgnoreCase("me"))
                 return ((BukkitCommandActor) context.actor()).requirePlayer();
-            OfflinePlayer player = Bukkit.getOfflinePlayer(value);
-            if (!player.hasPlayedBefore() && !player.isOnline() && player.getFirstPlayed() == 0L)
+            CompletableFuture<OfflinePlayer> lookup = offlinePlayers.resolveAsync(value);
+            // never wait for a profile lookup on the main thread. It keeps
+            // running in the background, so that trying again will find it.
+            if (!lookup.isDone() && Bukkit.isPrimaryThread())
+                throw new PlayerLookupPendingException(context.parameter(), value);
+            OfflinePlayer player = lookup.join();
+            if (player == null)
                 throw new InvalidPlayerException(context.parameter(), value);
             return player;
         });
+        registerValueResolverFactory(parameter -> {
+            if (!isOfflinePlayerFuture(parameter))
+                return null;
+            return context -> {
+                String value = context.pop();
+                if (value.equalsIgnoreCase("self") || value.equalsIgnoreCase("me"))
+                    return CompletableFuture.completedFuture(((BukkitCommandActor) context.actor()).requirePlayer());
+                return offlinePlayers.resolveAsync(value).thenApply(player -> {
+                    if (player == null)
+                        throw new InvalidPlayerException(context.parameter(), value);
+                    return player;
+                });
+            };
+        });
         registerValueResolver(World.class, context -> {
             String value = context.pop();
             if (value.equalsIgnoreCase("self") || value.equalsIgnoreCase("me"))
@@ -132,6 +162,7 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
 
         getAutoCompleter().registerParameterSuggestions(Player.class, "players");
         getAutoCompleter().registerParameterSuggestions(OfflinePlayer.class, "players");
+        getAutoCompleter().registerSuggestionFactory(parameter -> isOfflinePlayerFuture(parameter) ? playerSuggestionProvider : null);
         getAutoCompleter().registerParameterSuggestions(World.class, "worlds");
 
         getAutoCompleter().registerSuggestionFactory(SelectorSuggestionFactory.INSTANCE);
@@ -142,20 +173,108 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
         registerDependency(Logger.class, (Supplier<Logger>) plugin::getLogger);
         registerPermissionReader(BukkitPermissionReader.INSTANCE);
         setExceptionHandler(BukkitExceptionAdapter.INSTANCE);
+        setAsyncExecutor(task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+        setPlatformExecutor(task -> {
+            if (Bukkit.isPrimaryThread())
+                task.run();
+            else
+                Bukkit.getScheduler().runTask(plugin, task);
+        });
+        offlinePlayers.loadKnownPlayers();
         Bukkit.getServer().getPluginManager().registerEvents(new BukkitCommandListeners(this), plugin);
+        if (BukkitCommandListeners.LocaleListener.isSupported()) {
+            Bukkit.getServer().getPluginManager().registerEvents(new BukkitCommandListeners.LocaleListener(this), plugin);
+            localeEvents = true;
+        }
+    }
+
+    /**
+     * Tests whether the given parameter is a {@code CompletableFuture<OfflinePlayer>},
+     * which is resolved without blocking the thread the command is dispatched on.
+     */
+    private static boolean isOfflinePlayerFuture(@NotNull CommandParameter parameter) {
+        return parameter.getType() == CompletableFuture.class
+                && Primitives.getInsideGeneric(parameter.getFullType(), Object.class) == OfflinePlayer.class;
+    }
+
+    /**
+     * Wraps the given sender in a {@link BukkitCommandActor}. Actors of online
+     * players and the console are interned, so that commands, tab completions
+     * and Brigadier share them, along with the identity and locale they cache.
+     * A player's actor is dropped when they quit (see {@link #invalidateActor(Player)}).
+     *
+     * @param sender Sender to wrap
+     * @return The command actor
+     */
+    public @NotNull BukkitCommandActor wrap(@NotNull CommandSender sender) {
+        BukkitActor actor = actors.get(sender);
+        if (actor != null)
+            return actor;
+        if (sender instanceof ConsoleCommandSender || (sender instanceof Player && ((Player) sender).isOnline()))
+            return actors.computeIfAbsent(sender, s -> new BukkitActor(s, this));
+        return new BukkitActor(sender, this);
+    }
+
+    /**
+     * Updates the locale cached by the interned actor of the given player, if any.
+     *
+     * @param player The player
+     * @param locale The new locale of the player
+     */
+    void updateLocale(@NotNull Player player, @NotNull String locale) {
+        BukkitActor actor = actors.get(player);
+        if (actor != null)
+            actor.setLocale(locale);
+    }
+
+    /**
+     * Removes the interned actor of the given player, who is leaving.
+     * <p>
+     * The player is still online while they quit, so anything that wraps them
+     * later in the quit (such as other listeners or tab completions) interns
+     * them again. The actor is therefore removed once more on the next tick,
+     * when the player is no longer online, so that it can never outlive them.
+     *
+     * @param player Player to invalidate
+     */
+    void invalidateActor(@NotNull Player player) {
+        actors.remove(player);
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> actors.computeIfPresent(player,
+                    (sender, actor) -> ((Player) actor.getSender()).isOnline() ? actor : null));
+        }
     }
 
-    @Override public @NotNull CommandHandler register(@NotNull Object... commands) {
-        super.register(commands);
-        for (ExecutableCommand command : executables.values()) {
-            if (command.getParent() != null) continue;
-            createPluginCommand(command.getName(), command.getDescription(), command.getUsage());
+    @Override protected void registerRootCommands(@NotNull Set<CommandPath> roots) {
+        for (CommandPath root : roots) {
+            ExecutableCommand command = getCommand(root);
+            if (command != null)
+                createPluginCommand(command.getName(), command.getDescription(), command.getUsage());
+            else
+                createPluginCommand(root.getFirst(), null, null);
         }
-        for (CommandCategory category : categories.values()) {
-            if (category.getParent() != null) continue;
-            createPluginCommand(category.getName(), null, null);
+        // commands registered after brigadier need their nodes as well
+        if (brigadierRegistered && brigadier.isPresent()) {
+            brigadier.get().register(roots);
+            scheduleCommandsUpdate();
         }
-        return this;
+    }
+
+    /**
+     * Sends the updated commands to all online players on the next tick, so
+     * that consecutive registrations only send them once.
+     */
+    private void scheduleCommandsUpdate() {
+        if (!commandsUpdatePending.compareAndSet(false, true) || !plugin.isEnabled())
+            return;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            commandsUpdatePending.set(false);
+            Bukkit.getOnlinePlayers().forEach(Player::updateCommands);
+        });
+    }
+
+    @Override public @NotNull OnlinePlayerIndex<Player> getPlayerIndex() {
+        return playerIndex;
     }
 
     @Override public @NotNull Optional<BukkitBrigadier> getBrigadier() {
@@ -168,6 +287,7 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
 
     @Override public BukkitCommandHandler registerBrigadier() {
         brigadier.ifPresent(BukkitBrigadier::register);
+        brigadierRegistered = brigadier.isPresent();
         return this;
     }
 
@@ -207,12 +327,11 @@ public final class BukkitHandler extends BaseCommandHandler implements BukkitCom
             cmd.setUsage(usage);
     }
 
-    @Override public boolean unregister(@NotNull CommandPath path) {
-        if (path.isRoot()) {
-            PluginCommand command = ((JavaPlugin) plugin).getCommand(path.getFirst());
-            unregisterCommand(command);
-        }
-        return super.unregister(path);
+    @Override protected void unregisterRootCommand(@NotNull CommandPath root) {
+        PluginCommand command = ((JavaPlugin) plugin).getCommand(root.getFirst());
+        unregisterCommand(command);
+        if (brigadierRegistered)
+            brigadier.ifPresent(b -> b.unregister(root.getFirst()));
     }
 
     private void unregisterCommand(PluginCommand command) {
@@ -40,10 +40,10 @@ import revxrsal.commands.exception.CommandErrorException;
 import revxrsal.commands.process.ValueResolver;
 import revxrsal.commands.process.ValueResolver.ValueResolverContext;
 import revxrsal.commands.process.ValueResolverFactory;
+import revxrsal.commands.util.OnlinePlayerIndex;
 import revxrsal.commands.util.Primitives;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import static revxrsal.commands.util.Preconditions.notNull;
@@ -97,14 +97,16 @@ public enum EntitySelectorResolver implements ValueResolverFactory {
                 return new EntitySelectorImpl<>(coll);
             }
             coll = new ArrayList<>();
-            Player[] players = Bukkit.getOnlinePlayers().toArray(new Player[0]);
+            OnlinePlayerIndex<Player> players = ((BukkitHandler) bActor.getCommandHandler()).playerIndex;
             switch (selector) {
-                case "@r":
-                    coll.add(players[ThreadLocalRandom.current().nextInt(players.length)]);
+                case "@r": {
+                    Player player = players.random();
+                    if (player != null)
+                        coll.add(player);
                     return new EntitySelectorImpl<>(coll);
+                }
                 case "@a": {
-                    Collections.addAll(coll, players);
-                    return new EntitySelectorImpl<>(coll);
+                    return new EntitySelectorImpl<>(players.all());
                 }
                 case "@s":
                 case "@p": {
@@ -112,7 +114,9 @@ public enum EntitySelectorResolver implements ValueResolverFactory {
                     return new EntitySelectorImpl<>(coll);
                 }
                 default: {
-                    Player player = Bukkit.getPlayer(selector);
+                    Player player = players.get(selector);
+                    if (player == null)
+                        player = Bukkit.getPlayer(selector);
                     if (player == null)
                         throw new InvalidPlayerException(context.parameter(), selector);
                     coll.add(player);
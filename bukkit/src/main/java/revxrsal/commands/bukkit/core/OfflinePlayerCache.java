@@ -0,0 +1,162 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.bukkit.core;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves {@link OfflinePlayer}s by name without blocking the main thread
+ * on profile lookups.
+ * <p>
+ * Names are resolved from an index of the players that have joined the
+ * server, which is loaded from {@link Bukkit#getOfflinePlayers()} in the
+ * background and kept up to date on join. Names that are not indexed are
+ * looked up with {@link Bukkit#getOfflinePlayer(String)} in the background,
+ * as it may query Mojang. Names that do not belong to any player are
+ * remembered for a while.
+ */
+final class OfflinePlayerCache {
+
+    private static final long MISSING_TTL = TimeUnit.MINUTES.toNanos(10);
+    private static final int MAX_MISSING = 1024;
+
+    private final BukkitHandler handler;
+    private final Map<String, UUID> known = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<@Nullable OfflinePlayer>> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> missing = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Entry<String, Long> eldest) {
+            return size() > MAX_MISSING;
+        }
+    };
+
+    OfflinePlayerCache(@NotNull BukkitHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Indexes the players that have played on the server, in the background
+     */
+    void loadKnownPlayers() {
+        handler.getAsyncExecutor().execute(() -> {
+            for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+                String name = player.getName();
+                if (name != null)
+                    known.putIfAbsent(key(name), player.getUniqueId());
+            }
+        });
+    }
+
+    /**
+     * Indexes the given player, who has just joined
+     *
+     * @param player Player to index
+     */
+    void remember(@NotNull Player player) {
+        String key = key(player.getName());
+        known.put(key, player.getUniqueId());
+        synchronized (missing) {
+            missing.remove(key);
+        }
+    }
+
+    /**
+     * Resolves the player with the given name, looking it up in the
+     * background if it is not indexed.
+     *
+     * @param name The player name
+     * @return The player, or a future of null if no player with such
+     * name has played on the server
+     */
+    @NotNull CompletableFuture<@Nullable OfflinePlayer> resolveAsync(@NotNull String name) {
+        OfflinePlayer player = getIndexed(name);
+        if (player != null || isMissing(key(name)))
+            return CompletableFuture.completedFuture(player);
+        String key = key(name);
+        CompletableFuture<OfflinePlayer> future = new CompletableFuture<>();
+        CompletableFuture<OfflinePlayer> existing = pending.putIfAbsent(key, future);
+        if (existing != null)
+            return existing;
+        handler.getAsyncExecutor().execute(() -> {
+            try {
+                future.complete(lookup(name));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                pending.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private @Nullable OfflinePlayer getIndexed(@NotNull String name) {
+        Player online = handler.playerIndex.get(name);
+        if (online != null)
+            return online;
+        UUID uuid = known.get(key(name));
+        return uuid == null ? null : Bukkit.getOfflinePlayer(uuid);
+    }
+
+    @SuppressWarnings("deprecation")
+    private @Nullable OfflinePlayer lookup(@NotNull String name) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(name);
+        String key = key(name);
+        if (!player.hasPlayedBefore() && !player.isOnline() && player.getFirstPlayed() == 0L) {
+            synchronized (missing) {
+                missing.put(key, System.nanoTime() + MISSING_TTL);
+            }
+            return null;
+        }
+        known.put(key, player.getUniqueId());
+        return player;
+    }
+
+    private boolean isMissing(@NotNull String key) {
+        synchronized (missing) {
+            Long expiresAt = missing.get(key);
+            if (expiresAt == null)
+                return false;
+            if (System.nanoTime() - expiresAt < 0)
+                return true;
+            missing.remove(key);
+            return false;
+        }
+    }
+
+    private static String key(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
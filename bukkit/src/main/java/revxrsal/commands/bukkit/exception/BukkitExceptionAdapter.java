@@ -20,6 +20,10 @@ public class BukkitExceptionAdapter extends DefaultExceptionHandler {
         actor.errorLocalized("invalid-player", exception.getInput());
     }
 
+    public void playerLookupPending(@NotNull CommandActor actor, @NotNull PlayerLookupPendingException exception) {
+        actor.errorLocalized("player-lookup-pending", exception.getInput());
+    }
+
     public void invalidWorld(@NotNull CommandActor actor, @NotNull InvalidWorldException exception) {
         actor.errorLocalized("invalid-world", exception.getInput());
     }
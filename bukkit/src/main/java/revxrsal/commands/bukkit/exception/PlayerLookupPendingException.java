@@ -0,0 +1,17 @@
+package revxrsal.commands.bukkit.exception;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.exception.InvalidValueException;
+
+/**
+ * Thrown on the main thread when an {@link org.bukkit.OfflinePlayer} parameter
+ * names a player that is not known to the server yet. The player is looked up
+ * in the background, and is resolved once the command is tried again.
+ */
+public class PlayerLookupPendingException extends InvalidValueException {
+
+    public PlayerLookupPendingException(@NotNull CommandParameter parameter, @NotNull String input) {
+        super(parameter, input);
+    }
+}
@@ -1,9 +1,11 @@
 package revxrsal.commands.bungee;
 
+import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.bungee.core.BungeeHandler;
+import revxrsal.commands.util.OnlinePlayerIndex;
 
 /**
  * Represents Bungee's command handler implementation
@@ -17,6 +19,14 @@ public interface BungeeCommandHandler extends CommandHandler {
      */
     @NotNull Plugin getPlugin();
 
+    /**
+     * Returns the index of online players, which is used to complete and
+     * resolve players.
+     *
+     * @return The online player index
+     */
+    @NotNull OnlinePlayerIndex<ProxiedPlayer> getPlayerIndex();
+
     /**
      * Creates a new {@link CommandHandler} for the specified plugin
      *
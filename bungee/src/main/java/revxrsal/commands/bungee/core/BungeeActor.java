@@ -6,13 +6,16 @@ import net.md_5.bungee.api.connection.ProxiedPlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.CommandHandler;
+import revxrsal.commands.core.BaseCommandHandler;
 import revxrsal.commands.bungee.BungeeCommandActor;
 import revxrsal.commands.bungee.exception.SenderNotPlayerException;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.UUID;
 
 import static revxrsal.commands.util.Strings.colorize;
+import static revxrsal.commands.util.Strings.joinLines;
 
 public final class BungeeActor implements BungeeCommandActor {
 
@@ -53,17 +56,39 @@ public final class BungeeActor implements BungeeCommandActor {
     }
 
     @Override public void reply(@NotNull String message) {
-        sender.sendMessage(new TextComponent(colorize(handler.getMessagePrefix() + message)));
+        sender.sendMessage(new TextComponent(colorizeReply(message)));
     }
 
     @Override public void error(@NotNull String message) {
-        reply("&c" + message);
+        sender.sendMessage(new TextComponent(colorizeError(message)));
+    }
+
+    @Override public void reply(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            sender.sendMessage(new TextComponent(joinLines(lines, this::colorizeReply)));
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            sender.sendMessage(new TextComponent(joinLines(lines, this::colorizeError)));
     }
 
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
 
+    private String colorizeReply(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeReply(message);
+        return colorize(handler.getMessagePrefix() + message);
+    }
+
+    private String colorizeError(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeError(message);
+        return colorize(handler.getMessagePrefix() + "&c" + message);
+    }
+
     @Override public @NotNull Locale getLocale() {
         if (isPlayer())
             return requirePlayer().getLocale();
@@ -7,18 +7,18 @@ import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Plugin;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
-import revxrsal.commands.CommandHandler;
 import revxrsal.commands.autocomplete.SuggestionProvider;
 import revxrsal.commands.bungee.BungeeCommandActor;
 import revxrsal.commands.bungee.BungeeCommandHandler;
 import revxrsal.commands.bungee.PlayerSelector;
 import revxrsal.commands.bungee.exception.BungeeExceptionAdapter;
 import revxrsal.commands.bungee.exception.InvalidPlayerException;
-import revxrsal.commands.command.CommandCategory;
-import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.BaseCommandHandler;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.process.ContextResolver;
+import revxrsal.commands.util.OnlinePlayerIndex;
 
+import java.util.Set;
 import java.util.logging.Logger;
 
 import static revxrsal.commands.util.Preconditions.notNull;
@@ -27,10 +27,13 @@ import static revxrsal.commands.util.Preconditions.notNull;
 public final class BungeeHandler extends BaseCommandHandler implements BungeeCommandHandler {
 
     private final Plugin plugin;
+    private final OnlinePlayerIndex<ProxiedPlayer> playerIndex = new OnlinePlayerIndex<>(ProxiedPlayer::getName);
 
     public BungeeHandler(Plugin plugin) {
         super();
         this.plugin = notNull(plugin, "plugin");
+        playerIndex.sync(ProxyServer.getInstance().getPlayers());
+        ProxyServer.getInstance().getPluginManager().registerListener(plugin, new BungeePlayerListener(playerIndex));
         registerSenderResolver(BungeeSenderResolver.INSTANCE);
         registerDependency((Class) plugin.getClass(), plugin);
         registerDependency(Plugin.class, plugin);
@@ -39,13 +42,13 @@ public final class BungeeHandler extends BaseCommandHandler implements BungeeCom
             String name = context.pop();
             if (name.equalsIgnoreCase("me") || name.equalsIgnoreCase("self"))
                 return ((BungeeCommandActor) context.actor()).requirePlayer();
-            ProxiedPlayer player = ProxyServer.getInstance().getPlayer(name);
+            ProxiedPlayer player = playerIndex.get(name);
             if (player == null) throw new InvalidPlayerException(context.parameter(), name);
             return player;
         });
         registerValueResolver(PlayerSelector.class, PlayerSelectorResolver.INSTANCE);
         getAutoCompleter()
-                .registerSuggestion("players", SuggestionProvider.map(ProxyServer.getInstance()::getPlayers, ProxiedPlayer::getName))
+                .registerSuggestion("players", playerIndex.suggestions())
                 .registerParameterSuggestions(ProxiedPlayer.class, "players")
                 .registerSuggestion("playerSelector", SuggestionProvider.of("@a", "@p", "@r", "@s")
                         .compose(getAutoCompleter().getSuggestionProvider("players")))
@@ -61,17 +64,9 @@ public final class BungeeHandler extends BaseCommandHandler implements BungeeCom
         setExceptionHandler(BungeeExceptionAdapter.INSTANCE);
     }
 
-    @Override public @NotNull CommandHandler register(@NotNull Object... commands) {
-        super.register(commands);
-        for (ExecutableCommand command : executables.values()) {
-            if (command.getParent() != null) continue;
-            createPluginCommand(command.getName());
-        }
-        for (CommandCategory category : categories.values()) {
-            if (category.getParent() != null) continue;
-            createPluginCommand(category.getName());
-        }
-        return this;
+    @Override protected void registerRootCommands(@NotNull Set<CommandPath> roots) {
+        for (CommandPath root : roots)
+            createPluginCommand(root.getFirst());
     }
 
     private void createPluginCommand(String name) {
@@ -79,6 +74,10 @@ public final class BungeeHandler extends BaseCommandHandler implements BungeeCom
         ProxyServer.getInstance().getPluginManager().registerCommand(plugin, command);
     }
 
+    @Override public @NotNull OnlinePlayerIndex<ProxiedPlayer> getPlayerIndex() {
+        return playerIndex;
+    }
+
     @Override public @NotNull Plugin getPlugin() {
         return plugin;
     }
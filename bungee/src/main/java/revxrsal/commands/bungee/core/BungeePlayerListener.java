@@ -0,0 +1,28 @@
+package revxrsal.commands.bungee.core;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+import revxrsal.commands.util.OnlinePlayerIndex;
+
+final class BungeePlayerListener implements Listener {
+
+    private final OnlinePlayerIndex<ProxiedPlayer> playerIndex;
+
+    public BungeePlayerListener(OnlinePlayerIndex<ProxiedPlayer> playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPostLogin(PostLoginEvent event) {
+        playerIndex.add(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onDisconnect(PlayerDisconnectEvent event) {
+        playerIndex.remove(event.getPlayer());
+    }
+}
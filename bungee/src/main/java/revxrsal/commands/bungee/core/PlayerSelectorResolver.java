@@ -1,9 +1,9 @@
 package revxrsal.commands.bungee.core;
 
-import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.bungee.BungeeCommandActor;
+import revxrsal.commands.bungee.BungeeCommandHandler;
 import revxrsal.commands.bungee.PlayerSelector;
 import revxrsal.commands.bungee.exception.InvalidPlayerException;
 import revxrsal.commands.command.ArgumentStack;
@@ -11,11 +11,10 @@ import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.CommandParameter;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.process.ValueResolver;
+import revxrsal.commands.util.OnlinePlayerIndex;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
 enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
 
@@ -25,14 +24,16 @@ enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
         BungeeCommandActor subject = context.actor();
         String value = context.pop().toLowerCase();
         List<ProxiedPlayer> coll = new ArrayList<>();
-        ProxiedPlayer[] players = ProxyServer.getInstance().getPlayers().toArray(new ProxiedPlayer[0]);
+        OnlinePlayerIndex<ProxiedPlayer> players = ((BungeeCommandHandler) subject.getCommandHandler()).getPlayerIndex();
         switch (value) {
-            case "@r":
-                coll.add(players[ThreadLocalRandom.current().nextInt(players.length)]);
+            case "@r": {
+                ProxiedPlayer player = players.random();
+                if (player != null)
+                    coll.add(player);
                 return coll::iterator;
+            }
             case "@a": {
-                Collections.addAll(coll, players);
-                return coll::iterator;
+                return players.all()::iterator;
             }
             case "@s":
             case "@p": {
@@ -40,7 +41,7 @@ enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
                 return coll::iterator;
             }
             default: {
-                ProxiedPlayer player = ProxyServer.getInstance().getPlayer(value);
+                ProxiedPlayer player = players.get(value);
                 if (player == null)
                     throw new InvalidPlayerException(context.parameter(), value);
                 coll.add(player);
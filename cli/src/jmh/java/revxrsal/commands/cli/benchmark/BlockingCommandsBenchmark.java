@@ -0,0 +1,106 @@
+package revxrsal.commands.cli.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import revxrsal.commands.annotation.Async;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.cli.ConsoleActor;
+import revxrsal.commands.cli.ConsoleCommandHandler;
+import revxrsal.commands.util.CommandExecutors;
+
+/**
+ * Measures how long it takes to run 10,000 {@link Async} commands that
+ * block for 10 milliseconds each (such as on an HTTP or database call),
+ * with different async executors.
+ * <p>
+ * Run with {@code ./gradlew :cli:jmh} on Java 21 or newer to compare virtual
+ * threads against the pools. On older JVMs, {@code virtual} falls back to
+ * the same pool as {@code bounded}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlockingCommandsBenchmark {
+
+    private static final int COMMANDS = 10_000;
+
+    /**
+     * The async executor: the default common pool, the fallback bounded
+     * pool, or virtual threads
+     */
+    @Param({"common", "bounded", "virtual"})
+    public String executor;
+
+    private ConsoleCommandHandler handler;
+    private ConsoleActor actor;
+    private Executor asyncExecutor;
+    private final BlockingCommands commands = new BlockingCommands();
+
+    @Setup public void setUp() {
+        PrintStream discard = new PrintStream(new OutputStream() {
+            @Override public void write(int b) {}
+
+            @Override public void write(byte[] b, int off, int len) {}
+        });
+        handler = ConsoleCommandHandler.create(new ByteArrayInputStream(new byte[0]), discard);
+        switch (executor) {
+            case "common":
+                asyncExecutor = ForkJoinPool.commonPool();
+                break;
+            case "bounded":
+                // the same size as the pool that virtualThreads() falls back to
+                asyncExecutor = CommandExecutors.bounded(Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+                break;
+            case "virtual":
+                asyncExecutor = CommandExecutors.virtualThreads();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown executor: " + executor);
+        }
+        handler.setAsyncExecutor(asyncExecutor);
+        handler.register(commands);
+        actor = handler.getConsole();
+    }
+
+    @Setup(Level.Invocation) public void resetLatch() {
+        commands.remaining = new CountDownLatch(COMMANDS);
+    }
+
+    @TearDown public void tearDown() {
+        if (executor.equals("bounded"))
+            ((ExecutorService) asyncExecutor).shutdownNow();
+    }
+
+    @Benchmark public void blockingCommands() throws InterruptedException {
+        CountDownLatch remaining = commands.remaining;
+        for (int i = 0; i < COMMANDS; i++)
+            handler.dispatch(actor, "fetch");
+        remaining.await();
+    }
+
+    public static final class BlockingCommands {
+
+        volatile CountDownLatch remaining;
+
+        @Async
+        @Command("fetch")
+        public void fetch(ConsoleActor actor) throws InterruptedException {
+            try {
+                Thread.sleep(10);
+            } finally {
+                remaining.countDown();
+            }
+        }
+    }
+}
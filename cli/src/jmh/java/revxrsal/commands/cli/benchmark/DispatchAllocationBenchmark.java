@@ -0,0 +1,64 @@
+package revxrsal.commands.cli.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.Switch;
+import revxrsal.commands.cli.ConsoleActor;
+import revxrsal.commands.cli.ConsoleCommandHandler;
+
+/**
+ * Measures the garbage of a dispatch, with and without
+ * {@link revxrsal.commands.CommandHandler#enableSingleThreadedDispatch() single-threaded dispatch}.
+ * <p>
+ * Run with {@code ./gradlew :cli:jmh}, and compare the {@code gc.alloc.rate.norm}
+ * (bytes per dispatch) of both modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchAllocationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean singleThreaded;
+
+    private ConsoleCommandHandler handler;
+    private ConsoleActor actor;
+
+    @Setup public void setUp() {
+        PrintStream discard = new PrintStream(new OutputStream() {
+            @Override public void write(int b) {}
+
+            @Override public void write(byte[] b, int off, int len) {}
+        });
+        handler = ConsoleCommandHandler.create(new ByteArrayInputStream(new byte[0]), discard);
+        if (singleThreaded)
+            handler.enableSingleThreadedDispatch();
+        handler.register(new Commands());
+        actor = handler.getConsole();
+    }
+
+    @Benchmark public Object noArguments() {
+        return handler.dispatch(actor, "ping");
+    }
+
+    @Benchmark public Object manyArguments() {
+        return handler.dispatch(actor, "warp set spawn 120 64 -340 -silent");
+    }
+
+    public static final class Commands {
+
+        @Command("ping")
+        public void ping(ConsoleActor actor) {}
+
+        @Command("warp set")
+        public void setWarp(ConsoleActor actor, String name, int x, int y, int z, @Switch boolean silent) {}
+    }
+}
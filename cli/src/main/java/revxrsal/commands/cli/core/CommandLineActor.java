@@ -7,6 +7,7 @@ import revxrsal.commands.cli.ConsoleActor;
 
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.Collection;
 import java.util.Scanner;
 import java.util.UUID;
 
@@ -55,6 +56,21 @@ public final class CommandLineActor implements ConsoleActor {
         getErrorStream().println(handler.getMessagePrefix() + message);
     }
 
+    @Override public void reply(@NotNull Collection<String> lines) {
+        getOutputStream().print(join(lines));
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        getErrorStream().print(join(lines));
+    }
+
+    private String join(Collection<String> lines) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines)
+            builder.append(handler.getMessagePrefix()).append(line).append(System.lineSeparator());
+        return builder.toString();
+    }
+
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
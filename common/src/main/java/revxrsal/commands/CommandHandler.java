@@ -26,9 +26,7 @@ package revxrsal.commands;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
-import revxrsal.commands.annotation.Dependency;
-import revxrsal.commands.annotation.Flag;
-import revxrsal.commands.annotation.Switch;
+import revxrsal.commands.annotation.*;
 import revxrsal.commands.annotation.dynamic.AnnotationReplacer;
 import revxrsal.commands.annotation.dynamic.Annotations;
 import revxrsal.commands.autocomplete.AutoCompleter;
@@ -40,6 +38,7 @@ import revxrsal.commands.exception.TooManyArgumentsException;
 import revxrsal.commands.help.CommandHelp;
 import revxrsal.commands.help.CommandHelpWriter;
 import revxrsal.commands.locales.Translator;
+import revxrsal.commands.metrics.CommandMetrics;
 import revxrsal.commands.process.*;
 
 import java.lang.annotation.Annotation;
@@ -47,8 +46,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * The main handler for registering commands, resolvers, interceptors, handlers,
@@ -123,6 +125,68 @@ public interface CommandHandler {
     @NotNull <T extends Throwable> CommandHandler registerExceptionHandler(@NotNull Class<T> exceptionType,
                                                                            @NotNull BiConsumer<CommandActor, T> handler);
 
+    /**
+     * Sets the {@link CommandMetrics} that records how long commands take
+     * to execute, and how often they fail.
+     * <p>
+     * By default, this is {@link CommandMetrics#disabled()}, which does not
+     * measure anything.
+     *
+     * @param metrics The metrics to use
+     * @return This command handler
+     * @see CommandMetrics#create()
+     */
+    @NotNull CommandHandler setMetrics(@NotNull CommandMetrics metrics);
+
+    /**
+     * Sets the function that returns the guild (or any other group, such
+     * as a server or a world) of an actor, which is used by commands
+     * with a {@link RateLimit.Scope#GUILD} rate limit.
+     * <p>
+     * The function should return {@link RateLimit#NO_GUILD} for actors that
+     * are not in a guild. By default, no actor is in a guild.
+     *
+     * @param guild The guild function
+     * @return This command handler
+     * @see RateLimit
+     */
+    @NotNull CommandHandler setRateLimitGuild(@NotNull ToLongFunction<CommandActor> guild);
+
+    /**
+     * Registers an {@link Executor} that commands can run on, using
+     * the {@link RunOn} annotation.
+     *
+     * @param id       The executor ID
+     * @param executor The executor
+     * @return This command handler
+     * @see RunOn
+     */
+    @NotNull CommandHandler registerExecutor(@NotNull String id, @NotNull Executor executor);
+
+    /**
+     * Sets the executor that {@link Async} commands run on. This is
+     * equivalent to {@code registerExecutor(Async.EXECUTOR, executor)}.
+     * <p>
+     * By default, this is {@link java.util.concurrent.ForkJoinPool#commonPool()},
+     * unless the platform provides a more appropriate one.
+     *
+     * @param executor The async executor
+     * @return This command handler
+     */
+    @NotNull CommandHandler setAsyncExecutor(@NotNull Executor executor);
+
+    /**
+     * Sets the executor used to return to the platform thread, such as
+     * the server's main thread, for response handlers that require it.
+     * <p>
+     * By default, this runs tasks directly on the calling thread.
+     *
+     * @param executor The platform executor
+     * @return This command handler
+     * @see ResponseHandler#requiresPlatformThread()
+     */
+    @NotNull CommandHandler setPlatformExecutor(@NotNull Executor executor);
+
     /**
      * Sets the prefix that all parameters annotated with {@link Switch} will
      * be checked against. If not set, <blockquote>-</blockquote> will be used
@@ -204,6 +268,37 @@ public interface CommandHandler {
      */
     @NotNull CommandHandler failOnTooManyArguments();
 
+    /**
+     * Marks this handler as running on a platform that dispatches all commands
+     * from a single thread, such as a server's main thread.
+     * <p>
+     * This allows the dispatcher to reuse the objects it creates for every
+     * command (the argument arrays and resolver contexts) instead of allocating
+     * them every time, reducing garbage on hot paths.
+     * <p>
+     * Resolvers and conditions must not retain the {@link revxrsal.commands.process.ParameterResolver.ParameterResolverContext}
+     * or its input list beyond their invocation when this is enabled.
+     * Dispatching commands from other threads remains safe, as every thread
+     * gets its own set of objects.
+     *
+     * @return This command handler
+     */
+    @NotNull CommandHandler enableSingleThreadedDispatch();
+
+    /**
+     * Allows commands to be parsed in parallel on the common fork-join pool
+     * when many of them are registered at once.
+     * <p>
+     * This invokes annotation replacers, resolver factories and suggestion
+     * provider factories from other threads, so it must only be enabled when
+     * all of them are thread-safe and do not rely on the thread's context
+     * class loader. By default, commands are parsed on the thread that
+     * registers them.
+     *
+     * @return This command handler
+     */
+    @NotNull CommandHandler enableParallelRegistration();
+
     /**
      * Registers the given sender resolver, which resolves parameters at index 0
      * that may be potentially a custom sender implementation.
@@ -351,7 +446,7 @@ public interface CommandHandler {
 
     /**
      * Registers the specified condition in which all commands will be
-     * validated with.
+     * validated with. This includes commands that are already registered.
      *
      * @param condition Condition to register
      * @return This command handler
@@ -484,6 +579,30 @@ public interface CommandHandler {
      */
     @NotNull CommandExceptionHandler getExceptionHandler();
 
+    /**
+     * Returns the {@link CommandMetrics} used by this command handler
+     *
+     * @return The command metrics
+     * @see #setMetrics(CommandMetrics)
+     */
+    @NotNull CommandMetrics getMetrics();
+
+    /**
+     * Returns the executor that {@link Async} commands run on
+     *
+     * @return The async executor
+     * @see #setAsyncExecutor(Executor)
+     */
+    @NotNull Executor getAsyncExecutor();
+
+    /**
+     * Returns the executor used to return to the platform thread
+     *
+     * @return The platform executor
+     * @see #setPlatformExecutor(Executor)
+     */
+    @NotNull Executor getPlatformExecutor();
+
     /**
      * Returns the {@link MethodCallerFactory} responsible for generating reflective
      * calls.
@@ -526,6 +645,39 @@ public interface CommandHandler {
      */
     void unregisterAllCommands();
 
+    /**
+     * Replaces the commands that were registered from the given container
+     * with the commands of the new container, such as when reloading a module.
+     * <p>
+     * The new container is parsed on the {@link #getAsyncExecutor() async executor},
+     * and then swapped in on the {@link #getPlatformExecutor() platform executor}
+     * in a single step, so there is no point in which neither the old nor the new
+     * commands are available. Root commands that no longer exist are unregistered
+     * from the platform, and new or changed ones are registered again.
+     * <p>
+     * If parsing fails, the old commands are kept and the returned future
+     * completes exceptionally.
+     *
+     * @param oldContainer The object that was passed to {@link #register(Object...)}.
+     *                     For orphan commands, this may also be the {@link revxrsal.commands.orphan.OrphanCommand}.
+     * @param newContainer The container to register instead
+     * @return A future that completes once the commands are replaced
+     */
+    @NotNull CompletableFuture<Void> reload(@NotNull Object oldContainer, @NotNull Object newContainer);
+
+    /**
+     * Replaces the given path and all the sub-paths that belong to it
+     * with the commands of the given containers.
+     * <p>
+     * This behaves like {@link #reload(Object, Object)}, in that the containers
+     * are parsed on the async executor and swapped in a single step.
+     *
+     * @param path     The path to replace
+     * @param commands The commands to register instead
+     * @return A future that completes once the commands are replaced
+     */
+    @NotNull CompletableFuture<Void> replace(@NotNull CommandPath path, @NotNull Object... commands);
+
     /**
      * Returns all the root commands or categories paths in
      * this command handler.
@@ -0,0 +1,111 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.annotation;
+
+import revxrsal.commands.autocomplete.AutoCompleter;
+import revxrsal.commands.autocomplete.CachedSuggestionProvider;
+import revxrsal.commands.autocomplete.SuggestionProvider;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the suggestions of a {@link SuggestionProvider}, so that expensive
+ * providers are not invoked on every keystroke.
+ * <p>
+ * This can be put on a {@link SuggestionProvider} class, in which case it
+ * is cached when registered with {@link AutoCompleter#registerSuggestion(String, SuggestionProvider)}
+ * or {@link AutoCompleter#registerParameterSuggestions(Class, SuggestionProvider)},
+ * or on a command parameter, in which case the suggestions of the parameter
+ * are cached. When both are present, the settings of the parameter are used.
+ *
+ * @see CachedSuggestionProvider
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.PARAMETER})
+public @interface CachedSuggestions {
+
+    /**
+     * How long suggestions are cached for
+     *
+     * @return The time to live
+     */
+    long ttl();
+
+    /**
+     * How long before suggestions expire should they be refreshed in
+     * the background. Until the refresh completes, the cached suggestions
+     * are still returned. Zero disables refreshing ahead.
+     *
+     * @return The refresh-ahead window
+     */
+    long refreshAhead() default 0;
+
+    /**
+     * The time unit of {@link #ttl()} and {@link #refreshAhead()}
+     *
+     * @return The time unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * What the suggestions are cached by
+     *
+     * @return The cache key
+     */
+    Key key() default Key.GLOBAL;
+
+    /**
+     * The maximum number of keys to cache suggestions for. When exceeded,
+     * the least recently used ones are evicted.
+     *
+     * @return The maximum size
+     */
+    int maximumSize() default 256;
+
+    /**
+     * Represents what suggestions are cached by
+     */
+    enum Key {
+
+        /**
+         * Suggestions are the same for everyone
+         */
+        GLOBAL,
+
+        /**
+         * Every actor has their own suggestions
+         */
+        ACTOR,
+
+        /**
+         * Suggestions are cached by the argument being completed, as well
+         * as the arguments before it
+         */
+        PREFIX
+    }
+}
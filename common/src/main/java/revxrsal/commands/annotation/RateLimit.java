@@ -0,0 +1,129 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.annotation;
+
+import revxrsal.commands.CommandHandler;
+import revxrsal.commands.exception.RateLimitedException;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a command can be executed, using a token bucket
+ * that holds up to {@link #burst()} permits and refills {@link #permits()}
+ * permits every {@link #per()} {@link #unit()}.
+ * <p>
+ * Unlike {@link Cooldown}, this allows short bursts, and is checked before
+ * any condition or argument is resolved, so rejected executions are
+ * cheap. A rejected execution throws a {@link RateLimitedException}.
+ */
+@DistributeOnMethods
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RateLimit {
+
+    /**
+     * Returned by the guild function of {@link CommandHandler#setRateLimitGuild(java.util.function.ToLongFunction)}
+     * for actors that are not in a guild
+     */
+    long NO_GUILD = Long.MIN_VALUE;
+
+    /**
+     * The number of permits that are refilled every {@link #per()}
+     *
+     * @return The permits
+     */
+    long permits();
+
+    /**
+     * The period in which {@link #permits()} are refilled
+     *
+     * @return The refill period
+     */
+    long per() default 1;
+
+    /**
+     * The time unit of {@link #per()}
+     *
+     * @return The time unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * The maximum number of permits that can be used at once. Zero or
+     * less defaults to {@link #permits()}.
+     *
+     * @return The bucket size
+     */
+    long burst() default 0;
+
+    /**
+     * Who the permits are shared between
+     *
+     * @return The scope
+     */
+    Scope scope() default Scope.ACTOR;
+
+    /**
+     * Whether should tab completions of this command be rate limited as
+     * well. Completions use their own bucket, with the same limits, and
+     * return no suggestions when limited.
+     *
+     * @return Whether to rate limit completions
+     */
+    boolean completions() default false;
+
+    /**
+     * Represents who the permits of a {@link RateLimit} are shared between
+     */
+    enum Scope {
+
+        /**
+         * Every actor has their own permits for the command
+         */
+        ACTOR,
+
+        /**
+         * All actors share the same permits for the command
+         */
+        COMMAND,
+
+        /**
+         * All actors in the same guild share the same permits for the command.
+         * Guilds are defined by {@link CommandHandler#setRateLimitGuild(java.util.function.ToLongFunction)},
+         * and actors that are not in a guild fall back to {@link #ACTOR}.
+         */
+        GUILD,
+
+        /**
+         * All actors share the same permits for all commands with
+         * a {@link #GLOBAL} scope. Each command uses its own limits
+         * when taking permits from the shared bucket.
+         */
+        GLOBAL
+    }
+}
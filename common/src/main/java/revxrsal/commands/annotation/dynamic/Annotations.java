@@ -24,6 +24,7 @@
 package revxrsal.commands.annotation.dynamic;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.util.Preconditions;
 
 import java.lang.annotation.Annotation;
@@ -31,7 +32,6 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.function.Supplier;
 
 /**
@@ -41,6 +41,12 @@ import java.util.function.Supplier;
  */
 public final class Annotations {
 
+    private static final ClassValue<AnnotationType> TYPES = new ClassValue<AnnotationType>() {
+        @Override protected AnnotationType computeValue(@NotNull Class<?> type) {
+            return new AnnotationType(type);
+        }
+    };
+
     /**
      * Creates a new annotation with no values. Any default values will
      * automatically be used.
@@ -69,11 +75,14 @@ public final class Annotations {
                                                            @NotNull Map<String, Object> members) {
         Preconditions.notNull(type, "type");
         Preconditions.notNull(members, "members");
-        return type.cast(Proxy.newProxyInstance(
-                type.getClassLoader(),
-                new Class<?>[]{type},
-                new DynamicAnnotationHandler(type, members)
-        ));
+        AnnotationType annotationType = TYPES.get(type);
+        Object[] values = annotationType.defaults.clone();
+        for (Map.Entry<String, Object> entry : members.entrySet()) {
+            Integer index = annotationType.indices.get(entry.getKey());
+            if (index != null)
+                values[index] = entry.getValue();
+        }
+        return type.cast(annotationType.newInstance(values));
     }
 
     /**
@@ -99,66 +108,47 @@ public final class Annotations {
             Object value = members[i + 1];
             values.put(key, value);
         }
-        return type.cast(Proxy.newProxyInstance(
-                type.getClassLoader(),
-                new Class<?>[]{type},
-                new DynamicAnnotationHandler(type, values)
-        ));
+        return create(type, values);
     }
 
-    /**
-     * Implementation of {@link Annotation#hashCode()}.
-     *
-     * @param type    The annotation type
-     * @param members The annotation members
-     * @return The annotation's hashcode.
-     */
-    private static int hashCode(Class<? extends Annotation> type, Map<String, Object> members) {
-        int result = 0;
-        for (Method method : type.getDeclaredMethods()) {
-            String name = method.getName();
-            Object value = members.get(name);
-            result += (127 * name.hashCode()) ^ (Arrays.deepHashCode(new Object[]{value}) - 31);
-        }
-        return result;
+    private static Object resolve(@Nullable Object value) {
+        return value instanceof Supplier ? ((Supplier<?>) value).get() : value;
     }
 
     /**
-     * Implementation of {@link Annotation#equals(Object)}.
-     *
-     * @param type    The annotation type
-     * @param members The annotation members
-     * @param other   The other annotation to compare
-     * @return if they are equal
+     * Returns the hash code of a member value, as specified by {@link Annotation#hashCode()}
      */
-    private static boolean equals(Class<? extends Annotation> type, Map<String, Object> members, Object other) throws Exception {
-        if (!type.isInstance(other)) {
-            return false;
-        }
-        for (Method method : type.getDeclaredMethods()) {
-            String name = method.getName();
-            if (!Arrays.deepEquals(new Object[]{method.invoke(other)}, new Object[]{members.get(name)})) {
-                return false;
-            }
-        }
-        return true;
+    private static int valueHashCode(@Nullable Object value) {
+        if (value == null) return 0;
+        if (!value.getClass().isArray()) return value.hashCode();
+        if (value instanceof Object[]) return Arrays.hashCode((Object[]) value);
+        if (value instanceof int[]) return Arrays.hashCode((int[]) value);
+        if (value instanceof long[]) return Arrays.hashCode((long[]) value);
+        if (value instanceof boolean[]) return Arrays.hashCode((boolean[]) value);
+        if (value instanceof byte[]) return Arrays.hashCode((byte[]) value);
+        if (value instanceof char[]) return Arrays.hashCode((char[]) value);
+        if (value instanceof short[]) return Arrays.hashCode((short[]) value);
+        if (value instanceof float[]) return Arrays.hashCode((float[]) value);
+        return Arrays.hashCode((double[]) value);
     }
 
     /**
-     * Implementation of {@link Annotation#toString()}.
-     *
-     * @param type    The annotation type
-     * @param members The annotation members
-     * @return The annotation's hashcode.
+     * Tests whether the given member values are equal, as specified by {@link Annotation#equals(Object)}
      */
-    private static String toString(Class<? extends Annotation> type, Map<String, Object> members) {
-        StringBuilder sb = new StringBuilder().append("@").append(type.getName()).append("(");
-        StringJoiner joiner = new StringJoiner(", ");
-        for (Entry<String, Object> entry : members.entrySet()) {
-            joiner.add(entry.getKey() + "=" + deepToString(entry.getValue()));
-        }
-        sb.append(joiner);
-        return sb.append(")").toString();
+    private static boolean valueEquals(@Nullable Object a, @Nullable Object b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        if (!a.getClass().isArray()) return a.equals(b);
+        if (a instanceof Object[] && b instanceof Object[]) return Arrays.equals((Object[]) a, (Object[]) b);
+        if (a.getClass() != b.getClass()) return false;
+        if (a instanceof int[]) return Arrays.equals((int[]) a, (int[]) b);
+        if (a instanceof long[]) return Arrays.equals((long[]) a, (long[]) b);
+        if (a instanceof boolean[]) return Arrays.equals((boolean[]) a, (boolean[]) b);
+        if (a instanceof byte[]) return Arrays.equals((byte[]) a, (byte[]) b);
+        if (a instanceof char[]) return Arrays.equals((char[]) a, (char[]) b);
+        if (a instanceof short[]) return Arrays.equals((short[]) a, (short[]) b);
+        if (a instanceof float[]) return Arrays.equals((float[]) a, (float[]) b);
+        return Arrays.equals((double[]) a, (double[]) b);
     }
 
     private static String deepToString(Object arg) {
@@ -166,37 +156,151 @@ public final class Annotations {
         return s.substring(1, s.length() - 1); // cut off the []
     }
 
-    private static class DynamicAnnotationHandler implements InvocationHandler {
+    /**
+     * The members of an annotation type, resolved once and shared by every
+     * dynamic annotation of that type.
+     */
+    private static final class AnnotationType {
+
+        private final Class<? extends Annotation> type;
+        private final Method[] members;
+        private final String[] names;
+        private final int[] nameHashes; // 127 times the hash code of each name
+        private final Object[] defaults;
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        /*
+         * The methods that proxies of this type are invoked with, by member index.
+         * Every proxy of the type shares the same proxy class and thus the same
+         * Method instances, so they are learnt on the first invocation and looked
+         * up by identity afterwards. Racing writes store the same instance.
+         */
+        private final Method[] proxyMethods;
 
-        private final Class<? extends Annotation> annotationType;
-        private final Map<String, Object> annotationMembers;
+        AnnotationType(@NotNull Class<?> type) {
+            if (!type.isAnnotation())
+                throw new IllegalArgumentException(type + " is not an annotation type!");
+            this.type = type.asSubclass(Annotation.class);
+            members = type.getDeclaredMethods();
+            Arrays.sort(members, Comparator.comparing(Method::getName));
+            names = new String[members.length];
+            nameHashes = new int[members.length];
+            defaults = new Object[members.length];
+            proxyMethods = new Method[members.length];
+            for (int i = 0; i < members.length; i++) {
+                names[i] = members[i].getName();
+                nameHashes[i] = 127 * names[i].hashCode();
+                defaults[i] = members[i].getDefaultValue();
+                indices.put(names[i], i);
+            }
+        }
 
-        DynamicAnnotationHandler(Class<? extends Annotation> annotationType, Map<String, Object> annotationMembers) {
-            this.annotationType = annotationType;
-            this.annotationMembers = new HashMap<>(annotationMembers);
-            for (Method method : annotationType.getDeclaredMethods()) {
-                this.annotationMembers.putIfAbsent(method.getName(), method.getDefaultValue());
+        /**
+         * Returns the index of the member that the given method of a proxy
+         * reads, or -1 if it is not a member
+         */
+        int indexOf(@NotNull Method method) {
+            Method[] proxyMethods = this.proxyMethods;
+            for (int i = 0; i < proxyMethods.length; i++) {
+                if (proxyMethods[i] == method)
+                    return i;
             }
+            Integer index = method.getParameterCount() == 0 ? indices.get(method.getName()) : null;
+            if (index == null)
+                return -1;
+            proxyMethods[index] = method;
+            return index;
+        }
+
+        Object newInstance(@NotNull Object[] values) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new DynamicAnnotationHandler(this, values));
+        }
+    }
+
+    private static final class DynamicAnnotationHandler implements InvocationHandler {
+
+        private final AnnotationType type;
+        private final Object[] values;
+        private final boolean dynamic; // whether any of the values is a Supplier
+        private int hashCode;
+
+        DynamicAnnotationHandler(AnnotationType type, Object[] values) {
+            this.type = type;
+            this.values = values;
+            boolean dynamic = false;
+            for (Object value : values)
+                dynamic |= value instanceof Supplier;
+            this.dynamic = dynamic;
         }
 
         @Override public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            switch (method.getName()) {
+            int index = type.indexOf(method);
+            if (index >= 0) {
+                Object value = resolve(values[index]);
+                if (value == null)
+                    throw new AbstractMethodError(method.getName());
+                return value;
+            }
+            String name = method.getName();
+            switch (name) {
                 case "toString":
-                    return Annotations.toString(annotationType, annotationMembers);
+                    return toString();
                 case "hashCode":
-                    return Annotations.hashCode(annotationType, annotationMembers);
+                    return hashCode();
                 case "equals":
-                    return Annotations.equals(annotationType, annotationMembers, args[0]);
+                    return isEqualTo(args[0]);
                 case "annotationType":
-                    return annotationType;
-                default: {
-                    Object v = annotationMembers.get(method.getName());
-                    if (v == null)
-                        throw new AbstractMethodError(method.getName());
-                    return v instanceof Supplier ? ((Supplier<?>) v).get() : v;
+                    return type.type;
+                default:
+                    throw new AbstractMethodError(name);
+            }
+        }
+
+        /**
+         * Implementation of {@link Annotation#hashCode()}.
+         */
+        @Override public int hashCode() {
+            int result = hashCode;
+            if (result == 0 || dynamic) {
+                result = 0;
+                for (int i = 0; i < values.length; i++)
+                    result += type.nameHashes[i] ^ valueHashCode(resolve(values[i]));
+                hashCode = result;
+            }
+            return result;
+        }
+
+        /**
+         * Implementation of {@link Annotation#equals(Object)}.
+         */
+        private boolean isEqualTo(Object other) throws Exception {
+            if (!type.type.isInstance(other))
+                return false;
+            if (Proxy.isProxyClass(other.getClass())) {
+                InvocationHandler handler = Proxy.getInvocationHandler(other);
+                if (handler == this)
+                    return true;
+                if (handler instanceof DynamicAnnotationHandler && !dynamic) {
+                    DynamicAnnotationHandler that = (DynamicAnnotationHandler) handler;
+                    if (!that.dynamic)
+                        return Arrays.deepEquals(values, that.values);
                 }
             }
+            for (int i = 0; i < values.length; i++) {
+                if (!valueEquals(type.members[i].invoke(other), resolve(values[i])))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Implementation of {@link Annotation#toString()}.
+         */
+        @Override public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "@" + type.type.getName() + "(", ")");
+            for (int i = 0; i < values.length; i++)
+                joiner.add(type.names[i] + "=" + deepToString(resolve(values[i])));
+            return joiner.toString();
         }
     }
 }
-
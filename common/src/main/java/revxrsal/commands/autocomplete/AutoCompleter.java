@@ -24,13 +24,20 @@
 package revxrsal.commands.autocomplete;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.annotation.AutoComplete;
+import revxrsal.commands.annotation.CachedSuggestions;
 import revxrsal.commands.command.ArgumentStack;
 import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.command.ExecutableCommand;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents the handler for registering and providing auto-completion
@@ -41,6 +48,9 @@ public interface AutoCompleter {
     /**
      * Registers a {@link SuggestionProvider} for the specified ID, for use in commands
      * through the {@link AutoComplete} annotation.
+     * <p>
+     * If the provider class is annotated with {@link CachedSuggestions}, its
+     * suggestions are cached by a {@link CachedSuggestionProvider}.
      *
      * @param providerID The tab suggestion id
      * @param provider   The provider for this suggestion
@@ -154,6 +164,99 @@ public interface AutoCompleter {
      */
     void filterToClosestInput(boolean filterToClosestInput);
 
+    /**
+     * Sets the maximum number of suggestions returned for enum parameters.
+     * Only the constants that start with the argument being completed are
+     * suggested, so this only limits how many of them are sent at once.
+     * <p>
+     * By default, this is 64. Auto-completers that do not support a limit
+     * ignore this.
+     *
+     * @param limit The maximum number of suggestions
+     * @return This auto-completer
+     */
+    default AutoCompleter setEnumSuggestionLimit(int limit) {
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of suggestions returned for enum parameters
+     *
+     * @return The maximum number of suggestions
+     * @see #setEnumSuggestionLimit(int)
+     */
+    default int getEnumSuggestionLimit() {
+        return 64;
+    }
+
+    /**
+     * Returns the suggestions of the given parameter's {@link SuggestionProvider}.
+     * <p>
+     * This applies suggestion monitoring, the circuit breaker and the completion
+     * limit of the command's {@link revxrsal.commands.annotation.RateLimit}, if
+     * enabled, and should be preferred over invoking the provider directly.
+     *
+     * @param parameter The parameter to complete
+     * @param args      The command arguments
+     * @param actor     The command actor
+     * @param command   The command being completed
+     * @return The suggestions. This is not filtered to the input.
+     * @throws Throwable Any exception thrown by the provider
+     */
+    default @NotNull Collection<String> suggest(@NotNull CommandParameter parameter,
+                                                @NotNull List<String> args,
+                                                @NotNull CommandActor actor,
+                                                @NotNull ExecutableCommand command) throws Throwable {
+        return parameter.getSuggestionProvider().getSuggestions(args, actor, command);
+    }
+
+    /**
+     * Measures the time taken by every {@link SuggestionProvider}, and notifies
+     * the given listener whenever a provider takes longer than the given
+     * threshold.
+     * <p>
+     * Statistics are available from {@link #getSuggestionStatistics()}.
+     * Auto-completers that do not support monitoring ignore this.
+     *
+     * @param slowThreshold The threshold after which a provider is considered slow
+     * @param unit          The unit of the threshold
+     * @param listener      The listener to notify of slow providers
+     * @return This auto-completer
+     */
+    default AutoCompleter monitorSuggestions(long slowThreshold, @NotNull TimeUnit unit, @NotNull SlowSuggestionListener listener) {
+        return this;
+    }
+
+    /**
+     * Enables a circuit breaker for suggestion providers. When a provider takes
+     * longer than the given budget (or fails) {@code tripAfter} times in a row,
+     * it returns no suggestions for the given open duration, after which it is
+     * tried again.
+     * <p>
+     * This implicitly enables monitoring, as in {@link #monitorSuggestions(long, TimeUnit, SlowSuggestionListener)},
+     * and is likewise ignored by auto-completers that do not support monitoring.
+     *
+     * @param budget    The time budget of a single call to a provider
+     * @param tripAfter The number of consecutive slow calls that open the circuit
+     * @param openFor   How long the circuit stays open
+     * @param unit      The unit of {@code budget} and {@code openFor}
+     * @return This auto-completer
+     */
+    default AutoCompleter enableCircuitBreaker(long budget, int tripAfter, long openFor, @NotNull TimeUnit unit) {
+        return this;
+    }
+
+    /**
+     * Returns the statistics of all the suggestion providers that have been
+     * invoked since monitoring was enabled, mapped by the provider ID.
+     *
+     * @return The suggestion statistics
+     * @see SlowSuggestionListener#onSlowSuggestion(String, CommandParameter, long)
+     */
+    default @NotNull @Unmodifiable Map<String, SuggestionStatistics> getSuggestionStatistics() {
+        return Collections.emptyMap();
+    }
+
     /**
      * Returns the containing {@link CommandHandler} of this auto completer.
      * This will allow for writing fluent and readable code.
@@ -0,0 +1,318 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.autocomplete;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.annotation.CachedSuggestions;
+import revxrsal.commands.annotation.CachedSuggestions.Key;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static revxrsal.commands.util.Preconditions.notNull;
+
+/**
+ * A {@link SuggestionProvider} that caches the suggestions of another
+ * provider.
+ * <p>
+ * Suggestions are cached by {@link CachedSuggestions#key()} for
+ * {@link CachedSuggestions#ttl()}, after which they are computed again. When
+ * they are requested within {@link CachedSuggestions#refreshAhead()} of
+ * expiring, they are refreshed on the given executor, and the cached ones
+ * are returned in the meantime. When more than {@link CachedSuggestions#maximumSize()}
+ * keys are cached, the least recently used ones are evicted.
+ * <p>
+ * When suggestions for a key are requested while they are already being
+ * computed, the request waits for that computation rather than invoking the
+ * provider again.
+ *
+ * @see CachedSuggestions
+ */
+public final class CachedSuggestionProvider implements SuggestionProvider {
+
+    private static final Object GLOBAL_KEY = new Object();
+
+    private final SuggestionProvider provider;
+    private final long ttl, refreshAfter;
+    private final Key key;
+    private final Executor executor;
+    private final Map<Object, CachedEntry> entries;
+    private final Map<Object, CompletableFuture<CachedEntry>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder(),
+            misses = new LongAdder(),
+            refreshes = new LongAdder(),
+            evictions = new LongAdder();
+
+    private CachedSuggestionProvider(@NotNull SuggestionProvider provider,
+                                     long ttl,
+                                     long refreshAhead,
+                                     @NotNull TimeUnit unit,
+                                     @NotNull Key key,
+                                     int maximumSize,
+                                     @NotNull Executor executor) {
+        if (ttl <= 0)
+            throw new IllegalArgumentException("Suggestions TTL must be positive!");
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum size must be positive!");
+        this.provider = provider;
+        this.ttl = unit.toNanos(ttl);
+        this.refreshAfter = refreshAhead <= 0 ? Long.MAX_VALUE : this.ttl - unit.toNanos(refreshAhead);
+        this.key = key;
+        this.executor = executor;
+        this.entries = new LinkedHashMap<Object, CachedEntry>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Entry<Object, CachedEntry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Caches the given provider with the given settings
+     *
+     * @param provider Provider to cache
+     * @param settings The cache settings
+     * @param executor The executor to refresh suggestions on
+     * @return The cached provider
+     */
+    public static @NotNull CachedSuggestionProvider of(@NotNull SuggestionProvider provider,
+                                                       @NotNull CachedSuggestions settings,
+                                                       @NotNull Executor executor) {
+        notNull(settings, "cached suggestions");
+        return of(provider, settings.ttl(), settings.refreshAhead(), settings.unit(), settings.key(), settings.maximumSize(), executor);
+    }
+
+    /**
+     * Caches the given provider with the given settings
+     *
+     * @param provider     Provider to cache
+     * @param ttl          How long suggestions are cached for
+     * @param refreshAhead How long before suggestions expire should they be
+     *                     refreshed in the background. Zero disables refreshing ahead.
+     * @param unit         The time unit of {@code ttl} and {@code refreshAhead}
+     * @param key          What suggestions are cached by
+     * @param maximumSize  The maximum number of keys to cache suggestions for
+     * @param executor     The executor to refresh suggestions on
+     * @return The cached provider
+     * @see CachedSuggestions
+     */
+    public static @NotNull CachedSuggestionProvider of(@NotNull SuggestionProvider provider,
+                                                       long ttl,
+                                                       long refreshAhead,
+                                                       @NotNull TimeUnit unit,
+                                                       @NotNull Key key,
+                                                       int maximumSize,
+                                                       @NotNull Executor executor) {
+        notNull(provider, "suggestion provider");
+        notNull(unit, "time unit");
+        notNull(key, "cache key");
+        notNull(executor, "executor");
+        if (provider instanceof CachedSuggestionProvider)
+            provider = ((CachedSuggestionProvider) provider).provider;
+        return new CachedSuggestionProvider(provider, ttl, refreshAhead, unit, key, maximumSize, executor);
+    }
+
+    @Override public @NotNull Collection<String> getSuggestions(@NotNull List<String> args,
+                                                                @NotNull CommandActor sender,
+                                                                @NotNull ExecutableCommand command) throws Throwable {
+        Object key = keyOf(args, sender);
+        long now = System.nanoTime();
+        CachedEntry entry = getFresh(key, now);
+        if (entry != null) {
+            hits.increment();
+            if (now - entry.createdAt >= refreshAfter && entry.refreshing.compareAndSet(false, true))
+                refresh(key, entry, new ArrayList<>(args), sender, command);
+            return entry.suggestions;
+        }
+        misses.increment();
+        return load(key, args, sender, command).suggestions;
+    }
+
+    private CachedEntry getFresh(Object key, long now) {
+        CachedEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        return entry != null && now - entry.createdAt < ttl ? entry : null;
+    }
+
+    private void refresh(Object key, CachedEntry entry, List<String> args, CommandActor sender, ExecutableCommand command) {
+        try {
+            executor.execute(() -> {
+                try {
+                    compute(key, args, sender, command);
+                } catch (Throwable ignored) {
+                    // keep the cached suggestions until they expire
+                    entry.refreshing.set(false);
+                }
+            });
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            // the executor rejected the refresh (such as when it is shut down),
+            // so allow a later request to try again.
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Computes the suggestions of the given key, or waits for them if
+     * another thread is already computing them.
+     */
+    private CachedEntry load(Object key, List<String> args, CommandActor sender, ExecutableCommand command) throws Throwable {
+        CompletableFuture<CachedEntry> future = new CompletableFuture<>();
+        CompletableFuture<CachedEntry> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            // another thread may have finished computing them since we checked
+            CachedEntry entry = getFresh(key, System.nanoTime());
+            if (entry == null)
+                entry = compute(key, args, sender, command);
+            future.complete(entry);
+            return entry;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            pending.remove(key, future);
+        }
+    }
+
+    private CachedEntry compute(Object key, List<String> args, CommandActor sender, ExecutableCommand command) throws Throwable {
+        Collection<String> suggestions = provider.getSuggestions(args, sender, command);
+        CachedEntry entry = new CachedEntry(Collections.unmodifiableList(new ArrayList<>(suggestions)), System.nanoTime());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private Object keyOf(List<String> args, CommandActor actor) {
+        switch (key) {
+            case ACTOR:
+                return actor.getUniqueId();
+            case PREFIX:
+                // the preceding arguments too, as suggestions may depend on them
+                return Collections.unmodifiableList(new ArrayList<>(args));
+            default:
+                return GLOBAL_KEY;
+        }
+    }
+
+    /**
+     * Removes all cached suggestions
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of keys that have cached suggestions
+     *
+     * @return The number of cached keys
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns how many times cached suggestions were returned
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns how many times suggestions had to be computed because they
+     * were not cached, or have expired
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns how many times suggestions were refreshed in the background
+     *
+     * @return The number of refreshes
+     */
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    /**
+     * Returns how many keys were evicted because the cache was full
+     *
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the provider whose suggestions are cached
+     *
+     * @return The cached provider
+     */
+    public @NotNull SuggestionProvider getProvider() {
+        return provider;
+    }
+
+    private static final class CachedEntry {
+
+        private final Collection<String> suggestions;
+        private final long createdAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedEntry(Collection<String> suggestions, long createdAt) {
+            this.suggestions = suggestions;
+            this.createdAt = createdAt;
+        }
+    }
+}
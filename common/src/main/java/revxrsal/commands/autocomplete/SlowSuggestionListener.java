@@ -0,0 +1,50 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.autocomplete;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.command.CommandParameter;
+
+/**
+ * A listener that is notified when a {@link SuggestionProvider} takes longer
+ * than the configured threshold to return its suggestions.
+ * <p>
+ * Register with {@link AutoCompleter#monitorSuggestions(long, java.util.concurrent.TimeUnit, SlowSuggestionListener)}
+ */
+@FunctionalInterface
+public interface SlowSuggestionListener {
+
+    /**
+     * Invoked when a provider was slow to return its suggestions
+     *
+     * @param providerId    The ID of the provider. This is the ID passed to
+     *                      {@link AutoCompleter#registerSuggestion(String, SuggestionProvider)},
+     *                      or the command path and parameter name for
+     *                      providers that were not registered with an ID.
+     * @param parameter     The parameter being completed
+     * @param durationNanos The time taken by the provider, in nanoseconds
+     */
+    void onSlowSuggestion(@NotNull String providerId, @NotNull CommandParameter parameter, long durationNanos);
+
+}
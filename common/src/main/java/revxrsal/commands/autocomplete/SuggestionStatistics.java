@@ -0,0 +1,90 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.autocomplete;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A point-in-time copy of the statistics recorded for a single {@link SuggestionProvider}.
+ *
+ * @see AutoCompleter#getSuggestionStatistics()
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class SuggestionStatistics {
+
+    /**
+     * The ID of the provider
+     *
+     * @see SlowSuggestionListener#onSlowSuggestion(String, revxrsal.commands.command.CommandParameter, long)
+     */
+    private final @NotNull String providerId;
+
+    /**
+     * The number of times the provider was invoked
+     */
+    private final long calls;
+
+    /**
+     * The total time spent in the provider, in nanoseconds
+     */
+    private final long totalNanos;
+
+    /**
+     * The longest time taken by the provider, in nanoseconds
+     */
+    private final long maxNanos;
+
+    /**
+     * The total number of suggestions returned by the provider
+     */
+    private final long suggestions;
+
+    /**
+     * The number of times the provider threw an exception
+     */
+    private final long failures;
+
+    /**
+     * The number of times the provider exceeded the slow threshold
+     */
+    private final long slowCalls;
+
+    /**
+     * The number of calls that were skipped because the circuit breaker
+     * of the provider was open
+     */
+    private final long rejected;
+
+    /**
+     * Whether the circuit breaker of the provider is currently open, in
+     * which case it returns no suggestions
+     */
+    private final boolean open;
+
+}
@@ -29,6 +29,7 @@ import revxrsal.commands.CommandHandler;
 import revxrsal.commands.locales.Translator;
 
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
@@ -81,6 +82,36 @@ public interface CommandActor {
      */
     void error(@NotNull String message);
 
+    /**
+     * Replies to the sender with the specified lines. Platforms send these
+     * as a single message where possible, which is preferable to calling
+     * {@link #reply(String)} for every line when sending many lines, such
+     * as help menus.
+     * <p>
+     * By default, this calls {@link #reply(String)} for every line.
+     *
+     * @param lines Lines to reply with
+     */
+    default void reply(@NotNull Collection<String> lines) {
+        for (String line : lines)
+            reply(line);
+    }
+
+    /**
+     * Replies to the sender with the specified lines, and marks them as
+     * an error depending on the platform. Platforms send these as a single
+     * message where possible.
+     * <p>
+     * By default, this calls {@link #error(String)} for every line.
+     *
+     * @param lines Lines to reply with
+     * @see #reply(Collection)
+     */
+    default void error(@NotNull Collection<String> lines) {
+        for (String line : lines)
+            error(line);
+    }
+
     /**
      * Returns the command handler that constructed this actor
      *
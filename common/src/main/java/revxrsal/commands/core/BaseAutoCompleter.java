@@ -25,28 +25,32 @@ package revxrsal.commands.core;
 
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.CommandHandler;
-import revxrsal.commands.autocomplete.AutoCompleter;
-import revxrsal.commands.autocomplete.SuggestionProvider;
-import revxrsal.commands.autocomplete.SuggestionProviderFactory;
+import revxrsal.commands.annotation.CachedSuggestions;
+import revxrsal.commands.autocomplete.*;
 import revxrsal.commands.command.*;
 import revxrsal.commands.util.Primitives;
+import revxrsal.commands.util.TypeIndexedList;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
 import static revxrsal.commands.util.Collections.listOf;
-import static revxrsal.commands.util.Preconditions.coerceIn;
 import static revxrsal.commands.util.Preconditions.notNull;
 
 final class BaseAutoCompleter implements AutoCompleter {
 
     private final BaseCommandHandler handler;
-    final Map<String, SuggestionProvider> suggestionKeys = new HashMap<>();
-    final List<SuggestionProviderFactory> factories = new ArrayList<>();
+    final Map<String, SuggestionProvider> suggestionKeys = new ConcurrentHashMap<>();
+    final TypeIndexedList<SuggestionProviderFactory> factories = new TypeIndexedList<>();
+    private final SuggestionMonitor monitor = new SuggestionMonitor(suggestionKeys);
     private boolean filterToClosestInput = true;
+    private volatile int enumSuggestionLimit = 64;
 
     public BaseAutoCompleter(BaseCommandHandler handler) {
         this.handler = handler;
@@ -58,9 +62,9 @@ final class BaseAutoCompleter implements AutoCompleter {
     }
 
     @Override public AutoCompleter registerSuggestion(@NotNull String providerID, @NotNull SuggestionProvider provider) {
-        notNull(provider, "provider ID");
+        notNull(providerID, "provider ID");
         notNull(provider, "tab suggestion provider");
-        suggestionKeys.put(providerID, provider);
+        suggestionKeys.put(providerID, cacheIfAnnotated(provider, provider.getClass().getAnnotation(CachedSuggestions.class)));
         return this;
     }
 
@@ -79,10 +83,11 @@ final class BaseAutoCompleter implements AutoCompleter {
     @Override public AutoCompleter registerParameterSuggestions(@NotNull Class<?> parameterType, @NotNull SuggestionProvider provider) {
         notNull(parameterType, "parameter type");
         notNull(provider, "provider");
-        registerSuggestionFactory(SuggestionProviderFactory.forType(parameterType, provider));
+        provider = cacheIfAnnotated(provider, provider.getClass().getAnnotation(CachedSuggestions.class));
+        factories.addIndexed(SuggestionProviderFactory.forType(parameterType, provider), parameterType);
         Class<?> wrapped = Primitives.wrap(parameterType);
         if (wrapped != parameterType) {
-            registerSuggestionFactory(SuggestionProviderFactory.forType(wrapped, provider));
+            factories.addIndexed(SuggestionProviderFactory.forType(wrapped, provider), wrapped);
         }
         return this;
     }
@@ -106,7 +111,7 @@ final class BaseAutoCompleter implements AutoCompleter {
 
     @Override public AutoCompleter registerSuggestionFactory(int priority, @NotNull SuggestionProviderFactory factory) {
         notNull(factory, "suggestion provider factory cannot be null!");
-        factories.add(coerceIn(priority, 0, factories.size()), factory);
+        factories.add(priority, factory);
         return this;
     }
 
@@ -114,15 +119,21 @@ final class BaseAutoCompleter implements AutoCompleter {
         if (parameter.isSwitch()) {
             return SuggestionProvider.of(handler.switchPrefix + parameter.getSwitchName());
         }
-        for (SuggestionProviderFactory factory : factories) {
-            SuggestionProvider provider = factory.createSuggestionProvider(parameter);
-            if (provider == null) continue;
+        SuggestionProvider provider = factories.find(parameter.getType(), factory -> factory.createSuggestionProvider(parameter));
+        if (provider == null && parameter.getType().isEnum())
+            provider = EnumSuggestionProviderFactory.INSTANCE.createSuggestionProvider(parameter);
+        if (provider == null)
+            return SuggestionProvider.EMPTY;
+        return cacheIfAnnotated(provider, parameter.getAnnotation(CachedSuggestions.class));
+    }
+
+    private SuggestionProvider cacheIfAnnotated(SuggestionProvider provider, @Nullable CachedSuggestions settings) {
+        if (settings == null || provider == SuggestionProvider.EMPTY)
             return provider;
-        }
-        if (parameter.getType().isEnum()) {
-            return EnumSuggestionProviderFactory.INSTANCE.createSuggestionProvider(parameter);
-        }
-        return SuggestionProvider.EMPTY;
+        // a provider already cached by its class is cached with these settings instead, not twice
+        if (provider instanceof CachedSuggestionProvider)
+            provider = ((CachedSuggestionProvider) provider).getProvider();
+        return CachedSuggestionProvider.of(provider, settings, task -> handler.getAsyncExecutor().execute(task));
     }
 
     @Override public SuggestionProvider getSuggestionProvider(@NotNull String id) {
@@ -132,17 +143,21 @@ final class BaseAutoCompleter implements AutoCompleter {
     @Override public List<String> complete(@NotNull CommandActor actor, @NotNull ArgumentStack arguments) {
         CommandPath path = CommandPath.get(arguments.subList(0, arguments.size() - 1));
         int originalSize = arguments.size();
-        ExecutableCommand command = searchForCommand(path, actor);
+        Registry registry = handler.registry;
+        ExecutableCommand command = searchForCommand(registry, path, actor);
         if (command != null) {
+            RateLimiter rateLimiter = ((CommandExecutable) command).completionRateLimiter;
+            if (rateLimiter != null && !rateLimiter.tryAcquire(actor))
+                return emptyList();
             command.getPath().forEach(c -> arguments.removeFirst());
             return getCompletions(actor, arguments, command);
         }
-        CommandCategory category = getLastCategory(path);
+        BaseCommandCategory category = getLastCategory(registry, path);
         if (category == null)
             return emptyList();
 
         category.getPath().forEach(c -> arguments.removeFirst());
-        return getCompletions(actor, arguments, category, originalSize);
+        return getCompletions(actor, arguments, category.getPath(), registry.node(category), originalSize);
     }
 
     @Override public List<String> complete(@NotNull CommandActor actor, @NotNull String buffer) {
@@ -154,25 +169,74 @@ final class BaseAutoCompleter implements AutoCompleter {
         this.filterToClosestInput = filterToClosestInput;
     }
 
-    private ExecutableCommand searchForCommand(CommandPath path, CommandActor actor) {
-        ExecutableCommand found = handler.getCommand(path);
+    @Override public AutoCompleter setEnumSuggestionLimit(int limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Enum suggestion limit must be positive!");
+        this.enumSuggestionLimit = limit;
+        return this;
+    }
+
+    @Override public int getEnumSuggestionLimit() {
+        return enumSuggestionLimit;
+    }
+
+    @Override public @NotNull Collection<String> suggest(@NotNull CommandParameter parameter,
+                                                         @NotNull List<String> args,
+                                                         @NotNull CommandActor actor,
+                                                         @NotNull ExecutableCommand command) throws Throwable {
+        if (command instanceof CommandExecutable) {
+            RateLimiter rateLimiter = ((CommandExecutable) command).completionRateLimiter;
+            if (rateLimiter != null && !rateLimiter.tryAcquire(actor))
+                return emptyList();
+        }
+        return monitor.suggest(parameter, args, actor, command);
+    }
+
+    /**
+     * Removes the suggestion statistics of commands that are no longer registered
+     */
+    void forgetUnregistered() {
+        monitor.forgetUnregistered(handler::isRegistered);
+    }
+
+    @Override public AutoCompleter monitorSuggestions(long slowThreshold, @NotNull TimeUnit unit, @NotNull SlowSuggestionListener listener) {
+        notNull(unit, "time unit");
+        notNull(listener, "slow suggestion listener");
+        monitor.monitor(unit.toNanos(slowThreshold), listener);
+        return this;
+    }
+
+    @Override public AutoCompleter enableCircuitBreaker(long budget, int tripAfter, long openFor, @NotNull TimeUnit unit) {
+        notNull(unit, "time unit");
+        if (tripAfter <= 0)
+            throw new IllegalArgumentException("tripAfter must be positive!");
+        monitor.enableCircuitBreaker(unit.toNanos(budget), tripAfter, unit.toNanos(openFor));
+        return this;
+    }
+
+    @Override public @NotNull @Unmodifiable Map<String, SuggestionStatistics> getSuggestionStatistics() {
+        return monitor.snapshot();
+    }
+
+    private ExecutableCommand searchForCommand(Registry registry, CommandPath path, CommandActor actor) {
+        ExecutableCommand found = registry.executables.get(path);
         if (found != null && !found.isSecret() && found.getPermission().canExecute(actor)) return found;
         MutableCommandPath mpath = MutableCommandPath.empty();
         for (String p : path) {
             mpath.add(p);
-            found = handler.getCommand(mpath);
+            found = registry.executables.get(mpath);
             if (found != null && !found.isSecret() && found.getPermission().canExecute(actor))
                 return found;
         }
         return null;
     }
 
-    private CommandCategory getLastCategory(CommandPath path) {
+    private BaseCommandCategory getLastCategory(Registry registry, CommandPath path) {
         MutableCommandPath mpath = MutableCommandPath.empty();
-        CommandCategory category = null;
+        BaseCommandCategory category = null;
         for (String p : path) {
             mpath.add(p);
-            CommandCategory c = handler.getCategory(mpath);
+            BaseCommandCategory c = registry.categories.get(mpath);
             if (c == null && category != null)
                 return category;
             if (c != null)
@@ -194,9 +258,8 @@ final class BaseAutoCompleter implements AutoCompleter {
                     if (parameter.isFlag()) continue;
                     if (parameter.getCommandIndex() == args.size() - 1) {
                         if (!parameter.getPermission().canExecute(actor)) return emptyList();
-                        SuggestionProvider provider = parameter.getSuggestionProvider();
-                        notNull(provider, "provider must not be null!");
-                        return getParamCompletions(provider.getSuggestions(args, actor, command), args);
+                        notNull(parameter.getSuggestionProvider(), "provider must not be null!");
+                        return getParamCompletions(monitor.suggest(parameter, args, actor, command), args);
                     }
                 } catch (Throwable ignored) {
                 }
@@ -209,15 +272,14 @@ final class BaseAutoCompleter implements AutoCompleter {
                 return index == args.size() - 2;
             }).findFirst();
             if (currentFlag.isPresent()) {
-                SuggestionProvider provider = currentFlag.get().getSuggestionProvider();
-                return getParamCompletions(provider.getSuggestions(args, actor, command), args);
+                return getParamCompletions(monitor.suggest(currentFlag.get(), args, actor, command), args);
             }
             for (CommandParameter flag : parameters) {
                 int index = args.indexOf(handler.getFlagPrefix() + flag.getFlagName());
                 if (index == -1) {
                     return listOf(handler.getFlagPrefix() + flag.getFlagName());
                 } else if (index == args.size() - 2) {
-                    return getParamCompletions(flag.getSuggestionProvider().getSuggestions(args, actor, command), args);
+                    return getParamCompletions(monitor.suggest(flag, args, actor, command), args);
                 }
             }
             return emptyList();
@@ -235,19 +297,19 @@ final class BaseAutoCompleter implements AutoCompleter {
                 .collect(Collectors.toList());
     }
 
-    private List<String> getCompletions(CommandActor actor, @Unmodifiable ArgumentStack args, CommandCategory category, int originalSize) {
+    private List<String> getCompletions(CommandActor actor, @Unmodifiable ArgumentStack args, CommandPath path, Registry.Node category, int originalSize) {
         if (args.isEmpty()) return emptyList();
         Set<String> suggestions = new HashSet<>();
-        if (category.getDefaultAction() != null) {
-            ExecutableCommand defaultAction = category.getDefaultAction();
+        ExecutableCommand defaultAction = category.defaultAction;
+        if (defaultAction != null) {
             if (!defaultAction.isSecret() && defaultAction.getPermission().canExecute(actor))
                 suggestions.addAll(getCompletions(actor, args, defaultAction));
         }
-        if (originalSize - category.getPath().size() == 1) {
-            category.getCommands().values().forEach(c -> {
+        if (originalSize - path.size() == 1) {
+            category.commands.values().forEach(c -> {
                 if (!c.isSecret() && c.getPermission().canExecute(actor)) suggestions.add(c.getName());
             });
-            category.getCategories().values().forEach(c -> {
+            category.categories.values().forEach(c -> {
                 if (!c.isSecret() && c.getPermission().canExecute(actor)) suggestions.add(c.getName());
             });
         }
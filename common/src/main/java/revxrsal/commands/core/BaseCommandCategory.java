@@ -32,8 +32,6 @@ import revxrsal.commands.command.CommandCategory;
 import revxrsal.commands.command.CommandPermission;
 import revxrsal.commands.command.ExecutableCommand;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 final class BaseCommandCategory implements CommandCategory {
@@ -41,14 +39,17 @@ final class BaseCommandCategory implements CommandCategory {
     // lazily populated by CommandParser
     CommandPath path;
     String name;
-    @Nullable BaseCommandCategory parent;
-    @Nullable CommandExecutable defaultAction;
-    CommandHandler handler;
-
-    final Map<CommandPath, ExecutableCommand> commands = new HashMap<>();
-    final Map<CommandPath, BaseCommandCategory> categories = new HashMap<>();
+    BaseCommandHandler handler;
     final CommandPermission permission = new CategoryPermission();
 
+    /**
+     * Returns the parent, default action and children of this category
+     * in the handler's current registry
+     */
+    @NotNull Registry.Node node() {
+        return handler.registry.node(this);
+    }
+
     @Override public @NotNull String getName() {
         return name;
     }
@@ -62,11 +63,11 @@ final class BaseCommandCategory implements CommandCategory {
     }
 
     @Override public @Nullable CommandCategory getParent() {
-        return parent;
+        return node().parent;
     }
 
     @Override public @Nullable ExecutableCommand getDefaultAction() {
-        return defaultAction;
+        return node().defaultAction;
     }
 
     @Override public @NotNull CommandPermission getPermission() {
@@ -74,11 +75,12 @@ final class BaseCommandCategory implements CommandCategory {
     }
 
     @Override public boolean isSecret() {
-        for (ExecutableCommand command : commands.values()) {
+        Registry.Node node = node();
+        for (ExecutableCommand command : node.commands.values()) {
             if (command.isSecret()) continue;
             return false;
         }
-        for (CommandCategory category : categories.values()) {
+        for (CommandCategory category : node.categories.values()) {
             if (category.isSecret()) continue;
             return false;
         }
@@ -86,31 +88,23 @@ final class BaseCommandCategory implements CommandCategory {
     }
 
     @Override public boolean isEmpty() {
-        return defaultAction == null && commands.isEmpty() && categories.isEmpty();
+        Registry.Node node = node();
+        return node.defaultAction == null && node.commands.isEmpty() && node.categories.isEmpty();
     }
 
-    private final Map<CommandPath, CommandCategory> unmodifiableCategories = Collections.unmodifiableMap(categories);
-
+    @SuppressWarnings({"unchecked", "rawtypes"})
     @Override public @NotNull @UnmodifiableView Map<CommandPath, CommandCategory> getCategories() {
-        return unmodifiableCategories;
+        return (Map) node().categories;
     }
 
-    private final Map<CommandPath, ExecutableCommand> unmodifiableCommands = Collections.unmodifiableMap(commands);
-
     @Override public @NotNull @UnmodifiableView Map<CommandPath, ExecutableCommand> getCommands() {
-        return unmodifiableCommands;
+        return node().commands;
     }
 
     @Override public String toString() {
         return "CommandCategory{path=" + path + ", name='" + name + "'}";
     }
 
-    public void parent(BaseCommandCategory cat) {
-        parent = cat;
-        if (cat != null)
-            cat.categories.put(path, this);
-    }
-
     /**
      * Category permission: They have access to the category if they have
      * access to any of its commands or other categories.
@@ -118,15 +112,16 @@ final class BaseCommandCategory implements CommandCategory {
     private class CategoryPermission implements CommandPermission {
 
         @Override public boolean canExecute(@NotNull CommandActor actor) {
-            for (ExecutableCommand command : commands.values())
+            Registry.Node node = node();
+            for (ExecutableCommand command : node.commands.values())
                 if (command.getPermission().canExecute(actor))
                     return true;
-            for (CommandCategory category : categories.values())
+            for (CommandCategory category : node.categories.values())
                 if (category.getPermission().canExecute(actor))
                     return true;
-            if (defaultAction == null)
+            if (node.defaultAction == null)
                 return false;
-            return defaultAction.hasPermission(actor);
+            return node.defaultAction.hasPermission(actor);
         }
     }
 
@@ -26,6 +26,7 @@ package revxrsal.commands.core;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.command.ArgumentStack;
@@ -33,6 +34,10 @@ import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.CommandParameter;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.exception.*;
+import revxrsal.commands.ktx.call.DisposableContinuation;
+import revxrsal.commands.metrics.CommandMetrics;
+import revxrsal.commands.metrics.CommandPhase;
+import revxrsal.commands.process.CommandCondition;
 import revxrsal.commands.process.ContextResolver;
 import revxrsal.commands.process.ParameterResolver;
 import revxrsal.commands.process.ParameterResolver.ParameterResolverContext;
@@ -40,6 +45,7 @@ import revxrsal.commands.process.ParameterValidator;
 import revxrsal.commands.process.ValueResolver.ValueResolverContext;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import static revxrsal.commands.ktx.call.KotlinConstants.*;
@@ -48,86 +54,250 @@ public final class BaseCommandDispatcher {
 
     private final BaseCommandHandler handler;
 
+    /**
+     * The dispatch frames of every thread, used when {@link BaseCommandHandler#isSingleThreadedDispatch()}
+     * is enabled.
+     */
+    private final ThreadLocal<DispatchFrame> frames = ThreadLocal.withInitial(DispatchFrame::new);
+
     public BaseCommandDispatcher(BaseCommandHandler handler) {
         this.handler = handler;
     }
 
     public Object eval(@NotNull CommandActor actor, @NotNull ArgumentStack arguments) {
+        CommandMetrics metrics = handler.getMetrics();
+        boolean measured = metrics.isEnabled();
+        long start = measured ? System.nanoTime() : 0L;
+        DispatchFrame frame = acquireFrame();
+        CommandExecutable executable = null;
         try {
-            MutableCommandPath path = MutableCommandPath.empty();
-            String argument = arguments.getFirst();
-            path.add(argument);
-            CommandExecutable executable = handler.executables.get(path);
-            if (executable != null) {
-                arguments.removeFirst();
-                return execute(executable, actor, arguments);
-            }
-
-            BaseCommandCategory category = handler.categories.get(path);
-            if (category != null) {
-                arguments.removeFirst();
-                return searchCategory(actor, category, path, arguments);
-            } else {
-                throw new InvalidCommandException(path, path.getFirst());
-            }
+            executable = lookup(frame, actor, arguments);
+            if (measured)
+                start = lap(metrics, executable, CommandPhase.LOOKUP, start);
+            return execute(frame, executable, actor, arguments, measured ? metrics : null, start);
         } catch (Throwable throwable) {
-            handler.getExceptionHandler().handleException(throwable, actor);
+            handleException(executable, actor, throwable, measured ? metrics : null);
+        } finally {
+            frame.release();
         }
         return null;
     }
 
-    private Object searchCategory(CommandActor actor, BaseCommandCategory category, MutableCommandPath path, ArgumentStack arguments) {
+    private CommandExecutable lookup(DispatchFrame frame, CommandActor actor, ArgumentStack arguments) {
+        MutableCommandPath path = frame.path();
+        String argument = arguments.getFirst();
+        path.add(argument);
+        Registry registry = handler.registry;
+        CommandExecutable executable = registry.executables.get(path);
+        if (executable != null) {
+            arguments.removeFirst();
+            return executable;
+        }
+
+        BaseCommandCategory category = registry.categories.get(path);
+        if (category != null) {
+            arguments.removeFirst();
+            return searchCategory(registry, actor, category, path, arguments);
+        } else {
+            String input = path.getFirst();
+            throw new InvalidCommandException(path.toImmutablePath(), input, registry.rootNames.suggest(input, actor));
+        }
+    }
+
+    /**
+     * Returns the frame to use for the current dispatch. When frames are not
+     * reused, or the current thread's frame is already in use (such as when
+     * a command dispatches another command), this returns
+     * {@link DispatchFrame#UNPOOLED}.
+     *
+     * @return The dispatch frame
+     */
+    private DispatchFrame acquireFrame() {
+        if (!handler.isSingleThreadedDispatch())
+            return DispatchFrame.UNPOOLED;
+        DispatchFrame frame = frames.get();
+        return frame.acquire() ? frame : DispatchFrame.UNPOOLED;
+    }
+
+    private CommandExecutable searchCategory(Registry registry, CommandActor actor, BaseCommandCategory category, MutableCommandPath path, ArgumentStack arguments) {
         if (!arguments.isEmpty()) {
             path.add(arguments.getFirst());
         }
-        CommandExecutable executable = (CommandExecutable) category.commands.get(path);
+        Registry.Node node = registry.node(category);
+        CommandExecutable executable = (CommandExecutable) node.commands.get(path);
         if (executable != null) {
             arguments.removeFirst();
-            return execute(executable, actor, arguments);
+            return executable;
         }
         category.checkPermission(actor);
-        BaseCommandCategory found = (BaseCommandCategory) category.getCategories().get(path);
+        BaseCommandCategory found = node.categories.get(path);
         if (found == null) {
-            if (category.defaultAction == null)
-                throw new NoSubcommandSpecifiedException(category);
+            CommandExecutable defaultAction = node.defaultAction;
+            if (defaultAction == null)
+                throw new NoSubcommandSpecifiedException(category, arguments.isEmpty()
+                        ? null
+                        : node.names.suggest(arguments.getFirst(), actor));
             else {
-                return execute(category.defaultAction, actor, arguments);
+                return defaultAction;
             }
         } else {
             arguments.removeFirst();
-            return searchCategory(actor, found, path, arguments);
+            return searchCategory(registry, actor, found, path, arguments);
+        }
+    }
+
+    private Object execute(@NotNull DispatchFrame frame,
+                           @NotNull CommandExecutable executable,
+                           @NotNull CommandActor actor,
+                           @NotNull ArgumentStack args,
+                           @Nullable CommandMetrics metrics,
+                           long start) {
+        if (executable.rateLimiter != null)
+            executable.rateLimiter.acquire(actor, executable);
+        List<String> input = frame.input(args);
+        CommandCondition[] conditions = executable.conditions;
+        if (conditions.length != 0) {
+            List<String> view = args.asImmutableView();
+            for (CommandCondition condition : conditions)
+                condition.test(actor, executable, view);
         }
+        if (metrics != null)
+            start = lap(metrics, executable, CommandPhase.CONDITIONS, start);
+        Object[] methodArguments = getMethodArguments(frame, executable, actor, args, input);
+        boolean pending = false;
+        try {
+            if (!args.isEmpty() && handler.failOnExtra) {
+                throw new TooManyArgumentsException(executable, args);
+            }
+            if (metrics != null)
+                start = lap(metrics, executable, CommandPhase.RESOLVE, start);
+            Executor executor = handler.getExecutor(executable);
+            if (executor != null) {
+                // the frame may reuse the arguments array once we return
+                Object[] arguments = methodArguments.clone();
+                executor.execute(() -> executeOn(executable, actor, arguments, metrics));
+                pending = true;
+                return null;
+            }
+            Object result = invoke(executable, methodArguments, metrics, start);
+            pending = isCoroutineSuspended(result);
+            respond(executable, actor, result, metrics);
+            return pending ? null : result;
+        } finally {
+            if (!pending)
+                dispose(executable, methodArguments);
+        }
+    }
+
+    /**
+     * Disposes the continuation of a suspend command that did not suspend,
+     * as it will never be resumed.
+     *
+     * @see DisposableContinuation
+     */
+    private static void dispose(@NotNull CommandExecutable executable, @NotNull Object[] arguments) {
+        if (!(executable.responseHandler instanceof SuspendResponseHandler))
+            return;
+        List<CommandParameter> parameters = executable.parameters;
+        Object continuation = arguments[parameters.get(parameters.size() - 1).getMethodIndex()];
+        if (continuation instanceof DisposableContinuation)
+            ((DisposableContinuation) continuation).dispose();
     }
 
-    private Object execute(@NotNull CommandExecutable executable,
+    /**
+     * Invokes the command and handles its response, on a thread of the
+     * command's executor.
+     */
+    private void executeOn(@NotNull CommandExecutable executable,
                            @NotNull CommandActor actor,
-                           @NotNull ArgumentStack args) {
-        List<String> input = args.asImmutableCopy();
-        handler.conditions.forEach(condition -> condition.test(actor, executable, args.asImmutableView()));
-        Object[] methodArguments = getMethodArguments(executable, actor, args, input);
-        if (!args.isEmpty() && handler.failOnExtra) {
-            throw new TooManyArgumentsException(executable, args);
-        }
-        Object result;
+                           @NotNull Object[] arguments,
+                           @Nullable CommandMetrics metrics) {
         try {
-            result = executable.methodCaller.call(methodArguments);
+            Object result;
+            try {
+                result = invoke(executable, arguments, metrics, metrics != null ? System.nanoTime() : 0L);
+            } catch (Throwable throwable) {
+                dispose(executable, arguments);
+                throw throwable;
+            }
+            if (!isCoroutineSuspended(result))
+                dispose(executable, arguments);
+            if (executable.responseHandler.requiresPlatformThread()) {
+                handler.getPlatformExecutor().execute(() -> {
+                    try {
+                        respond(executable, actor, result, metrics);
+                    } catch (Throwable throwable) {
+                        handleException(executable, actor, throwable, metrics);
+                    }
+                });
+            } else {
+                respond(executable, actor, result, metrics);
+            }
+        } catch (Throwable throwable) {
+            handleException(executable, actor, throwable, metrics);
+        }
+    }
+
+    private Object invoke(@NotNull CommandExecutable executable,
+                          @NotNull Object[] arguments,
+                          @Nullable CommandMetrics metrics,
+                          long start) {
+        try {
+            return executable.methodCaller.call(arguments);
         } catch (Throwable throwable) {
             throw new CommandInvocationException(executable, throwable);
+        } finally {
+            if (metrics != null)
+                lap(metrics, executable, CommandPhase.INVOKE, start);
         }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(@NotNull CommandExecutable executable,
+                         @NotNull CommandActor actor,
+                         Object result,
+                         @Nullable CommandMetrics metrics) {
+        long start = metrics != null ? System.nanoTime() : 0L;
         executable.responseHandler.handleResponse(result, actor, executable);
-        return result;
+        if (metrics != null)
+            lap(metrics, executable, CommandPhase.RESPOND, start);
+    }
+
+    private void handleException(@Nullable CommandExecutable executable,
+                                 @NotNull CommandActor actor,
+                                 @NotNull Throwable throwable,
+                                 @Nullable CommandMetrics metrics) {
+        if (metrics != null) {
+            metrics.recordFailure(executable, throwable);
+            long start = System.nanoTime();
+            handler.getExceptionHandler().handleException(throwable, actor);
+            lap(metrics, executable, CommandPhase.EXCEPTION, start);
+        } else {
+            handler.getExceptionHandler().handleException(throwable, actor);
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code start} for the given phase
+     *
+     * @return The current time, to be used as the start of the next phase
+     */
+    private static long lap(CommandMetrics metrics, CommandExecutable executable, CommandPhase phase, long start) {
+        long now = System.nanoTime();
+        metrics.recordPhase(executable, phase, now - start);
+        return now;
     }
 
     @SneakyThrows
-    private Object[] getMethodArguments(CommandExecutable executable, CommandActor actor, ArgumentStack args, List<String> input) {
-        Object[] values = new Object[executable.parameters.size()];
+    private Object[] getMethodArguments(DispatchFrame frame, CommandExecutable executable, CommandActor actor, ArgumentStack args, List<String> input) {
+        Object[] values = frame.values(executable.parameters.size());
         for (CommandParameter parameter : executable.parameters) {
             if (ArgumentStack.class.isAssignableFrom(parameter.getType()))
                 values[parameter.getMethodIndex()] = args;
             else if (parameter.isSwitch())
                 handleSwitch(args, values, parameter);
             else if (parameter.isFlag())
-                handleFlag(input, actor, args, values, parameter);
+                handleFlag(frame, input, actor, args, values, parameter);
         }
         for (CommandParameter parameter : executable.parameters) {
             if (ArgumentStack.class.isAssignableFrom(parameter.getType())) {
@@ -138,21 +308,17 @@ public final class BaseCommandDispatcher {
                 ParameterResolver<?> resolver = parameter.getResolver();
                 if (!resolver.mutatesArguments()) {
                     parameter.checkPermission(actor);
-                    ContextResolverContext cxt = new ContextResolverContext(input, actor, parameter, values);
+                    ContextResolverContext cxt = frame.contextResolverContext(input, actor, parameter, values);
                     Object value = resolver.resolve(cxt);
-                    for (ParameterValidator<Object> v : parameter.getValidators()) {
-                        v.validate(value, parameter, actor);
-                    }
+                    validate(parameter, value, actor);
                     values[parameter.getMethodIndex()] = value;
                 } else {
                     boolean added = addDefaultValues(args, parameter, values);
                     if (added) {
                         parameter.checkPermission(actor);
-                        ValueContextR cxt = new ValueContextR(input, actor, parameter, values, args);
+                        ValueContextR cxt = frame.valueContext(input, actor, parameter, values, args);
                         Object value = resolver.resolve(cxt);
-                        for (ParameterValidator<Object> v : parameter.getValidators()) {
-                            v.validate(value, parameter, actor);
-                        }
+                        validate(parameter, value, actor);
                         values[parameter.getMethodIndex()] = value;
                     }
                 }
@@ -191,7 +357,7 @@ public final class BaseCommandDispatcher {
             values[parameter.getMethodIndex()] = true;
     }
 
-    private void handleFlag(List<String> input, CommandActor actor, ArgumentStack args, Object[] values, CommandParameter parameter) {
+    private void handleFlag(DispatchFrame frame, List<String> input, CommandActor actor, ArgumentStack args, Object[] values, CommandParameter parameter) {
         String lookup = handler.getFlagPrefix() + parameter.getFlagName();
         int index = args.indexOf(lookup);
         ArgumentStack flagArguments;
@@ -204,9 +370,7 @@ public final class BaseCommandDispatcher {
                     args.remove(index); // remove the flag prefix + flag name
                     flagArguments = ArgumentStack.parse(args.remove(index)); // put the actual value in a separate argument stack
                 } else {
-                    for (ParameterValidator<Object> v : parameter.getValidators()) {
-                        v.validate(null, parameter, actor);
-                    }
+                    validate(parameter, null, actor);
                     if (isKotlinClass(parameter.getJavaParameter().getDeclaringExecutable().getDeclaringClass()))
                         values[parameter.getMethodIndex()] = ABSENT_VALUE;
                     else
@@ -222,21 +386,33 @@ public final class BaseCommandDispatcher {
                 throw new MissingArgumentException(parameter);
             flagArguments = ArgumentStack.copyExact(args.remove(index)); // put the actual value in a separate argument stack
         }
-        ValueContextR contextR = new ValueContextR(input, actor, parameter, values, flagArguments);
+        ValueContextR contextR = frame.valueContext(input, actor, parameter, values, flagArguments);
         Object value = parameter.getResolver().resolve(contextR);
-        for (ParameterValidator<Object> v : parameter.getValidators()) {
-            v.validate(value, parameter, actor);
-        }
+        validate(parameter, value, actor);
         values[parameter.getMethodIndex()] = value;
     }
 
+    private static void validate(CommandParameter parameter, Object value, CommandActor actor) {
+        List<ParameterValidator<Object>> validators = parameter.getValidators();
+        for (int i = 0, size = validators.size(); i < size; i++)
+            validators.get(i).validate(value, parameter, actor);
+    }
+
     @AllArgsConstructor
     private static abstract class ParamResolverContext implements ParameterResolverContext {
 
-        private final List<String> input;
-        private final CommandActor actor;
-        private final CommandParameter parameter;
-        private final Object[] resolved;
+        // not final, as contexts may be reused by a DispatchFrame
+        private List<String> input;
+        private CommandActor actor;
+        private CommandParameter parameter;
+        private Object[] resolved;
+
+        void set(List<String> input, CommandActor actor, CommandParameter parameter, Object[] resolved) {
+            this.input = input;
+            this.actor = actor;
+            this.parameter = parameter;
+            this.resolved = resolved;
+        }
 
         @Override
         public @NotNull @Unmodifiable List<String> input() {
@@ -282,7 +458,7 @@ public final class BaseCommandDispatcher {
         }
     }
 
-    private static final class ContextResolverContext extends ParamResolverContext implements ContextResolver.ContextResolverContext {
+    static final class ContextResolverContext extends ParamResolverContext implements ContextResolver.ContextResolverContext {
 
         public ContextResolverContext(List<String> input, CommandActor actor, CommandParameter parameter, Object[] resolved) {
             super(input, actor, parameter, resolved);
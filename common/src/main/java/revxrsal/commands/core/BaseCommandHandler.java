@@ -26,12 +26,14 @@ package revxrsal.commands.core;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
 import org.jetbrains.annotations.UnmodifiableView;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.CommandHandlerVisitor;
+import revxrsal.commands.annotation.Async;
 import revxrsal.commands.annotation.Dependency;
 import revxrsal.commands.annotation.Description;
-import revxrsal.commands.annotation.Range;
+import revxrsal.commands.annotation.RateLimit;
 import revxrsal.commands.annotation.dynamic.AnnotationReplacer;
 import revxrsal.commands.autocomplete.AutoCompleter;
 import revxrsal.commands.command.*;
@@ -40,6 +42,7 @@ import revxrsal.commands.exception.*;
 import revxrsal.commands.help.CommandHelp;
 import revxrsal.commands.help.CommandHelpWriter;
 import revxrsal.commands.locales.Translator;
+import revxrsal.commands.metrics.CommandMetrics;
 import revxrsal.commands.orphan.OrphanCommand;
 import revxrsal.commands.orphan.OrphanRegistry;
 import revxrsal.commands.orphan.Orphans;
@@ -49,6 +52,8 @@ import revxrsal.commands.process.ValueResolver.ValueResolverContext;
 import revxrsal.commands.util.ClassMap;
 import revxrsal.commands.util.Primitives;
 import revxrsal.commands.util.StackTraceSanitizer;
+import revxrsal.commands.util.Strings;
+import revxrsal.commands.util.TypeIndexedList;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
@@ -58,9 +63,17 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import static revxrsal.commands.util.Preconditions.*;
 import static revxrsal.commands.util.Primitives.getType;
@@ -82,30 +95,41 @@ import static revxrsal.commands.util.Strings.splitBySpace;
 @ApiStatus.Internal
 public abstract class BaseCommandHandler implements CommandHandler {
 
-    protected final Map<CommandPath, CommandExecutable> executables = new HashMap<>();
-    protected final Map<CommandPath, BaseCommandCategory> categories = new HashMap<>();
+    // an immutable snapshot, replaced by RegistryDraft#publish() while holding the registryLock
+    volatile Registry registry = Registry.EMPTY;
+    final Object registryLock = new Object();
     private final BaseCommandDispatcher dispatcher = new BaseCommandDispatcher(this);
 
-    final List<ResolverFactory> factories = new ArrayList<>();
+    final TypeIndexedList<ResolverFactory> factories = new TypeIndexedList<>();
     final BaseAutoCompleter autoCompleter = new BaseAutoCompleter(this);
     final ClassMap<List<ParameterValidator<Object>>> validators = new ClassMap<>();
     final ClassMap<ResponseHandler<?>> responseHandlers = new ClassMap<>();
     final ClassMap<Supplier<?>> dependencies = new ClassMap<>();
-    final List<SenderResolver> senderResolvers = new ArrayList<>();
-    private final Set<PermissionReader> permissionReaders = new HashSet<>();
+    final List<SenderResolver> senderResolvers = new CopyOnWriteArrayList<>();
+    private final Set<PermissionReader> permissionReaders = new CopyOnWriteArraySet<>();
     final Map<Class<?>, Set<AnnotationReplacer<?>>> annotationReplacers = new ClassMap<>();
     private MethodCallerFactory methodCallerFactory = MethodCallerFactory.defaultFactory();
     private final WrappedExceptionHandler exceptionHandler = new WrappedExceptionHandler(DefaultExceptionHandler.INSTANCE);
     private StackTraceSanitizer sanitizer = StackTraceSanitizer.defaultSanitizer();
+    private CommandMetrics metrics = CommandMetrics.disabled();
+    private final Map<String, Executor> executors = new ConcurrentHashMap<>();
+    private Executor platformExecutor = Runnable::run;
+    ToLongFunction<CommandActor> rateLimitGuild = actor -> RateLimit.NO_GUILD;
+    final AtomicLong globalRateLimit = new AtomicLong(), globalCompletionRateLimit = new AtomicLong();
     String flagPrefix = "-", switchPrefix = "-", messagePrefix = "";
+    // the message prefix with its color codes translated, or null if it can't be translated on its own
+    private volatile @Nullable String replyPrefix = "", errorPrefix = Strings.colorize("&c");
     CommandHelpWriter<?> helpWriter;
     ParameterNamingStrategy parameterNamingStrategy = ParameterNamingStrategy.lowerCaseWithSpace();
     boolean failOnExtra = false;
-    final List<CommandCondition> conditions = new ArrayList<>();
+    private boolean singleThreadedDispatch = false;
+    private boolean parallelRegistration = false;
+    final List<CommandCondition> conditions = new CopyOnWriteArrayList<>();
     private final Translator translator = Translator.create();
 
     @SuppressWarnings("rawtypes")
     public BaseCommandHandler() {
+        setAsyncExecutor(ForkJoinPool.commonPool());
         registerContextResolverFactory(new SenderContextResolverFactory(senderResolvers));
         registerContextResolverFactory(DependencyResolverFactory.INSTANCE);
         registerValueResolverFactory(EitherValueResolverFactory.INSTANCE);
@@ -147,12 +171,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
         registerContextResolver((Class) CommandHelp.class, new BaseCommandHelp.Resolver(this));
         setExceptionHandler(DefaultExceptionHandler.INSTANCE);
         registerCondition(CooldownCondition.INSTANCE);
-        registerParameterValidator(Number.class, (value, parameter, actor) -> {
-            Range range = parameter.getAnnotation(Range.class);
-            if (range != null)
-                if (value.doubleValue() > range.max() || value.doubleValue() < range.min())
-                    throw new NumberNotInRangeException(actor, parameter, value, range.min(), range.max());
-        });
+        registerParameterValidator(Number.class, RangeValidator.INSTANCE);
         registerCondition((actor, command, arguments) -> command.checkPermission(actor));
         registerAnnotationReplacer(Description.class, new LocalesAnnotationReplacer(this));
     }
@@ -171,6 +190,119 @@ public abstract class BaseCommandHandler implements CommandHandler {
 
     @Override
     public @NotNull CommandHandler register(@NotNull Object... commands) {
+        List<Object> containers = prepareContainers(commands);
+        Registry before, after;
+        synchronized (registryLock) {
+            before = registry;
+            RegistryDraft draft = RegistryDraft.copyOf(this);
+            parse(draft, containers);
+            draft.publish();
+            after = registry;
+        }
+        updateRootCommands(before, after);
+        return this;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> reload(@NotNull Object oldContainer, @NotNull Object newContainer) {
+        notNull(oldContainer, "old container");
+        return replace(draft -> draft.removeContainer(oldContainer), newContainer);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> replace(@NotNull CommandPath path, @NotNull Object... commands) {
+        notNull(path, "path");
+        return replace(draft -> draft.remove(path), commands);
+    }
+
+    /**
+     * Parses the given commands on the {@link #getAsyncExecutor() async executor},
+     * then, on the platform executor, applies the given removal and adds the
+     * parsed commands in a single publish.
+     *
+     * @param removal  The commands to remove
+     * @param commands The commands to add
+     * @return A future that completes once the commands are swapped
+     */
+    private CompletableFuture<Void> replace(@NotNull Consumer<RegistryDraft> removal, @NotNull Object... commands) {
+        List<Object> containers = prepareContainers(commands);
+        return CompletableFuture.supplyAsync(() -> {
+            RegistryDraft parsed = RegistryDraft.detached(this);
+            parse(parsed, containers);
+            return parsed;
+        }, getAsyncExecutor()).thenAcceptAsync(parsed -> {
+            Registry before, after;
+            synchronized (registryLock) {
+                before = registry;
+                RegistryDraft draft = RegistryDraft.copyOf(this);
+                removal.accept(draft);
+                draft.addAll(parsed);
+                draft.publish();
+                after = registry;
+            }
+            autoCompleter.forgetUnregistered();
+            updateRootCommands(before, after);
+        }, platformExecutor);
+    }
+
+    /**
+     * Updates the platform's own commands after the registry was replaced,
+     * by unregistering the roots that no longer exist, and registering the
+     * ones that were added or whose commands changed.
+     *
+     * @param before The registry before the change
+     * @param after  The registry after the change
+     */
+    private void updateRootCommands(@NotNull Registry before, @NotNull Registry after) {
+        Set<CommandPath> changed = new HashSet<>();
+        for (CommandPath root : Registry.changedRoots(before, after)) {
+            if (after.hasRoot(root))
+                changed.add(root);
+            else
+                unregisterRootCommand(root);
+        }
+        if (!changed.isEmpty())
+            registerRootCommands(changed);
+    }
+
+    /**
+     * Parses the given containers into the draft, and finds the
+     * permissions of the draft's commands.
+     *
+     * @param draft      The draft to parse into
+     * @param containers The command containers
+     */
+    private void parse(@NotNull RegistryDraft draft, @NotNull List<Object> containers) {
+        CommandParser.parse(this, draft, containers);
+        for (BaseCommandCategory category : draft.categories.values()) {
+            findPermission(draft.getDefaultAction(category));
+        }
+        for (CommandExecutable executable : draft.executables.values()) {
+            findPermission(executable);
+        }
+    }
+
+    /**
+     * Registers the platform's own commands for the given root commands and
+     * categories. This is invoked after commands are registered, reloaded,
+     * replaced or unregistered, with the roots that were added or whose
+     * commands changed, and must tolerate roots that are already registered.
+     *
+     * @param roots The root paths that were added or changed
+     */
+    protected void registerRootCommands(@NotNull Set<CommandPath> roots) {}
+
+    /**
+     * Unregisters the platform's own command for the given root path. This
+     * is invoked when a root path is unregistered, or when it no longer exists
+     * after a reload or replace.
+     *
+     * @param root The root path
+     */
+    protected void unregisterRootCommand(@NotNull CommandPath root) {}
+
+    private List<Object> prepareContainers(@NotNull Object... commands) {
+        List<Object> containers = new ArrayList<>(commands.length);
         for (Object command : commands) {
             notNull(command, "Command");
             if (command instanceof OrphanCommand) {
@@ -182,21 +314,12 @@ public abstract class BaseCommandHandler implements CommandHandler {
             }
             if (command instanceof OrphanRegistry) {
                 setDependencies(((OrphanRegistry) command).getHandler());
-                CommandParser.parse(this, ((OrphanRegistry) command));
             } else {
                 setDependencies(command);
-                CommandParser.parse(this, command);
             }
+            containers.add(command);
         }
-        for (BaseCommandCategory category : categories.values()) {
-            CommandPath categoryPath = category.getPath().getCategoryPath();
-            category.parent(categoryPath == null ? null : categories.get(categoryPath));
-            findPermission(category.defaultAction);
-        }
-        for (CommandExecutable executable : executables.values()) {
-            findPermission(executable);
-        }
-        return this;
+        return containers;
     }
 
     @Override public @NotNull Locale getLocale() {
@@ -241,6 +364,35 @@ public abstract class BaseCommandHandler implements CommandHandler {
         return this;
     }
 
+    @Override public @NotNull CommandHandler setMetrics(@NotNull CommandMetrics metrics) {
+        notNull(metrics, "command metrics");
+        this.metrics = metrics;
+        return this;
+    }
+
+    @Override public @NotNull CommandHandler setRateLimitGuild(@NotNull ToLongFunction<CommandActor> guild) {
+        notNull(guild, "rate limit guild");
+        this.rateLimitGuild = guild;
+        return this;
+    }
+
+    @Override public @NotNull CommandHandler registerExecutor(@NotNull String id, @NotNull Executor executor) {
+        notNull(id, "executor ID");
+        notNull(executor, "executor");
+        executors.put(id, executor);
+        return this;
+    }
+
+    @Override public @NotNull CommandHandler setAsyncExecutor(@NotNull Executor executor) {
+        return registerExecutor(Async.EXECUTOR, executor);
+    }
+
+    @Override public @NotNull CommandHandler setPlatformExecutor(@NotNull Executor executor) {
+        notNull(executor, "platform executor");
+        platformExecutor = executor;
+        return this;
+    }
+
     @Override public @NotNull <T extends Throwable> CommandHandler registerExceptionHandler(@NotNull Class<T> exceptionType,
                                                                                             @NotNull BiConsumer<CommandActor, T> handler) {
         notNull(exceptionType, "exception type");
@@ -266,9 +418,38 @@ public abstract class BaseCommandHandler implements CommandHandler {
     @Override public @NotNull CommandHandler setMessagePrefix(@NotNull String prefix) {
         notNull(prefix, "prefix");
         messagePrefix = prefix;
+        // a trailing '&' would form a color code with the message, so those are colorized together
+        replyPrefix = prefix.endsWith("&") ? null : Strings.colorize(prefix);
+        errorPrefix = prefix.endsWith("&") ? null : Strings.colorize(prefix + "&c");
         return this;
     }
 
+    /**
+     * Prepends the message prefix to the given message, and translates the
+     * color codes of both as {@link Strings#colorize(String)} does. The prefix
+     * is only translated once, when it is set.
+     *
+     * @param message Message to colorize
+     * @return The colorized message
+     */
+    public @NotNull String colorizeReply(@NotNull String message) {
+        String prefix = replyPrefix;
+        return prefix == null ? Strings.colorize(messagePrefix + message) : prefix + Strings.colorize(message);
+    }
+
+    /**
+     * Prepends the message prefix and the error color ({@code &c}) to the given
+     * message, and translates the color codes of them as {@link Strings#colorize(String)}
+     * does. The prefix is only translated once, when it is set.
+     *
+     * @param message Message to colorize
+     * @return The colorized message
+     */
+    public @NotNull String colorizeError(@NotNull String message) {
+        String prefix = errorPrefix;
+        return prefix == null ? Strings.colorize(messagePrefix + "&c" + message) : prefix + Strings.colorize(message);
+    }
+
     @Override public @NotNull <T> CommandHandler setHelpWriter(@NotNull CommandHelpWriter<T> helpWriter) {
         notNull(helpWriter, "command help writer");
         this.helpWriter = helpWriter;
@@ -285,6 +466,34 @@ public abstract class BaseCommandHandler implements CommandHandler {
         return this;
     }
 
+    @Override public @NotNull CommandHandler enableSingleThreadedDispatch() {
+        singleThreadedDispatch = true;
+        return this;
+    }
+
+    /**
+     * Returns whether {@link #enableSingleThreadedDispatch()} has been invoked
+     *
+     * @return Whether dispatch objects are reused
+     */
+    public boolean isSingleThreadedDispatch() {
+        return singleThreadedDispatch;
+    }
+
+    @Override public @NotNull CommandHandler enableParallelRegistration() {
+        parallelRegistration = true;
+        return this;
+    }
+
+    /**
+     * Returns whether {@link #enableParallelRegistration()} has been invoked
+     *
+     * @return Whether commands may be parsed in parallel
+     */
+    public boolean isParallelRegistration() {
+        return parallelRegistration;
+    }
+
     @Override public @NotNull CommandHandler registerSenderResolver(@NotNull SenderResolver resolver) {
         notNull(resolver, "resolver");
         senderResolvers.add(resolver);
@@ -302,7 +511,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
         notNull(resolver, "resolver");
         if (type.isPrimitive())
             registerValueResolver(Primitives.wrap(type), resolver);
-        factories.add(new ResolverFactory(ValueResolverFactory.forType(type, resolver)));
+        factories.addIndexed(ResolverFactory.forType(type, resolver), type);
         return this;
     }
 
@@ -311,7 +520,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
         notNull(resolver, "resolver");
         if (type.isPrimitive())
             registerValueResolver(priority, Primitives.wrap(type), resolver);
-        factories.add(coerceIn(priority, 0, factories.size()), new ResolverFactory(ValueResolverFactory.forType(type, resolver)));
+        factories.addIndexed(priority, ResolverFactory.forType(type, resolver), type);
         return this;
     }
 
@@ -320,7 +529,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
         notNull(resolver, "resolver");
         if (type.isPrimitive())
             registerContextResolver(Primitives.wrap(type), resolver);
-        factories.add(new ResolverFactory(ContextResolverFactory.forType(type, resolver)));
+        factories.addIndexed(ResolverFactory.forType(type, resolver), type);
         return this;
     }
 
@@ -329,7 +538,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
         notNull(resolver, "resolver");
         if (type.isPrimitive())
             registerContextResolver(Primitives.wrap(type), resolver);
-        factories.add(coerceIn(priority, 0, factories.size()), new ResolverFactory(ContextResolverFactory.forType(type, resolver)));
+        factories.addIndexed(priority, ResolverFactory.forType(type, resolver), type);
         return this;
     }
 
@@ -349,7 +558,7 @@ public abstract class BaseCommandHandler implements CommandHandler {
 
     @Override public @NotNull CommandHandler registerValueResolverFactory(int priority, @NotNull ValueResolverFactory factory) {
         notNull(factory, "value resolver factory");
-        factories.add(coerceIn(priority, 0, factories.size()), new ResolverFactory(factory));
+        factories.add(priority, new ResolverFactory(factory));
         return this;
     }
 
@@ -361,13 +570,24 @@ public abstract class BaseCommandHandler implements CommandHandler {
 
     @Override public @NotNull CommandHandler registerContextResolverFactory(int priority, @NotNull ContextResolverFactory factory) {
         notNull(factory, "context resolver factory");
-        factories.add(coerceIn(priority, 0, factories.size()), new ResolverFactory(factory));
+        factories.add(priority, new ResolverFactory(factory));
         return this;
     }
 
     @Override public @NotNull CommandHandler registerCondition(@NotNull CommandCondition condition) {
         notNull(condition, "condition");
-        conditions.add(condition);
+        // published commands copy their conditions on write, rather than being republished (see Registry)
+        synchronized (registryLock) {
+            conditions.add(condition);
+            Registry registry = this.registry;
+            for (CommandExecutable executable : registry.executables.values())
+                executable.addCondition(condition);
+            for (BaseCommandCategory category : registry.categories.values()) {
+                CommandExecutable defaultAction = registry.node(category).defaultAction;
+                if (defaultAction != null)
+                    defaultAction.addCondition(condition);
+            }
+        }
         return this;
     }
 
@@ -391,6 +611,27 @@ public abstract class BaseCommandHandler implements CommandHandler {
         return this;
     }
 
+    /**
+     * Returns the validators that apply to the given parameter
+     *
+     * @param type      The type to look up validators for
+     * @param parameter The parameter
+     * @return The validators
+     * @see ParameterValidator#forParameter(CommandParameter)
+     */
+    @NotNull @Unmodifiable List<ParameterValidator<Object>> getValidators(@NotNull Class<?> type, @NotNull CommandParameter parameter) {
+        List<ParameterValidator<Object>> registered = validators.getFlexible(type);
+        if (registered == null)
+            return Collections.emptyList();
+        List<ParameterValidator<Object>> applicable = new ArrayList<>(registered.size());
+        for (ParameterValidator<Object> validator : registered) {
+            ParameterValidator<Object> v = validator.forParameter(parameter);
+            if (v != null)
+                applicable.add(v);
+        }
+        return applicable.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(applicable);
+    }
+
     @Override public @NotNull <T> CommandHandler registerResponseHandler(@NotNull Class<T> responseType, @NotNull ResponseHandler<T> handler) {
         notNull(responseType, "response type");
         notNull(handler, "response handler");
@@ -430,27 +671,25 @@ public abstract class BaseCommandHandler implements CommandHandler {
     }
 
     @Override public ExecutableCommand getCommand(@NotNull CommandPath path) {
-        return executables.get(path);
+        return registry.executables.get(path);
     }
 
     @Override public CommandCategory getCategory(@NotNull CommandPath path) {
-        return categories.get(path);
+        return registry.categories.get(path);
     }
 
     @Override public @UnmodifiableView @NotNull Map<CommandPath, ExecutableCommand> getCommands() {
-        return Collections.unmodifiableMap(executables);
+        return Collections.unmodifiableMap(registry.executables);
     }
 
     @Override public @UnmodifiableView @NotNull Map<CommandPath, CommandCategory> getCategories() {
-        return Collections.unmodifiableMap(categories);
+        return Collections.unmodifiableMap(registry.categories);
     }
 
     public <T> ParameterResolver<T> getResolver(CommandParameter parameter) {
-        for (ResolverFactory factory : factories) {
-            Resolver resolver = factory.create(parameter);
-            if (resolver == null) continue;
+        Resolver resolver = factories.find(parameter.getType(), factory -> factory.create(parameter));
+        if (resolver != null)
             return (ParameterResolver<T>) resolver;
-        }
         if (parameter.getType().isEnum()) {
             return (ParameterResolver<T>) new Resolver(null, EnumResolverFactory.INSTANCE.create(parameter));
         }
@@ -461,49 +700,55 @@ public abstract class BaseCommandHandler implements CommandHandler {
         return exceptionHandler;
     }
 
-    @Override public @NotNull MethodCallerFactory getMethodCallerFactory() {
-        return methodCallerFactory;
+    @Override public @NotNull CommandMetrics getMetrics() {
+        return metrics;
     }
 
-    @Override public <T> CommandHelpWriter<T> getHelpWriter() {
-        return (CommandHelpWriter<T>) helpWriter;
+    @Override public @NotNull Executor getAsyncExecutor() {
+        return executors.get(Async.EXECUTOR);
     }
 
-    private void unregister(CommandPath path, CommandExecutable command) {
-        BaseCommandCategory parent = command.parent;
-        if (parent != null) {
-            parent.commands.remove(path);
-            if (parent.isEmpty()) categories.remove(parent.path);
-        }
+    @Override public @NotNull Executor getPlatformExecutor() {
+        return platformExecutor;
     }
 
-    private void unregister(CommandPath path, BaseCommandCategory category) {
-        BaseCommandCategory parent = category.parent;
-        if (parent != null) {
-            parent.commands.remove(path);
-            if (parent.isEmpty()) categories.remove(parent.path);
-        }
+    /**
+     * Returns the executor that the given command runs on
+     *
+     * @param command Command to get for
+     * @return The executor, or null if the command runs on the dispatching thread.
+     */
+    @Nullable Executor getExecutor(@NotNull CommandExecutable command) {
+        if (command.executor == null)
+            return null;
+        Executor executor = executors.get(command.executor);
+        if (executor == null)
+            throw new IllegalStateException("No executor registered with ID '" + command.executor + "' (used by command '" + command.getPath().toRealString() + "')");
+        return executor;
+    }
+
+    @Override public @NotNull MethodCallerFactory getMethodCallerFactory() {
+        return methodCallerFactory;
+    }
+
+    @Override public <T> CommandHelpWriter<T> getHelpWriter() {
+        return (CommandHelpWriter<T>) helpWriter;
     }
 
     @Override public boolean unregister(@NotNull CommandPath path) {
-        boolean modified = false;
-        for (Iterator<Entry<CommandPath, CommandExecutable>> iterator = executables.entrySet().iterator(); iterator.hasNext(); ) {
-            Entry<CommandPath, CommandExecutable> entry = iterator.next();
-            if (entry.getKey().isChildOf(path)) {
-                modified = true;
-                iterator.remove();
-                unregister(path, entry.getValue());
-            }
+        Registry before, after;
+        synchronized (registryLock) {
+            before = registry;
+            RegistryDraft draft = RegistryDraft.copyOf(this);
+            if (!draft.remove(path))
+                return false;
+            draft.publish();
+            after = registry;
         }
-        for (Iterator<Entry<CommandPath, BaseCommandCategory>> iterator = categories.entrySet().iterator(); iterator.hasNext(); ) {
-            Entry<CommandPath, BaseCommandCategory> entry = iterator.next();
-            if (entry.getKey().isChildOf(path)) {
-                modified = true;
-                iterator.remove();
-                unregister(path, entry.getValue());
-            }
-        }
-        return modified;
+        autoCompleter.forgetUnregistered();
+        // only roots that were ours are unregistered, so we don't remove other plugins' commands
+        updateRootCommands(before, after);
+        return true;
     }
 
     @Override public boolean unregister(@NotNull String commandPath) {
@@ -511,16 +756,33 @@ public abstract class BaseCommandHandler implements CommandHandler {
     }
 
     @Override public void unregisterAllCommands() {
-        // it's important that we don't just do a blind executables.clear()
-        // or categories.clear(), since some platforms register commands
-        // in their own way (such as Bukkit).
-        getRootPaths().forEach(this::unregister);
+        // it's important that we also unregister the root commands, since
+        // some platforms register commands in their own way (such as Bukkit).
+        Registry before, after;
+        synchronized (registryLock) {
+            before = registry;
+            RegistryDraft.detached(this).publish();
+            after = registry;
+        }
+        autoCompleter.forgetUnregistered();
+        updateRootCommands(before, after);
+    }
+
+    /**
+     * Tests whether the given command is currently registered in this handler
+     *
+     * @param command The command to test
+     * @return Whether it is registered
+     */
+    boolean isRegistered(@NotNull ExecutableCommand command) {
+        return registry.contains(command);
     }
 
     @Override public @NotNull Set<CommandPath> getRootPaths() {
         Set<CommandPath> paths = new HashSet<>();
-        for (CommandPath path : categories.keySet()) if (path.isRoot()) paths.add(path);
-        for (CommandPath path : executables.keySet()) if (path.isRoot()) paths.add(path);
+        Registry registry = this.registry;
+        for (CommandPath path : registry.categories.keySet()) if (path.isRoot()) paths.add(path);
+        for (CommandPath path : registry.executables.keySet()) if (path.isRoot()) paths.add(path);
         return paths;
     }
 
@@ -40,6 +40,7 @@ import revxrsal.commands.process.ParameterValidator;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.List;
 
 @RequiredArgsConstructor final class BaseCommandParameter implements CommandParameter {
@@ -57,7 +58,7 @@ import java.util.List;
     int cindex = -1;
     private final @Nullable Switch switchAnn;
     private final @Nullable Flag flag;
-    private final List<ParameterValidator<Object>> validators;
+    @Unmodifiable List<ParameterValidator<Object>> validators = Collections.emptyList();
 
     @Override public @NotNull String getName() {
         return name;
@@ -30,11 +30,13 @@ import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.command.*;
 import revxrsal.commands.core.reflect.MethodCaller.BoundMethodCaller;
+import revxrsal.commands.process.CommandCondition;
 import revxrsal.commands.process.ResponseHandler;
 import revxrsal.commands.util.Preconditions;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +46,8 @@ import static revxrsal.commands.util.Preconditions.notNull;
 
 class CommandExecutable implements ExecutableCommand {
 
+    private static final CommandCondition[] NO_CONDITIONS = new CommandCondition[0];
+
     // lazily populated by CommandParser.
     CommandHandler handler;
     boolean permissionSet = false;
@@ -54,11 +58,17 @@ class CommandExecutable implements ExecutableCommand {
     AnnotationReader reader;
     boolean secret;
     BoundMethodCaller methodCaller;
+    Object container; // the object this command was registered from
     BaseCommandCategory parent;
     @SuppressWarnings("rawtypes")
     ResponseHandler responseHandler = CommandParser.VOID_HANDLER;
+    @Nullable String executor; // the ID of the executor this command runs on, or null to run inline.
+    @Nullable RateLimiter rateLimiter, completionRateLimiter;
     private CommandPermission permission = CommandPermission.ALWAYS_TRUE;
     @Unmodifiable List<CommandParameter> parameters;
+    // the conditions that apply to this command, populated by RegistryDraft#publish().
+    // never modified in place: registering a condition replaces the whole array (see Registry)
+    volatile CommandCondition[] conditions;
     @Unmodifiable Map<Integer, CommandParameter> resolveableParameters;
 
     @Override
@@ -149,17 +159,30 @@ class CommandExecutable implements ExecutableCommand {
         return reader.contains(annotation);
     }
 
-    public void parent(BaseCommandCategory cat, boolean isDefault) {
-        parent = cat;
-        if (cat != null) {
-            if (isDefault) {
-                if (cat.defaultAction != null && cat.defaultAction.method != method)
-                    throw new IllegalArgumentException("Category '" + cat.getPath().toRealString() + "' has more than one default" +
-                            " action! (" + cat.defaultAction.method.toGenericString() + " and " + method.toGenericString() + ")");
-                cat.defaultAction = this;
-            } else
-                cat.commands.put(path, this);
-        }
+    /**
+     * Computes the conditions of this command, if they have not been computed already
+     *
+     * @param conditions All registered conditions
+     */
+    void initConditions(@NotNull Iterable<CommandCondition> conditions) {
+        if (this.conditions != null) return;
+        this.conditions = NO_CONDITIONS;
+        for (CommandCondition condition : conditions)
+            addCondition(condition);
+    }
+
+    /**
+     * Adds the given condition to this command's conditions, if it applies to it
+     *
+     * @param condition The condition to add
+     */
+    void addCondition(@NotNull CommandCondition condition) {
+        CommandCondition applicable = condition.forCommand(this);
+        if (applicable == null) return;
+        CommandCondition[] current = conditions;
+        CommandCondition[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = applicable;
+        conditions = updated;
     }
 
     public void setPermission(@NotNull CommandPermission permission) {
@@ -23,8 +23,11 @@
  */
 package revxrsal.commands.core;
 
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.annotation.Optional;
 import revxrsal.commands.annotation.*;
@@ -33,11 +36,9 @@ import revxrsal.commands.command.CommandParameter;
 import revxrsal.commands.command.CommandPermission;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.reflect.MethodCaller.BoundMethodCaller;
-import revxrsal.commands.orphan.OrphanCommand;
 import revxrsal.commands.orphan.OrphanRegistry;
 import revxrsal.commands.orphan.Orphans;
 import revxrsal.commands.process.ParameterResolver;
-import revxrsal.commands.process.ParameterValidator;
 import revxrsal.commands.process.PermissionReader;
 import revxrsal.commands.process.ResponseHandler;
 import revxrsal.commands.util.Preconditions;
@@ -48,9 +49,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.*;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -60,6 +63,7 @@ import static java.util.Arrays.stream;
 import static java.util.Collections.addAll;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toMap;
+import static revxrsal.commands.ktx.call.KotlinConstants.continuation;
 import static revxrsal.commands.util.Collections.listOf;
 import static revxrsal.commands.util.Strings.getOverriddenName;
 import static revxrsal.commands.util.Strings.splitBySpace;
@@ -92,21 +96,62 @@ final class CommandParser {
      */
     private static final AtomicInteger COMMAND_ID = new AtomicInteger();
 
+    /**
+     * The amount of elements after which parsing is split across
+     * the common fork-join pool
+     */
+    private static final int PARALLELISM_THRESHOLD = 8;
+
     private CommandParser() {
     }
 
     /**
-     * Parses classes that implement {@link OrphanCommand}. This will
+     * Parses all the given bound targets. A bound target accepts a class (i.e. {@code MyClass.class}),
+     * an instance (i.e. {@code new MyClass()}), or an {@link OrphanRegistry} constructed
+     * from {@link Orphans}.
+     * <p>
+     * Parsing happens in three steps:
+     * <ol>
+     *     <li>Reading annotations, generating paths and creating method callers for
+     *     every method. Methods are independent of each other, so this may be done in
+     *     parallel, and produces a {@link ParsedMethod} for every command method</li>
+     *     <li>Merging the parsed methods into the draft's categories and commands. This
+     *     is done sequentially, in the order of the targets and of their methods as
+     *     returned by reflection, so conflict detection does not depend on
+     *     thread scheduling</li>
+     *     <li>Resolving parameters of every generated command. This may be done in
+     *     parallel as well, as every command owns its own parameters</li>
+     * </ol>
+     * The first and last steps invoke user-supplied factories and replacers, so
+     * they only run in parallel when {@link BaseCommandHandler#isParallelRegistration()}
+     * is enabled.
      *
-     * @param handler The command handler
-     * @param orphan  The orphan constructed from {@link Orphans}
+     * @param handler      The command handler
+     * @param draft        The draft to register the commands in
+     * @param boundTargets The targets to register for
      */
-    public static void parse(@NotNull BaseCommandHandler handler, @NotNull OrphanRegistry orphan) {
-        OrphanCommand instance = orphan.getHandler();
-        Class<?> type = instance.getClass();
+    @SneakyThrows
+    public static void parse(@NotNull BaseCommandHandler handler, @NotNull RegistryDraft draft, @NotNull List<Object> boundTargets) {
+        List<MethodTarget> targets = new ArrayList<>();
+        for (Object boundTarget : boundTargets) {
+            Class<?> container = getContainer(boundTarget);
+            for (Method method : getAllMethods(container))
+                targets.add(new MethodTarget(container, method, boundTarget));
+        }
+        List<ParsedMethod> parsed = map(handler, targets, target -> parseMethod(handler, target));
 
-        // we pass the type of the orphan handler, but pass the object as the orphan registry
-        parse(handler, type, orphan);
+        Map<CommandPath, CommandExecutable> registered = new LinkedHashMap<>();
+        List<CommandExecutable> executables = new ArrayList<>();
+        for (ParsedMethod method : parsed) {
+            if (method == null) continue;
+            merge(handler, draft, method, executables, registered);
+        }
+
+        map(handler, executables, executable -> {
+            resolveParameters(handler, executable);
+            return executable;
+        });
+        draft.executables.putAll(registered);
     }
 
     /**
@@ -114,97 +159,208 @@ final class CommandParser {
      * and accepts an instance (i.e. {@code new MyClass()});
      *
      * @param handler     The command handler
+     * @param draft       The draft to register the commands in
      * @param boundTarget The instance to rgeister for
      */
-    public static void parse(@NotNull BaseCommandHandler handler, @NotNull Object boundTarget) {
-        Class<?> type = boundTarget instanceof Class ? (Class<?>) boundTarget : boundTarget.getClass();
-        parse(handler, type, boundTarget);
+    public static void parse(@NotNull BaseCommandHandler handler, @NotNull RegistryDraft draft, @NotNull Object boundTarget) {
+        parse(handler, draft, listOf(boundTarget));
+    }
+
+    /**
+     * Returns the class that contains the commands of the given bound target.
+     * <p>
+     * For orphan commands, this is the type of the orphan handler, however the
+     * object will be passed as the orphan registry.
+     *
+     * @param boundTarget The bound target
+     * @return The container class
+     */
+    private static Class<?> getContainer(@NotNull Object boundTarget) {
+        if (boundTarget instanceof OrphanRegistry)
+            return ((OrphanRegistry) boundTarget).getHandler().getClass();
+        return boundTarget instanceof Class ? (Class<?>) boundTarget : boundTarget.getClass();
     }
 
+    /**
+     * Parses the annotations, paths and method caller of the given method. This does
+     * not touch any of the handler's mutable state, and hence may be invoked
+     * concurrently.
+     *
+     * @param handler The command handler
+     * @param target  The method to parse
+     * @return The parsed method, or {@code null} if it is not a command method.
+     */
     @SneakyThrows
-    public static void parse(@NotNull BaseCommandHandler handler, @NotNull Class<?> container, @NotNull Object boundTarget) {
-        Map<CommandPath, BaseCommandCategory> categories = handler.categories;
-        for (Method method : getAllMethods(container)) {
-            /* Parse annotations on a method */
-            AnnotationReader reader = AnnotationReader.create(handler, method);
-
-            /* How we should invoke methods. This varies between normal commands and orphan commands */
-            Object invokeTarget = boundTarget;
-
-            /* Not a command method (i.e. does not contain any annotation that indicates a command) */
-            if (reader.shouldDismiss()) continue;
-
-            /* We synthesize a @Command(...) for methods in orphan commands classes */
-            if (boundTarget instanceof OrphanRegistry) {
-                insertCommandPath((OrphanRegistry) boundTarget, reader);
-                invokeTarget = ((OrphanRegistry) invokeTarget).getHandler();
-            }
+    private static @Nullable ParsedMethod parseMethod(@NotNull BaseCommandHandler handler, @NotNull MethodTarget target) {
+        Class<?> container = target.container;
+        Method method = target.method;
+        Object boundTarget = target.boundTarget;
 
-            /* Distribute and replace annotations */
-            reader.distributeAnnotations();
-            reader.replaceAnnotations(handler);
+        /* Parse annotations on a method */
+        AnnotationReader reader = AnnotationReader.create(handler, method);
 
-            /* Generates the command path for the given method. This will take into account
-             * the parent class annotations */
-            List<CommandPath> paths = getCommandPath(container, method, reader);
-            BoundMethodCaller caller = handler.getMethodCallerFactory().createFor(method).bindTo(invokeTarget);
+        /* How we should invoke methods. This varies between normal commands and orphan commands */
+        Object invokeTarget = boundTarget;
 
-            /* Generate command ID */
-            int id = COMMAND_ID.getAndIncrement();
+        /* Not a command method (i.e. does not contain any annotation that indicates a command) */
+        if (reader.shouldDismiss()) return null;
 
-            /* Check if the command is default, and if so, generate a path for it */
-            String[] defPaths = reader.get(DefaultFor.class, DefaultFor::value);
-            List<CommandPath> defaultPaths = defPaths == null ? emptyList() :
-                    parseDefaultPaths(defPaths, container, method, reader);
-            boolean isDefault = !defaultPaths.isEmpty();
+        /* We synthesize a @Command(...) for methods in orphan commands classes */
+        if (boundTarget instanceof OrphanRegistry) {
+            insertCommandPath((OrphanRegistry) boundTarget, reader);
+            invokeTarget = ((OrphanRegistry) invokeTarget).getHandler();
+        }
 
-            /* Generate categories for default paths if not created already */
-            for (CommandPath defaultPath : defaultPaths) {
-                for (BaseCommandCategory category : generateCategoriesForPath(handler, true, defaultPath)) {
-                    categories.putIfAbsent(category.path, category);
-                }
+        /* Distribute and replace annotations */
+        reader.distributeAnnotations();
+        reader.replaceAnnotations(handler);
+
+        /* Generates the command path for the given method. This will take into account
+         * the parent class annotations */
+        List<CommandPath> paths = getCommandPath(container, method, reader);
+        BoundMethodCaller caller = handler.getMethodCallerFactory().createFor(method).bindTo(invokeTarget);
+
+        /* Check if the command is default, and if so, generate a path for it */
+        String[] defPaths = reader.get(DefaultFor.class, DefaultFor::value);
+        List<CommandPath> defaultPaths = defPaths == null ? emptyList() :
+                parseDefaultPaths(defPaths, container, method, reader);
+        return new ParsedMethod(method, boundTarget, reader, caller, paths, defaultPaths);
+    }
+
+    /**
+     * Merges the given parsed method into the draft's categories, and creates
+     * the executables that belong to it. This must only be invoked from a single
+     * thread.
+     *
+     * @param handler     The command handler
+     * @param draft       The draft to merge into
+     * @param parsed      The parsed method
+     * @param executables The list to add all created executables to
+     * @param registered  The commands that will be registered, for detecting conflicts
+     */
+    private static void merge(@NotNull BaseCommandHandler handler,
+                              @NotNull RegistryDraft draft,
+                              @NotNull ParsedMethod parsed,
+                              @NotNull List<CommandExecutable> executables,
+                              @NotNull Map<CommandPath, CommandExecutable> registered) {
+        Map<CommandPath, BaseCommandCategory> categories = draft.categories;
+        Method method = parsed.method;
+        AnnotationReader reader = parsed.reader;
+        List<CommandPath> defaultPaths = parsed.defaultPaths;
+        boolean isDefault = !defaultPaths.isEmpty();
+
+        /* Generate command ID */
+        int id = COMMAND_ID.getAndIncrement();
+
+        /* Aliases and default paths share the rate limits of the method */
+        RateLimit rateLimit = reader.get(RateLimit.class);
+        RateLimiter rateLimiter = RateLimiter.forExecutions(handler, method, rateLimit);
+        RateLimiter completionRateLimiter = RateLimiter.forCompletions(handler, method, rateLimit);
+
+        /* Generate categories for default paths if not created already */
+        for (CommandPath defaultPath : defaultPaths) {
+            for (BaseCommandCategory category : generateCategoriesForPath(handler, true, defaultPath)) {
+                categories.putIfAbsent(category.path, category);
             }
+        }
 
-            paths.forEach(path -> {
+        for (CommandPath path : parsed.paths) {
 
-                /* Create categories beforehand, so we can insert commands into them with no problems */
-                for (BaseCommandCategory category : generateCategoriesForPath(handler, isDefault, path)) {
-                    categories.putIfAbsent(category.path, category);
-                }
+            /* Create categories beforehand, so we can insert commands into them with no problems */
+            for (BaseCommandCategory category : generateCategoriesForPath(handler, isDefault, path)) {
+                categories.putIfAbsent(category.path, category);
+            }
 
-                Set<CommandPath> defaultPathsAndNormalPath = new HashSet<>();
-                defaultPathsAndNormalPath.add(path);
-                defaultPathsAndNormalPath.addAll(defaultPaths);
-                for (CommandPath p : defaultPathsAndNormalPath) {
-                    boolean registerAsDefault = defaultPaths.contains(p);
-                    CommandExecutable executable = new CommandExecutable();
-                    if (!registerAsDefault)
-                        categories.remove(p); // prevent having a category and command with the same path
-                    executable.name = p.getLast();
-                    executable.id = id;
-                    executable.handler = handler;
-                    executable.description = reader.get(Description.class, Description::value);
-                    executable.path = p;
-                    executable.method = method;
-                    executable.reader = reader;
-                    executable.secret = reader.contains(SecretCommand.class);
-                    executable.methodCaller = caller;
-                    if (registerAsDefault)
-                        executable.parent(categories.get(p), true);
-                    else
-                        executable.parent(categories.get(p.getCategoryPath()), false);
-                    executable.responseHandler = getResponseHandler(handler, method.getGenericReturnType());
-                    executable.parameters = getParameters(handler, method, executable);
-                    executable.resolveableParameters = executable.parameters.stream()
-                            .filter(c -> c.getCommandIndex() != -1)
-                            .collect(toMap(CommandParameter::getCommandIndex, c -> c));
-                    executable.usage = reader.get(Usage.class, Usage::value, () -> generateUsage(executable));
-                    if (!registerAsDefault) {
-                        putOrError(handler.executables, p, executable, "A command with path '" + p.toRealString() + "' already exists!");
-                    }
-                }
-            });
+            Set<CommandPath> defaultPathsAndNormalPath = new HashSet<>();
+            defaultPathsAndNormalPath.add(path);
+            defaultPathsAndNormalPath.addAll(defaultPaths);
+            for (CommandPath p : defaultPathsAndNormalPath) {
+                boolean registerAsDefault = defaultPaths.contains(p);
+                if (!registerAsDefault && (draft.executables.containsKey(p) || registered.containsKey(p)))
+                    throw new IllegalStateException("A command with path '" + p.toRealString() + "' already exists!");
+                CommandExecutable executable = new CommandExecutable();
+                if (!registerAsDefault)
+                    categories.remove(p); // prevent having a category and command with the same path
+                executable.name = p.getLast();
+                executable.id = id;
+                executable.handler = handler;
+                executable.description = reader.get(Description.class, Description::value);
+                executable.path = p;
+                executable.method = method;
+                executable.reader = reader;
+                executable.secret = reader.contains(SecretCommand.class);
+                executable.methodCaller = parsed.caller;
+                executable.container = parsed.boundTarget;
+                if (registerAsDefault) {
+                    executable.parent = categories.get(p);
+                    draft.setDefaultAction(executable.parent, executable);
+                } else
+                    executable.parent = categories.get(p.getCategoryPath());
+                executable.responseHandler = getResponseHandler(handler, method);
+                executable.executor = reader.contains(Async.class) ? Async.EXECUTOR : reader.get(RunOn.class, RunOn::value);
+                executable.rateLimiter = rateLimiter;
+                executable.completionRateLimiter = completionRateLimiter;
+                executable.parameters = getParameters(handler, method, executable);
+                executables.add(executable);
+                if (!registerAsDefault)
+                    registered.put(p, executable);
+            }
+        }
+    }
+
+    /**
+     * Finds the resolvers and suggestion providers for all the parameters of
+     * the given command, and generates its usage. Every command owns its
+     * parameters, so this may be invoked concurrently for different commands.
+     *
+     * @param handler    The command handler
+     * @param executable The command to resolve for
+     */
+    private static void resolveParameters(@NotNull BaseCommandHandler handler, @NotNull CommandExecutable executable) {
+        int cIndex = 0;
+        for (CommandParameter parameter : executable.parameters) {
+            BaseCommandParameter param = (BaseCommandParameter) parameter;
+            ParameterResolver<?> resolver;
+            if (param.getType() == ArgumentStack.class) {
+                resolver = new Resolver(context -> ArgumentStack.copyExact(context.input()), null);
+            } else
+                resolver = handler.getResolver(param);
+
+            if (resolver == null) {
+                throw new IllegalStateException("Unable to find a resolver for parameter type " + param.getJavaParameter().getType());
+            }
+            param.resolver = resolver;
+            if (resolver.mutatesArguments())
+                param.cindex = cIndex++;
+            param.suggestionProvider = handler.autoCompleter.getProvider(param);
+        }
+        executable.resolveableParameters = executable.parameters.stream()
+                .filter(c -> c.getCommandIndex() != -1)
+                .collect(toMap(CommandParameter::getCommandIndex, c -> c));
+        executable.usage = executable.reader.get(Usage.class, Usage::value, () -> generateUsage(executable));
+    }
+
+    /**
+     * Applies the given function to all elements of the list. When the list is
+     * large enough and parallel registration is enabled, this will be done on
+     * the common fork-join pool.
+     * <p>
+     * The order of the returned list always matches the order of the
+     * given list.
+     *
+     * @param handler  The command handler
+     * @param list     List to map
+     * @param function The mapping function
+     * @return The mapped list
+     */
+    private static <T, R> List<R> map(@NotNull BaseCommandHandler handler, @NotNull List<T> list, @NotNull Function<T, R> function) {
+        if (!handler.isParallelRegistration() || list.size() < PARALLELISM_THRESHOLD) {
+            List<R> mapped = new ArrayList<>(list.size());
+            for (T t : list)
+                mapped.add(function.apply(t));
+            return mapped;
         }
+        return list.parallelStream().map(function).collect(Collectors.toList());
     }
 
     /**
@@ -238,7 +394,7 @@ final class CommandParser {
      * @return A list of all methods
      */
     private static Set<Method> getAllMethods(Class<?> c) {
-        Set<Method> methods = new HashSet<>();
+        Set<Method> methods = new LinkedHashSet<>();
         Class<?> current = c;
         while (current != null && current != Object.class) {
             addAll(methods, current.getDeclaredMethods());
@@ -274,6 +430,29 @@ final class CommandParser {
         return joiner.toString();
     }
 
+    /**
+     * Finds the best response handler for the given method. For suspend functions,
+     * this is the handler of the type the function resumes with, which is ignored
+     * when the function suspends.
+     *
+     * @param handler Command handler to find response handlers from
+     * @param method  The command method
+     * @return The response handler
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static @NotNull ResponseHandler<?> getResponseHandler(BaseCommandHandler handler, Method method) {
+        Type[] parameters = method.getGenericParameterTypes();
+        if (parameters.length > 0 && Primitives.getRawType(parameters[parameters.length - 1]) == continuation()) {
+            Type resumeType = getInsideGeneric(parameters[parameters.length - 1]);
+            if (resumeType instanceof WildcardType) {
+                Type[] lowerBounds = ((WildcardType) resumeType).getLowerBounds();
+                resumeType = lowerBounds.length == 0 ? Object.class : lowerBounds[0];
+            }
+            return new SuspendResponseHandler((ResponseHandler) getResponseHandler(handler, resumeType));
+        }
+        return getResponseHandler(handler, method.getGenericReturnType());
+    }
+
     /**
      * Recursively finds the best response handler for the given command. This will
      * respect {@link CompletionStage}s, {@link Supplier}s, and {@link Optional}s,
@@ -326,7 +505,7 @@ final class CommandParser {
      * @return A set of all categories from the path
      */
     private static Set<BaseCommandCategory> generateCategoriesForPath(
-            CommandHandler handler,
+            BaseCommandHandler handler,
             boolean isDefault,
             @NotNull CommandPath path
     ) {
@@ -357,7 +536,10 @@ final class CommandParser {
     }
 
     /**
-     * Generates parameters for the given command, and checks their validity
+     * Generates parameters for the given command, and checks their validity.
+     * <p>
+     * Resolvers and suggestion providers are assigned later
+     * by {@link #resolveParameters(BaseCommandHandler, CommandExecutable)}.
      *
      * @param handler Handler to assign to parameters
      * @param method  Method to parse for
@@ -369,13 +551,9 @@ final class CommandParser {
                                                         @NotNull CommandExecutable command) {
         List<CommandParameter> parameters = new ArrayList<>();
         Parameter[] methodParameters = method.getParameters();
-        int cIndex = 0;
         for (int i = 0; i < methodParameters.length; i++) {
             Parameter javaParameter = methodParameters[i];
             AnnotationReader paramAnns = AnnotationReader.create(handler, javaParameter);
-            List<ParameterValidator<Object>> validators = new ArrayList<>(
-                    handler.validators.getFlexibleOrDefault(javaParameter.getType(), emptyList())
-            );
 
             String[] defaultValue = paramAnns.get(Default.class, Default::value);
             if (defaultValue == null || defaultValue.length == 0) {
@@ -390,8 +568,7 @@ final class CommandParser {
                     command,
                     javaParameter,
                     paramAnns.get(Switch.class),
-                    paramAnns.get(Flag.class),
-                    Collections.unmodifiableList(validators)
+                    paramAnns.get(Flag.class)
             );
 
             /* The name overridden by @Named, @Switch, or @Flag */
@@ -414,6 +591,7 @@ final class CommandParser {
                     break;
                 }
             }
+            param.validators = handler.getValidators(javaParameter.getType(), param);
 
 
             /* Optional parmeters may be null, so make sure it isn't primitive as primitives cannot
@@ -426,19 +604,6 @@ final class CommandParser {
                 if (Primitives.wrap(param.getType()) != Boolean.class)
                     throw new IllegalStateException("Switch parameter " + javaParameter + " at " + method + " must be of boolean type!");
             }
-            ParameterResolver<?> resolver;
-            if (param.getType() == ArgumentStack.class) {
-                resolver = new Resolver(context -> ArgumentStack.copyExact(context.input()), null);
-            } else
-                resolver = handler.getResolver(param);
-
-            if (resolver == null) {
-                throw new IllegalStateException("Unable to find a resolver for parameter type " + javaParameter.getType());
-            }
-            param.resolver = resolver;
-            if (resolver.mutatesArguments())
-                param.cindex = cIndex++;
-            param.suggestionProvider = handler.autoCompleter.getProvider(param);
             parameters.add(param);
         }
         return Collections.unmodifiableList(parameters);
@@ -558,10 +723,42 @@ final class CommandParser {
         return classes;
     }
 
-    private static <K, V> void putOrError(Map<K, V> map, K key, V value, String err) {
-        if (map.containsKey(key)) {
-            throw new IllegalStateException(err);
+    /**
+     * A method inside a command container, along with the target
+     * it was registered with.
+     */
+    @AllArgsConstructor
+    private static final class MethodTarget {
+
+        private final Class<?> container;
+        private final Method method;
+        private final Object boundTarget;
+    }
+
+    /**
+     * An intermediate, immutable description of a parsed command method
+     */
+    private static final class ParsedMethod {
+
+        private final Method method;
+        private final Object boundTarget;
+        private final AnnotationReader reader;
+        private final BoundMethodCaller caller;
+        private final @Unmodifiable List<CommandPath> paths;
+        private final @Unmodifiable List<CommandPath> defaultPaths;
+
+        public ParsedMethod(Method method,
+                            Object boundTarget,
+                            AnnotationReader reader,
+                            BoundMethodCaller caller,
+                            List<CommandPath> paths,
+                            List<CommandPath> defaultPaths) {
+            this.method = method;
+            this.boundTarget = boundTarget;
+            this.reader = reader;
+            this.caller = caller;
+            this.paths = Collections.unmodifiableList(paths);
+            this.defaultPaths = Collections.unmodifiableList(defaultPaths);
         }
-        map.put(key, value);
     }
 }
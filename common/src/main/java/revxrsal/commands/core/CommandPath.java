@@ -233,11 +233,12 @@ public class CommandPath implements Iterable<String>, Comparable<CommandPath> {
      */
     public boolean isChildOf(CommandPath other) {
         if (path.size() < other.size()) return false;
-        for (int i = 0; i < path.size(); i++) {
-            if (other.path.size() <= i) return true; // means that all previous arguments matched
-            if (!other.path.get(i).equals(path.get(i))) return false;
+        // iterate rather than index, as get(i) is linear on linked lists
+        Iterator<String> ours = path.iterator();
+        for (String s : other.path) {
+            if (!s.equals(ours.next())) return false;
         }
-        return true;
+        return true; // means that all of the other path's arguments matched
     }
 
     /**
@@ -29,6 +29,7 @@ import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.process.ResponseHandler;
 
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -48,14 +49,22 @@ final class CompletionStageResponseHandler implements ResponseHandler<Completion
     public void handleResponse(CompletionStage<Object> response, @NotNull CommandActor actor, @NotNull ExecutableCommand command) {
         response.whenComplete((value, exception) -> {
             if (exception != null) {
+                if (exception instanceof CompletionException && exception.getCause() != null)
+                    exception = exception.getCause();
                 handler.getExceptionHandler().handleException(exception, actor);
+            } else if (delegate.requiresPlatformThread()) {
+                handler.getPlatformExecutor().execute(() -> handle(value, actor, command));
             } else {
-                try {
-                    delegate.handleResponse(value, actor, command);
-                } catch (Throwable throwable) {
-                    handler.getExceptionHandler().handleException(throwable, actor);
-                }
+                handle(value, actor, command);
             }
         });
     }
+
+    private void handle(Object value, @NotNull CommandActor actor, @NotNull ExecutableCommand command) {
+        try {
+            delegate.handleResponse(value, actor, command);
+        } catch (Throwable throwable) {
+            handler.getExceptionHandler().handleException(throwable, actor);
+        }
+    }
 }
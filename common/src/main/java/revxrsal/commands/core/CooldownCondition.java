@@ -24,6 +24,7 @@
 package revxrsal.commands.core;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.process.CommandCondition;
@@ -48,6 +49,16 @@ enum CooldownCondition implements CommandCondition {
     @Override public void test(@NotNull CommandActor actor, @NotNull ExecutableCommand command, @NotNull @Unmodifiable List<String> arguments) {
         Cooldown cooldown = command.getAnnotation(Cooldown.class);
         if (cooldown == null || cooldown.value() == 0) return;
+        test(actor, command, cooldown);
+    }
+
+    @Override public @Nullable CommandCondition forCommand(@NotNull ExecutableCommand command) {
+        Cooldown cooldown = command.getAnnotation(Cooldown.class);
+        if (cooldown == null || cooldown.value() == 0) return null;
+        return (actor, c, arguments) -> test(actor, c, cooldown);
+    }
+
+    private void test(@NotNull CommandActor actor, @NotNull ExecutableCommand command, @NotNull Cooldown cooldown) {
         UUID uuid = actor.getUniqueId();
         Map<Integer, Long> spans = get(uuid);
         Long created = spans.get(command.getId());
@@ -0,0 +1,152 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.command.ArgumentStack;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.core.BaseCommandDispatcher.ContextResolverContext;
+import revxrsal.commands.core.BaseCommandDispatcher.ValueContextR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the objects that are created for every command dispatch, so that they
+ * can be reused by consecutive dispatches on the same thread.
+ * <p>
+ * Frames are only reused when {@link BaseCommandHandler#isSingleThreadedDispatch()}
+ * is enabled. Otherwise, {@link #UNPOOLED} is used, which creates fresh objects
+ * for every dispatch.
+ */
+class DispatchFrame {
+
+    /**
+     * A frame that is never reused, and allocates new objects on every call.
+     */
+    static final DispatchFrame UNPOOLED = new DispatchFrame() {
+        @Override boolean acquire() {return true;}
+
+        @Override void release() {}
+
+        @Override MutableCommandPath path() {return MutableCommandPath.empty();}
+
+        @Override List<String> input(ArgumentStack args) {return args.asImmutableCopy();}
+
+        @Override Object[] values(int size) {return new Object[size];}
+
+        @Override ContextResolverContext contextResolverContext(List<String> input, CommandActor actor, CommandParameter parameter, Object[] resolved) {
+            return new ContextResolverContext(input, actor, parameter, resolved);
+        }
+
+        @Override ValueContextR valueContext(List<String> input, CommandActor actor, CommandParameter parameter, Object[] resolved, ArgumentStack arguments) {
+            return new ValueContextR(input, actor, parameter, resolved, arguments);
+        }
+    };
+
+    private static final Object[][] NO_BUFFERS = new Object[0][];
+
+    private final MutableCommandPath path = MutableCommandPath.empty();
+    private final List<String> input = new ArrayList<>();
+    private final List<String> inputView = Collections.unmodifiableList(input);
+    private final ContextResolverContext contextResolverContext = new ContextResolverContext(null, null, null, null);
+    private final ValueContextR valueContext = new ValueContextR(null, null, null, null, null);
+
+    /**
+     * Argument buffers, indexed by method arity. Method callers require
+     * arrays of the exact arity, hence one buffer per arity.
+     */
+    private Object[][] buffers = NO_BUFFERS;
+    private Object[] used;
+    private boolean inUse;
+
+    /**
+     * Marks this frame as in use.
+     *
+     * @return {@code false} if the frame is already in use, such as when a
+     * command dispatches another command from within its body.
+     */
+    boolean acquire() {
+        if (inUse) return false;
+        inUse = true;
+        return true;
+    }
+
+    /**
+     * Clears all references held by this frame, and makes it available
+     * for the next dispatch.
+     */
+    void release() {
+        path.clear();
+        input.clear();
+        if (used != null) {
+            Arrays.fill(used, null);
+            used = null;
+        }
+        contextResolverContext.set(null, null, null, null);
+        valueContext.set(null, null, null, null);
+        valueContext.argumentStack = null;
+        inUse = false;
+    }
+
+    MutableCommandPath path() {
+        return path;
+    }
+
+    List<String> input(ArgumentStack args) {
+        input.clear();
+        input.addAll(args);
+        return inputView;
+    }
+
+    Object[] values(int size) {
+        if (size >= buffers.length)
+            buffers = Arrays.copyOf(buffers, size + 1);
+        Object[] buffer = buffers[size];
+        if (buffer == null)
+            buffer = buffers[size] = new Object[size];
+        return used = buffer;
+    }
+
+    ContextResolverContext contextResolverContext(@NotNull List<String> input,
+                                                  @NotNull CommandActor actor,
+                                                  @NotNull CommandParameter parameter,
+                                                  @NotNull Object[] resolved) {
+        contextResolverContext.set(input, actor, parameter, resolved);
+        return contextResolverContext;
+    }
+
+    ValueContextR valueContext(@NotNull List<String> input,
+                               @NotNull CommandActor actor,
+                               @NotNull CommandParameter parameter,
+                               @NotNull Object[] resolved,
+                               @NotNull ArgumentStack arguments) {
+        valueContext.set(input, actor, parameter, resolved);
+        valueContext.argumentStack = arguments;
+        return valueContext;
+    }
+}
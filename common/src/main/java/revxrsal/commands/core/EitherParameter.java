@@ -36,8 +36,6 @@ import revxrsal.commands.util.Primitives;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 @Setter
@@ -56,7 +54,7 @@ public final class EitherParameter extends ForwardingCommandParameter {
         name = delegate.getName();
         rawType = Primitives.getRawType(type);
         suggestionProvider = ((BaseAutoCompleter) delegate.getCommandHandler().getAutoCompleter()).getProvider(this);
-        validators = new ArrayList<>(((BaseCommandHandler) delegate.getCommandHandler()).validators.getFlexibleOrDefault(rawType, Collections.emptyList()));
+        validators = ((BaseCommandHandler) delegate.getCommandHandler()).getValidators(rawType, this);
     }
 
     private ParameterResolver<Object> resolver;
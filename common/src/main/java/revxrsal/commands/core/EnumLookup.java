@@ -0,0 +1,132 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A lookup table for the constants of an enum type, which is shared by
+ * every parameter of that type.
+ * <p>
+ * Constants are kept sorted by their name, ignoring case, so that both
+ * case-insensitive lookups and prefix completion are a binary search
+ * over the names, without lower-casing the input.
+ */
+final class EnumLookup {
+
+    private static final ClassValue<EnumLookup> LOOKUPS = new ClassValue<EnumLookup>() {
+        @Override protected EnumLookup computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final Map<String, Enum<?>> byName = new HashMap<>();
+    private final Enum<?>[] sorted;
+    private final String[] names;
+    private final String[] suggestions;
+
+    private EnumLookup(@NotNull Class<?> type) {
+        if (!type.isEnum())
+            throw new IllegalArgumentException(type + " is not an enum");
+        Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+        for (Enum<?> constant : constants)
+            byName.put(constant.name(), constant);
+        sorted = constants.clone();
+        Arrays.sort(sorted, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name(), b.name()));
+        names = new String[sorted.length];
+        suggestions = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            names[i] = sorted[i].name();
+            suggestions[i] = names[i].toLowerCase();
+        }
+    }
+
+    /**
+     * Returns the lookup table of the given enum type
+     *
+     * @param type The enum type
+     * @return The lookup table
+     */
+    static @NotNull EnumLookup of(@NotNull Class<?> type) {
+        return LOOKUPS.get(type);
+    }
+
+    /**
+     * Returns the constant with the given name
+     *
+     * @param name          The constant name
+     * @param caseSensitive Whether should the name match the case of the constant
+     * @return The constant, or null if there is no such constant
+     */
+    @Nullable Enum<?> get(@NotNull String name, boolean caseSensitive) {
+        if (caseSensitive)
+            return byName.get(name);
+        Enum<?> exact = byName.get(name);
+        if (exact != null)
+            return exact;
+        int index = lowerBound(name);
+        if (index < names.length && names[index].equalsIgnoreCase(name))
+            return sorted[index];
+        return null;
+    }
+
+    /**
+     * Returns the lower-case names of the constants that start with the
+     * given prefix, ignoring case, sorted by name.
+     *
+     * @param prefix The name prefix
+     * @param limit  The maximum number of names to return
+     * @return The matching names
+     */
+    @NotNull List<String> suggest(@NotNull String prefix, int limit) {
+        int index = lowerBound(prefix);
+        int length = prefix.length();
+        List<String> result = new ArrayList<>();
+        for (; index < names.length && result.size() < limit; index++) {
+            if (!names[index].regionMatches(true, 0, prefix, 0, length))
+                break;
+            result.add(suggestions[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first name that is not less than the given
+     * one, ignoring case
+     */
+    private int lowerBound(@NotNull String name) {
+        int low = 0, high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], name) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
@@ -31,9 +31,6 @@ import revxrsal.commands.process.ValueResolverFactory;
 import revxrsal.commands.annotation.CaseSensitive;
 import revxrsal.commands.exception.EnumNotFoundException;
 
-import java.util.HashMap;
-import java.util.Map;
-
 enum EnumResolverFactory implements ValueResolverFactory {
 
     INSTANCE;
@@ -41,18 +38,11 @@ enum EnumResolverFactory implements ValueResolverFactory {
     @Override public @Nullable ValueResolver<?> create(@NotNull CommandParameter parameter) {
         Class<?> type = parameter.getType();
         if (!type.isEnum()) return null;
-        Class<? extends Enum> enumType = type.asSubclass(Enum.class);
-        Map<String, Enum<?>> values = new HashMap<>();
+        EnumLookup values = EnumLookup.of(type);
         boolean caseSensitive = parameter.hasAnnotation(CaseSensitive.class);
-        for (Enum<?> enumConstant : enumType.getEnumConstants()) {
-            if (caseSensitive)
-                values.put(enumConstant.name(), enumConstant);
-            else
-                values.put(enumConstant.name().toLowerCase(), enumConstant);
-        }
         return (ValueResolver<Enum<?>>) context -> {
             String value = context.pop();
-            Enum<?> v = values.get(caseSensitive ? value : value.toLowerCase());
+            Enum<?> v = values.get(value, caseSensitive);
             if (v == null)
                 throw new EnumNotFoundException(parameter, value);
             return v;
@@ -25,33 +25,29 @@ package revxrsal.commands.core;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.autocomplete.AutoCompleter;
 import revxrsal.commands.autocomplete.SuggestionProvider;
 import revxrsal.commands.autocomplete.SuggestionProviderFactory;
 import revxrsal.commands.command.CommandParameter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A {@link SuggestionProviderFactory} that automatically creates
  * suggestions for enum types.
+ * <p>
+ * Only the constants that start with the argument being completed are
+ * suggested, up to {@link AutoCompleter#getEnumSuggestionLimit()}.
  */
 enum EnumSuggestionProviderFactory implements SuggestionProviderFactory {
 
     INSTANCE;
 
-    private static final int MAX_ENUMS_SIZE = 64;
-
-    @SuppressWarnings("rawtypes")
     @Override public @Nullable SuggestionProvider createSuggestionProvider(@NotNull CommandParameter parameter) {
         if (!parameter.getType().isEnum()) return null;
-        Class<? extends Enum> enumType = parameter.getType().asSubclass(Enum.class);
-        Enum<?>[] enums = enumType.getEnumConstants();
-        List<String> suggestions = new ArrayList<>();
-        for (int i = 0; i < enums.length; i++) {
-            if (i >= MAX_ENUMS_SIZE - 1) break;
-            suggestions.add(enums[i].name().toLowerCase());
-        }
-        return SuggestionProvider.of(suggestions);
+        EnumLookup values = EnumLookup.of(parameter.getType());
+        AutoCompleter autoCompleter = parameter.getCommandHandler().getAutoCompleter();
+        return (args, sender, command) -> values.suggest(
+                args.isEmpty() ? "" : args.get(args.size() - 1),
+                autoCompleter.getEnumSuggestionLimit()
+        );
     }
 }
@@ -0,0 +1,213 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandCategory;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.*;
+
+/**
+ * A BK-tree of the names of commands and categories, used to suggest the
+ * closest name to a mistyped command.
+ * <p>
+ * Names are compared by their Damerau-Levenshtein distance, which is a metric,
+ * so that a BK-tree never prunes a branch that contains a close enough name.
+ * <p>
+ * An index is built for the roots of a {@link Registry} and for every category
+ * node in it, and is never modified once built. Snapshots reuse the indexes of
+ * the previous one whose names did not change.
+ */
+final class NameIndex {
+
+    private @Nullable Entry root;
+
+    NameIndex(@NotNull Collection<? extends ExecutableCommand> commands,
+              @NotNull Collection<? extends CommandCategory> categories,
+              boolean rootsOnly) {
+        for (ExecutableCommand command : commands) {
+            if (!rootsOnly || command.getPath().isRoot())
+                add(command.getName(), command);
+        }
+        for (CommandCategory category : categories) {
+            if (!rootsOnly || category.getPath().isRoot())
+                add(category.getName(), category);
+        }
+    }
+
+    private void add(@NotNull String name, @NotNull Object target) {
+        if (root == null) {
+            root = new Entry(name, target);
+            return;
+        }
+        Entry entry = root;
+        while (true) {
+            int distance = distance(name, entry.name);
+            if (distance == 0) {
+                // a category and a command may have the same name
+                entry.targets.add(target);
+                return;
+            }
+            Entry child = entry.children.get(distance);
+            if (child == null) {
+                entry.children.put(distance, new Entry(name, target));
+                return;
+            }
+            entry = child;
+        }
+    }
+
+    /**
+     * Returns the name closest to the given input that the actor can see,
+     * or {@code null} if none is close enough.
+     *
+     * @param input The mistyped name
+     * @param actor The actor to check permissions for
+     * @return The closest name
+     */
+    public @Nullable String suggest(@NotNull String input, @NotNull CommandActor actor) {
+        if (root == null)
+            return null;
+        input = input.toLowerCase();
+        int maxDistance = input.length() <= 3 ? 1 : 2;
+        List<Match> matches = new ArrayList<>();
+        search(root, input, maxDistance, matches);
+        Collections.sort(matches);
+        for (Match match : matches) {
+            for (Object target : match.entry.targets) {
+                if (isVisible(target, actor))
+                    return match.entry.name;
+            }
+        }
+        return null;
+    }
+
+    private static void search(Entry entry, String input, int maxDistance, List<Match> matches) {
+        int distance = distance(input, entry.name);
+        // a name no longer than the distance would be replaced completely, which is hardly a typo
+        if (distance <= maxDistance && distance < entry.name.length())
+            matches.add(new Match(entry, distance));
+        for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+            Entry child = entry.children.get(d);
+            if (child != null)
+                search(child, input, maxDistance, matches);
+        }
+    }
+
+    private static boolean isVisible(Object target, CommandActor actor) {
+        if (target instanceof ExecutableCommand) {
+            ExecutableCommand command = (ExecutableCommand) target;
+            return !command.isSecret() && command.hasPermission(actor);
+        }
+        CommandCategory category = (CommandCategory) target;
+        return !category.isSecret() && category.hasPermission(actor);
+    }
+
+    /**
+     * Returns the Damerau-Levenshtein distance between the given strings,
+     * that is, the number of insertions, deletions, substitutions and swaps
+     * of two adjacent characters needed to turn one into the other.
+     * <p>
+     * Unlike the optimal string alignment distance, a substring may be edited
+     * again after it is swapped, which keeps the triangle inequality that the
+     * BK-tree relies on.
+     */
+    static int distance(@NotNull String a, @NotNull String b) {
+        int m = a.length(), n = b.length();
+        int width = n + 2, max = m + n;
+        // d[i + 1][j + 1] is the distance between the first i characters of a and the first j of b
+        int[] d = new int[(m + 2) * width];
+        d[0] = max;
+        for (int i = 0; i <= m; i++) {
+            d[(i + 1) * width] = max;
+            d[(i + 1) * width + 1] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            d[j + 1] = max;
+            d[width + j + 1] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            char ac = a.charAt(i - 1);
+            int lastMatch = 0; // the last column in this row whose character matched ac
+            for (int j = 1; j <= n; j++) {
+                char bc = b.charAt(j - 1);
+                int k = lastRow(a, i, bc), l = lastMatch;
+                int cost = 1;
+                if (ac == bc) {
+                    cost = 0;
+                    lastMatch = j;
+                }
+                int value = Math.min(
+                        Math.min(d[i * width + j] + cost, d[(i + 1) * width + j] + 1),
+                        Math.min(d[i * width + j + 1] + 1, d[k * width + l] + (i - k - 1) + 1 + (j - l - 1))
+                );
+                d[(i + 1) * width + j + 1] = value;
+            }
+        }
+        return d[(m + 1) * width + n + 1];
+    }
+
+    /**
+     * Returns the last row before {@code i} whose character is {@code c},
+     * or zero if there is none
+     */
+    private static int lastRow(String a, int i, char c) {
+        for (int k = i - 1; k >= 1; k--) {
+            if (a.charAt(k - 1) == c)
+                return k;
+        }
+        return 0;
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final List<Object> targets = new ArrayList<>(1);
+        private final Map<Integer, Entry> children = new HashMap<>(4);
+
+        Entry(String name, Object target) {
+            this.name = name;
+            targets.add(target);
+        }
+    }
+
+    private static final class Match implements Comparable<Match> {
+
+        private final Entry entry;
+        private final int distance;
+
+        Match(Entry entry, int distance) {
+            this.entry = entry;
+            this.distance = distance;
+        }
+
+        @Override public int compareTo(@NotNull Match o) {
+            int result = Integer.compare(distance, o.distance);
+            return result != 0 ? result : entry.name.compareTo(o.entry.name);
+        }
+    }
+}
@@ -44,4 +44,8 @@ final class OptionalResponseHandler implements ResponseHandler<Optional<Object>>
     @Override public void handleResponse(Optional<Object> response, @NotNull CommandActor actor, @NotNull ExecutableCommand command) {
         response.ifPresent(v -> delegate.handleResponse(v, actor, command));
     }
+
+    @Override public boolean requiresPlatformThread() {
+        return delegate.requiresPlatformThread();
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.annotation.Range;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.exception.NumberNotInRangeException;
+import revxrsal.commands.process.ParameterValidator;
+import revxrsal.commands.util.Primitives;
+
+/**
+ * Validates numbers against the {@link Range} of their parameters.
+ * <p>
+ * The range is looked up when the parameter is registered, and integral
+ * parameters are checked against bounds that are converted to {@code long}s
+ * ahead of time.
+ */
+enum RangeValidator implements ParameterValidator<Number> {
+
+    INSTANCE;
+
+    @Override public void validate(Number value, @NotNull CommandParameter parameter, @NotNull CommandActor actor) {
+        Range range = parameter.getAnnotation(Range.class);
+        if (range != null && value != null)
+            if (value.doubleValue() > range.max() || value.doubleValue() < range.min())
+                throw new NumberNotInRangeException(actor, parameter, value, range.min(), range.max());
+    }
+
+    @Override public @Nullable ParameterValidator<Number> forParameter(@NotNull CommandParameter parameter) {
+        Range range = parameter.getAnnotation(Range.class);
+        if (range == null)
+            return null;
+        double min = range.min(), max = range.max();
+        Class<?> type = Primitives.wrap(parameter.getType());
+        if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            // an integer is below a minimum iff it is below its ceiling, and likewise for the maximum
+            long lower = (long) Math.ceil(min), upper = (long) Math.floor(max);
+            return (value, p, actor) -> {
+                if (value == null) return;
+                long v = value.longValue();
+                if (v > upper || v < lower)
+                    throw new NumberNotInRangeException(actor, p, value, min, max);
+            };
+        }
+        return (value, p, actor) -> {
+            if (value == null) return;
+            double v = value.doubleValue();
+            if (v > max || v < min)
+                throw new NumberNotInRangeException(actor, p, value, min, max);
+        };
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.annotation.RateLimit;
+import revxrsal.commands.annotation.RateLimit.Scope;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.exception.RateLimitedException;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The token buckets of a {@link RateLimit}.
+ * <p>
+ * Each bucket is a single {@code long}: the time at which the bucket will be
+ * full again (the "theoretical arrival time" of the generic cell rate
+ * algorithm). Taking a permit pushes it forward by one interval, and is
+ * rejected when it would be more than a full bucket ahead of now, so a
+ * permit costs a single compare-and-set and no locks.
+ * <p>
+ * Buckets that are full again are indistinguishable from new ones, and
+ * are evicted from time to time.
+ * <p>
+ * A limiter belongs to a command method, and is shared by all the paths
+ * it is registered under, so that aliases share their permits.
+ */
+final class RateLimiter {
+
+    /**
+     * Times are measured from here, so that they are never negative
+     */
+    private static final long ORIGIN = System.nanoTime();
+
+    /**
+     * How often full buckets are evicted
+     */
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    private final BaseCommandHandler handler;
+    private final Scope scope;
+    private final long interval, tolerance;
+
+    private final @Nullable AtomicLong shared;
+    private final ConcurrentMap<UUID, AtomicLong> actorBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> guildBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(SWEEP_INTERVAL);
+
+    private RateLimiter(@NotNull BaseCommandHandler handler,
+                        @NotNull Method method,
+                        @NotNull RateLimit limit,
+                        @Nullable AtomicLong global) {
+        if (limit.permits() <= 0)
+            throw new IllegalArgumentException("@RateLimit permits must be positive! (on " + method + ")");
+        if (limit.per() <= 0)
+            throw new IllegalArgumentException("@RateLimit period must be positive! (on " + method + ")");
+        long burst = limit.burst() <= 0 ? limit.permits() : limit.burst();
+        this.handler = handler;
+        this.scope = limit.scope();
+        this.interval = Math.max(1, limit.unit().toNanos(limit.per()) / limit.permits());
+        this.tolerance = interval * (burst - 1);
+        this.shared = scope == Scope.GLOBAL ? global : scope == Scope.COMMAND ? new AtomicLong() : null;
+    }
+
+    /**
+     * Creates the rate limiter of a command method's executions
+     *
+     * @param handler The command handler
+     * @param method  The command method
+     * @param limit   The method's {@link RateLimit}
+     * @return The rate limiter, or null if the method has no rate limit
+     */
+    static @Nullable RateLimiter forExecutions(@NotNull BaseCommandHandler handler,
+                                               @NotNull Method method,
+                                               @Nullable RateLimit limit) {
+        if (limit == null)
+            return null;
+        return new RateLimiter(handler, method, limit, handler.globalRateLimit);
+    }
+
+    /**
+     * Creates the rate limiter of a command method's tab completions
+     *
+     * @param handler The command handler
+     * @param method  The command method
+     * @param limit   The method's {@link RateLimit}
+     * @return The rate limiter, or null if the completions of the
+     * method are not rate limited
+     */
+    static @Nullable RateLimiter forCompletions(@NotNull BaseCommandHandler handler,
+                                                @NotNull Method method,
+                                                @Nullable RateLimit limit) {
+        if (limit == null || !limit.completions())
+            return null;
+        return new RateLimiter(handler, method, limit, handler.globalCompletionRateLimit);
+    }
+
+    /**
+     * Takes a permit for the given actor
+     *
+     * @param actor   Actor to take for
+     * @param command The command being executed
+     * @throws RateLimitedException if no permit is available
+     */
+    public void acquire(@NotNull CommandActor actor, @NotNull ExecutableCommand command) {
+        long wait = take(actor);
+        if (wait > 0)
+            throw new RateLimitedException(command, (wait + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Takes a permit for the given actor if one is available
+     *
+     * @param actor Actor to take for
+     * @return true if a permit was taken
+     */
+    public boolean tryAcquire(@NotNull CommandActor actor) {
+        return take(actor) == 0;
+    }
+
+    /**
+     * Takes a permit for the given actor
+     *
+     * @return 0 if a permit was taken, otherwise the nanoseconds
+     * until one is available
+     */
+    private long take(@NotNull CommandActor actor) {
+        long now = System.nanoTime() - ORIGIN;
+        AtomicLong bucket = shared == null ? bucketOf(actor, now) : shared;
+        while (true) {
+            long full = bucket.get();
+            long start = Math.max(full, now);
+            long ahead = start - now;
+            if (ahead > tolerance)
+                return ahead - tolerance;
+            if (bucket.compareAndSet(full, start + interval))
+                return 0;
+        }
+    }
+
+    private @NotNull AtomicLong bucketOf(@NotNull CommandActor actor, long now) {
+        long next = nextSweep.get();
+        if (now >= next && nextSweep.compareAndSet(next, now + SWEEP_INTERVAL))
+            sweep(now);
+        if (scope == Scope.GUILD) {
+            long guild = handler.rateLimitGuild.applyAsLong(actor);
+            if (guild != RateLimit.NO_GUILD)
+                return guildBuckets.computeIfAbsent(guild, k -> new AtomicLong());
+        }
+        return actorBuckets.computeIfAbsent(actor.getUniqueId(), k -> new AtomicLong());
+    }
+
+    private void sweep(long now) {
+        actorBuckets.values().removeIf(bucket -> bucket.get() <= now);
+        guildBuckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+}
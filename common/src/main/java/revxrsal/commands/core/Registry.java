@@ -0,0 +1,204 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * An immutable snapshot of a handler's commands and categories.
+ * <p>
+ * A registry is built by {@link RegistryDraft#publish()}, and replaces the
+ * previous one with a single write to {@link BaseCommandHandler#registry}.
+ * The tree of a category (its parent, default action and children) lives
+ * in the registry rather than in the category itself, so published categories
+ * and commands are never modified.
+ * <p>
+ * The only exception is the conditions of a command. A condition registered
+ * after commands are published is added to every published command, by
+ * replacing the array of its conditions as a whole. A dispatch therefore sees
+ * either the conditions before or after the registration, never a mix of both,
+ * but commands of the same snapshot may briefly disagree on whether they have
+ * the new condition.
+ * <p>
+ * Anything that looks up more than one command or category should read the
+ * handler's registry once and use it throughout, so that it never observes
+ * parts of two different snapshots.
+ */
+final class Registry {
+
+    static final Registry EMPTY = new Registry(emptyMap(), emptyMap(), emptyMap(), null);
+
+    final Map<CommandPath, CommandExecutable> executables;
+    final Map<CommandPath, BaseCommandCategory> categories;
+    private final Map<CommandPath, Node> nodes;
+    final NameIndex rootNames;
+
+    Registry(@NotNull Map<CommandPath, CommandExecutable> executables,
+             @NotNull Map<CommandPath, BaseCommandCategory> categories,
+             @NotNull Map<CommandPath, Node> nodes,
+             @Nullable Registry previous) {
+        this.executables = executables;
+        this.categories = categories;
+        this.nodes = nodes;
+        this.rootNames = previous != null && sameRoots(previous)
+                ? previous.rootNames
+                : new NameIndex(executables.values(), categories.values(), true);
+    }
+
+    /**
+     * Tests whether this registry has the same root commands and categories
+     * as the given one
+     */
+    private boolean sameRoots(@NotNull Registry other) {
+        return sameRoots(executables, other.executables) && sameRoots(categories, other.categories);
+    }
+
+    private static boolean sameRoots(Map<CommandPath, ?> map, Map<CommandPath, ?> other) {
+        int roots = 0;
+        for (Map.Entry<CommandPath, ?> entry : map.entrySet()) {
+            if (!entry.getKey().isRoot())
+                continue;
+            if (other.get(entry.getKey()) != entry.getValue())
+                return false;
+            roots++;
+        }
+        for (CommandPath path : other.keySet())
+            if (path.isRoot())
+                roots--;
+        return roots == 0;
+    }
+
+    /**
+     * Returns the tree of the given category in this registry. If the
+     * category is not part of this registry, this returns {@link Node#EMPTY}.
+     *
+     * @param category The category
+     * @return The category's node
+     */
+    @NotNull Node node(@NotNull BaseCommandCategory category) {
+        if (categories.get(category.path) != category)
+            return Node.EMPTY;
+        return nodes.get(category.path);
+    }
+
+    /**
+     * Tests whether the given command is a command or a default action
+     * in this registry
+     *
+     * @param command The command to test
+     * @return Whether it is registered
+     */
+    boolean contains(@NotNull ExecutableCommand command) {
+        if (executables.get(command.getPath()) == command)
+            return true;
+        BaseCommandCategory category = categories.get(command.getPath());
+        return category != null && node(category).defaultAction == command;
+    }
+
+    /**
+     * Tests whether the given root path is a command or a category in
+     * this registry
+     *
+     * @param root The root path
+     * @return Whether it is registered
+     */
+    boolean hasRoot(@NotNull CommandPath root) {
+        return executables.containsKey(root) || categories.containsKey(root);
+    }
+
+    /**
+     * Returns the root paths under which any command or category differs
+     * between the given registries, including the roots that exist in only
+     * one of them.
+     *
+     * @param before The previous registry
+     * @param after  The new registry
+     * @return The changed root paths
+     */
+    static @NotNull Set<CommandPath> changedRoots(@NotNull Registry before, @NotNull Registry after) {
+        Set<CommandPath> roots = new HashSet<>();
+        addChanged(before.executables, after.executables, roots);
+        addChanged(after.executables, before.executables, roots);
+        addChanged(before.categories, after.categories, roots);
+        addChanged(after.categories, before.categories, roots);
+        // nodes are reused when unchanged, so this also finds replaced default actions
+        addChanged(before.nodes, after.nodes, roots);
+        return roots;
+    }
+
+    private static void addChanged(Map<CommandPath, ?> map, Map<CommandPath, ?> other, Set<CommandPath> roots) {
+        for (Map.Entry<CommandPath, ?> entry : map.entrySet()) {
+            if (other.get(entry.getKey()) != entry.getValue())
+                roots.add(CommandPath.get(entry.getKey().getFirst()));
+        }
+    }
+
+    /**
+     * The parent, default action and children of a category in a registry.
+     */
+    static final class Node {
+
+        static final Node EMPTY = new Node(null, null, emptyMap(), emptyMap());
+
+        final @Nullable BaseCommandCategory parent;
+        final @Nullable CommandExecutable defaultAction;
+        final Map<CommandPath, ExecutableCommand> commands;
+        final Map<CommandPath, BaseCommandCategory> categories;
+        final NameIndex names;
+
+        Node(@Nullable BaseCommandCategory parent,
+             @Nullable CommandExecutable defaultAction,
+             @NotNull Map<CommandPath, ExecutableCommand> commands,
+             @NotNull Map<CommandPath, BaseCommandCategory> categories) {
+            this.parent = parent;
+            this.defaultAction = defaultAction;
+            this.commands = commands;
+            this.categories = categories;
+            this.names = new NameIndex(commands.values(), categories.values(), false);
+        }
+
+        /**
+         * Tests whether this node has the same parent, default action
+         * and children as the given one.
+         */
+        boolean sameAs(@Nullable BaseCommandCategory parent,
+                       @Nullable CommandExecutable defaultAction,
+                       @NotNull Map<CommandPath, ExecutableCommand> commands,
+                       @NotNull Map<CommandPath, BaseCommandCategory> categories) {
+            return this.parent == parent
+                    && this.defaultAction == defaultAction
+                    && Objects.equals(this.commands, commands)
+                    && Objects.equals(this.categories, categories);
+        }
+    }
+}
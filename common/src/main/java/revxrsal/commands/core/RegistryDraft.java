@@ -0,0 +1,298 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.orphan.OrphanRegistry;
+
+import java.util.*;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * A private, mutable copy of a handler's commands and categories.
+ * <p>
+ * Registering and unregistering commands modifies a draft, and then
+ * {@link #publish() publishes} it, which builds a new, immutable {@link Registry}
+ * and replaces the handler's registry with it in a single write. Dispatching and
+ * auto-completion therefore never observe a half-registered command, and never
+ * need to lock.
+ * <p>
+ * Drafts that are copied from the handler must only be created and published
+ * while holding {@link BaseCommandHandler#registryLock}. {@link #detached(BaseCommandHandler) Detached}
+ * drafts start empty, and may be parsed into on any thread, to be added
+ * to a copied draft later.
+ */
+final class RegistryDraft {
+
+    private final BaseCommandHandler handler;
+    private final Registry base; // the registry this draft was copied from
+    final Map<CommandPath, CommandExecutable> executables;
+    final Map<CommandPath, BaseCommandCategory> categories;
+    private final Map<CommandPath, CommandExecutable> defaultActions = new HashMap<>();
+
+    private RegistryDraft(@NotNull BaseCommandHandler handler, @NotNull Registry base) {
+        this.handler = handler;
+        this.base = base;
+        this.executables = new HashMap<>(base.executables);
+        this.categories = new HashMap<>(base.categories);
+        for (BaseCommandCategory category : categories.values()) {
+            CommandExecutable defaultAction = base.node(category).defaultAction;
+            if (defaultAction != null)
+                defaultActions.put(category.path, defaultAction);
+        }
+    }
+
+    /**
+     * Creates a draft that copies the handler's current commands
+     *
+     * @param handler The command handler
+     * @return The draft
+     */
+    public static @NotNull RegistryDraft copyOf(@NotNull BaseCommandHandler handler) {
+        return new RegistryDraft(handler, handler.registry);
+    }
+
+    /**
+     * Creates an empty draft that is not linked to the handler's commands
+     *
+     * @param handler The command handler
+     * @return The draft
+     * @see #addAll(RegistryDraft)
+     */
+    public static @NotNull RegistryDraft detached(@NotNull BaseCommandHandler handler) {
+        return new RegistryDraft(handler, Registry.EMPTY);
+    }
+
+    /**
+     * Returns the default action that the given category will have once
+     * this draft is published
+     *
+     * @param category The category
+     * @return The default action, or null if it has none.
+     */
+    public @Nullable CommandExecutable getDefaultAction(@NotNull BaseCommandCategory category) {
+        return defaultActions.get(category.path);
+    }
+
+    /**
+     * Sets the default action of the given category
+     *
+     * @param category The category
+     * @param action   The default action
+     */
+    public void setDefaultAction(@NotNull BaseCommandCategory category, @NotNull CommandExecutable action) {
+        CommandExecutable current = defaultActions.get(category.path);
+        if (current != null && current.method != action.method)
+            throw new IllegalArgumentException("Category '" + category.getPath().toRealString() + "' has more than one default" +
+                    " action! (" + current.method.toGenericString() + " and " + action.method.toGenericString() + ")");
+        defaultActions.put(category.path, action);
+    }
+
+    /**
+     * Adds all the commands and categories of the given detached draft
+     * to this draft.
+     *
+     * @param other The draft to add
+     * @throws IllegalStateException if a command in the other draft already exists.
+     */
+    public void addAll(@NotNull RegistryDraft other) {
+        for (CommandExecutable executable : other.executables.values()) {
+            if (executables.containsKey(executable.path))
+                throw new IllegalStateException("A command with path '" + executable.path.toRealString() + "' already exists!");
+        }
+        for (BaseCommandCategory category : other.categories.values()) {
+            BaseCommandCategory current = categories.putIfAbsent(category.path, category);
+            CommandExecutable defaultAction = other.defaultActions.get(category.path);
+            if (defaultAction != null)
+                setDefaultAction(current == null ? category : current, defaultAction);
+        }
+        for (CommandExecutable executable : other.executables.values()) {
+            categories.remove(executable.path); // prevent having a category and command with the same path
+            executables.put(executable.path, executable);
+        }
+    }
+
+    /**
+     * Removes all commands and categories that are children of the given
+     * path, as well as the categories that are left without any children.
+     * <p>
+     * This walks the published tree under the path, rather than testing
+     * every registered path, so it is proportional to the size of the
+     * removed subtree.
+     *
+     * @param path The path to remove
+     * @return true if anything was removed
+     */
+    public boolean remove(@NotNull CommandPath path) {
+        boolean modified = executables.remove(path) != null;
+        BaseCommandCategory category = categories.get(path);
+        if (category != null)
+            modified |= removeSubtree(category);
+        if (modified)
+            removeEmptyCategories(path.getCategoryPath());
+        return modified;
+    }
+
+    /**
+     * Removes all commands that were registered from the given container,
+     * as well as the categories that are left without any children.
+     *
+     * @param container The container. This is the object that was passed to
+     *                  {@link BaseCommandHandler#register(Object...)}
+     * @return true if anything was removed
+     */
+    public boolean removeContainer(@NotNull Object container) {
+        // the deepest categories that may have been left empty
+        List<CommandPath> affected = new ArrayList<>();
+        for (Iterator<CommandExecutable> iterator = executables.values().iterator(); iterator.hasNext(); ) {
+            CommandExecutable executable = iterator.next();
+            if (isFrom(executable, container)) {
+                iterator.remove();
+                affected.add(executable.path.getCategoryPath());
+            }
+        }
+        for (Iterator<CommandExecutable> iterator = defaultActions.values().iterator(); iterator.hasNext(); ) {
+            CommandExecutable executable = iterator.next();
+            if (isFrom(executable, container)) {
+                iterator.remove();
+                affected.add(executable.path);
+            }
+        }
+        for (CommandPath path : affected)
+            removeEmptyCategories(path);
+        return !affected.isEmpty();
+    }
+
+    private static boolean isFrom(@NotNull CommandExecutable executable, @NotNull Object container) {
+        if (executable.container == container)
+            return true;
+        return executable.container instanceof OrphanRegistry
+                && ((OrphanRegistry) executable.container).getHandler() == container;
+    }
+
+    private boolean removeSubtree(@NotNull BaseCommandCategory category) {
+        if (categories.remove(category.path) != category)
+            return false;
+        defaultActions.remove(category.path);
+        Registry.Node node = base.node(category);
+        for (CommandPath path : node.commands.keySet())
+            executables.remove(path);
+        for (BaseCommandCategory child : node.categories.values())
+            removeSubtree(child);
+        return true;
+    }
+
+    /**
+     * Removes the category with the given path and its ancestors, as long
+     * as they no longer have any commands, categories or a default action.
+     *
+     * @param path The deepest category path to check
+     */
+    private void removeEmptyCategories(@Nullable CommandPath path) {
+        for (CommandPath parent = path; parent != null; parent = parent.getCategoryPath()) {
+            BaseCommandCategory category = categories.get(parent);
+            if (category == null)
+                continue;
+            if (!isEmpty(category))
+                return;
+            categories.remove(parent);
+        }
+    }
+
+    private boolean isEmpty(@NotNull BaseCommandCategory category) {
+        if (defaultActions.containsKey(category.path))
+            return false;
+        Registry.Node node = base.node(category);
+        for (CommandPath path : node.commands.keySet())
+            if (executables.containsKey(path))
+                return false;
+        for (CommandPath path : node.categories.keySet())
+            if (categories.containsKey(path))
+                return false;
+        return true;
+    }
+
+    /**
+     * Links newly added commands to their parents, computes their conditions,
+     * and publishes this draft to the handler as a new {@link Registry}.
+     * <p>
+     * Commands and categories that are already published are never modified,
+     * except for their conditions (see {@link Registry}).
+     * Categories whose tree did not change keep their previous node, so that
+     * anything derived from it (such as its {@link NameIndex}) is reused. The
+     * index of root names is likewise reused when no root was added or removed.
+     */
+    public void publish() {
+        Registry previous = handler.registry;
+        Map<CommandPath, Map<CommandPath, ExecutableCommand>> commands = new HashMap<>();
+        Map<CommandPath, Map<CommandPath, BaseCommandCategory>> children = new HashMap<>();
+        for (BaseCommandCategory category : categories.values()) {
+            BaseCommandCategory parent = getParent(category.path);
+            if (parent != null)
+                children.computeIfAbsent(parent.path, c -> new HashMap<>()).put(category.path, category);
+        }
+        for (CommandExecutable executable : executables.values()) {
+            BaseCommandCategory parent = getParent(executable.path);
+            if (!previous.contains(executable)) {
+                executable.parent = parent;
+                executable.initConditions(handler.conditions);
+            }
+            if (parent != null)
+                commands.computeIfAbsent(parent.path, c -> new HashMap<>()).put(executable.path, executable);
+        }
+        Map<CommandPath, Registry.Node> nodes = new HashMap<>();
+        for (BaseCommandCategory category : categories.values()) {
+            CommandExecutable defaultAction = defaultActions.get(category.path);
+            if (defaultAction != null && !previous.contains(defaultAction)) {
+                defaultAction.parent = category;
+                defaultAction.initConditions(handler.conditions);
+            }
+            BaseCommandCategory parent = getParent(category.path);
+            Map<CommandPath, ExecutableCommand> subcommands = freeze(commands.get(category.path));
+            Map<CommandPath, BaseCommandCategory> subcategories = freeze(children.get(category.path));
+            Registry.Node node = previous.node(category);
+            if (!node.sameAs(parent, defaultAction, subcommands, subcategories))
+                node = new Registry.Node(parent, defaultAction, subcommands, subcategories);
+            nodes.put(category.path, node);
+        }
+        handler.registry = new Registry(
+                Collections.unmodifiableMap(executables),
+                Collections.unmodifiableMap(categories),
+                nodes,
+                previous
+        );
+    }
+
+    private @Nullable BaseCommandCategory getParent(@NotNull CommandPath path) {
+        CommandPath parentPath = path.getCategoryPath();
+        return parentPath == null ? null : categories.get(parentPath);
+    }
+
+    private static <V> Map<CommandPath, V> freeze(@Nullable Map<CommandPath, V> map) {
+        return map == null ? emptyMap() : Collections.unmodifiableMap(map);
+    }
+}
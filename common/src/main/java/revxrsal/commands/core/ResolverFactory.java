@@ -33,11 +33,39 @@ final class ResolverFactory {
 
     private final Object factory;
 
+    /**
+     * The resolver returned for all parameters of {@link #type}, for
+     * factories created with {@link #forType(Class, Object)}
+     */
+    private final @Nullable Class<?> type;
+    private final @Nullable Resolver resolver;
+
     public ResolverFactory(Object factory) {
+        this(factory, null, null);
+    }
+
+    private ResolverFactory(Object factory, @Nullable Class<?> type, @Nullable Resolver resolver) {
         this.factory = factory;
+        this.type = type;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Creates a {@link ResolverFactory} that returns the same resolver for all
+     * parameters that match the given type exactly. The resolver is wrapped
+     * once, rather than for every parameter.
+     *
+     * @param type     The parameter type
+     * @param resolver The value or context resolver
+     * @return The resolver factory
+     */
+    public static @NotNull ResolverFactory forType(@NotNull Class<?> type, @NotNull Object resolver) {
+        return new ResolverFactory(null, type, Resolver.wrap(resolver));
     }
 
     public @Nullable Resolver create(@NotNull CommandParameter parameter) {
+        if (type != null)
+            return parameter.getType() == type ? resolver : null;
         Object resolver;
 
         if (factory instanceof ContextResolverFactory)
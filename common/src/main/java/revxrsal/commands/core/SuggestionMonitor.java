@@ -0,0 +1,225 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.autocomplete.SlowSuggestionListener;
+import revxrsal.commands.autocomplete.SuggestionProvider;
+import revxrsal.commands.autocomplete.SuggestionStatistics;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Invokes {@link SuggestionProvider}s on behalf of {@link BaseAutoCompleter}, measuring
+ * the time they take, and short-circuiting providers that are consistently slow.
+ * <p>
+ * Until monitoring is enabled, this invokes providers directly.
+ */
+final class SuggestionMonitor {
+
+    private final Map<String, SuggestionProvider> suggestionKeys;
+
+    private volatile boolean enabled = false;
+    private volatile long slowThresholdNanos = Long.MAX_VALUE;
+    private volatile @Nullable SlowSuggestionListener listener;
+
+    private volatile int tripAfter = 0;
+    private volatile long budgetNanos = Long.MAX_VALUE;
+    private volatile long openNanos = 0;
+
+    private final Map<CommandParameter, ProviderStats> byParameter = new ConcurrentHashMap<>();
+    private final Map<String, ProviderStats> byId = new ConcurrentHashMap<>();
+
+    SuggestionMonitor(Map<String, SuggestionProvider> suggestionKeys) {
+        this.suggestionKeys = suggestionKeys;
+    }
+
+    void monitor(long slowThresholdNanos, @NotNull SlowSuggestionListener listener) {
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.listener = listener;
+        enabled = true;
+    }
+
+    void enableCircuitBreaker(long budgetNanos, int tripAfter, long openNanos) {
+        this.budgetNanos = budgetNanos;
+        this.openNanos = openNanos;
+        this.tripAfter = tripAfter;
+        enabled = true;
+    }
+
+    @NotNull Collection<String> suggest(@NotNull CommandParameter parameter,
+                                        @NotNull List<String> args,
+                                        @NotNull CommandActor actor,
+                                        @NotNull ExecutableCommand command) throws Throwable {
+        SuggestionProvider provider = parameter.getSuggestionProvider();
+        if (!enabled || provider == SuggestionProvider.EMPTY)
+            return provider.getSuggestions(args, actor, command);
+        ProviderStats stats = statsOf(parameter, provider);
+        long start = System.nanoTime();
+        if (stats.isOpen(start)) {
+            stats.rejected.increment();
+            return emptyList();
+        }
+        Collection<String> suggestions;
+        try {
+            suggestions = provider.getSuggestions(args, actor, command);
+        } catch (Throwable t) {
+            stats.failures.increment();
+            stats.record(System.nanoTime() - start, 0);
+            stats.trip(System.nanoTime());
+            throw t;
+        }
+        long end = System.nanoTime();
+        long took = end - start;
+        stats.record(took, suggestions.size());
+        if (took >= slowThresholdNanos) {
+            stats.slowCalls.increment();
+            SlowSuggestionListener listener = this.listener;
+            if (listener != null)
+                listener.onSlowSuggestion(stats.id, parameter, took);
+        }
+        if (tripAfter > 0) {
+            if (took > budgetNanos)
+                stats.trip(end);
+            else
+                stats.reset();
+        }
+        return suggestions;
+    }
+
+    /**
+     * Removes the statistics of parameters whose commands are no longer
+     * registered. Statistics of providers that are registered by ID are kept,
+     * as they may be shared with other commands.
+     *
+     * @param registered Tests whether a command is still registered
+     */
+    void forgetUnregistered(@NotNull Predicate<ExecutableCommand> registered) {
+        if (byParameter.isEmpty())
+            return;
+        byParameter.keySet().removeIf(parameter -> !registered.test(parameter.getDeclaringCommand()));
+        Set<ProviderStats> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        used.addAll(byParameter.values());
+        byId.values().removeIf(stats -> !stats.shared && !used.contains(stats));
+    }
+
+    @NotNull @Unmodifiable Map<String, SuggestionStatistics> snapshot() {
+        Map<String, SuggestionStatistics> snapshot = new TreeMap<>();
+        long now = System.nanoTime();
+        byId.forEach((id, stats) -> snapshot.put(id, stats.snapshot(now)));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private ProviderStats statsOf(CommandParameter parameter, SuggestionProvider provider) {
+        ProviderStats stats = byParameter.get(parameter);
+        if (stats == null) {
+            String id = registeredId(provider);
+            if (id == null)
+                stats = byId.computeIfAbsent(parameter.getDeclaringCommand().getPath().toRealString()
+                        + " <" + parameter.getName() + ">", key -> new ProviderStats(key, false));
+            else
+                stats = byId.computeIfAbsent(id, key -> new ProviderStats(key, true));
+            byParameter.put(parameter, stats);
+        }
+        return stats;
+    }
+
+    private @Nullable String registeredId(SuggestionProvider provider) {
+        // suggestionKeys is a ConcurrentHashMap, so this is safe while providers are registered
+        for (Map.Entry<String, SuggestionProvider> entry : suggestionKeys.entrySet()) {
+            if (entry.getValue() == provider)
+                return entry.getKey();
+        }
+        return null;
+    }
+
+    private final class ProviderStats {
+
+        private final String id;
+        private final boolean shared; // whether this is a provider registered by ID
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder suggestions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicInteger consecutiveSlow = new AtomicInteger();
+        private volatile long openUntil = 0;
+
+        ProviderStats(String id, boolean shared) {
+            this.id = id;
+            this.shared = shared;
+        }
+
+        void record(long nanos, int count) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            suggestions.add(count);
+        }
+
+        boolean isOpen(long now) {
+            long until = openUntil;
+            return until != 0 && now - until < 0;
+        }
+
+        void trip(long now) {
+            int tripAfter = SuggestionMonitor.this.tripAfter;
+            if (tripAfter > 0 && consecutiveSlow.incrementAndGet() >= tripAfter)
+                openUntil = now + openNanos;
+        }
+
+        void reset() {
+            consecutiveSlow.set(0);
+            openUntil = 0;
+        }
+
+        SuggestionStatistics snapshot(long now) {
+            return new SuggestionStatistics(
+                    id,
+                    calls.sum(),
+                    totalNanos.sum(),
+                    maxNanos.get(),
+                    suggestions.sum(),
+                    failures.sum(),
+                    slowCalls.sum(),
+                    rejected.sum(),
+                    isOpen(now)
+            );
+        }
+    }
+}
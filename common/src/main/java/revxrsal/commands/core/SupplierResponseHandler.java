@@ -48,4 +48,8 @@ final class SupplierResponseHandler implements ResponseHandler<Supplier<Object>>
             command.getCommandHandler().getExceptionHandler().handleException(throwable, actor);
         }
     }
+
+    @Override public boolean requiresPlatformThread() {
+        return delegate.requiresPlatformThread();
+    }
 }
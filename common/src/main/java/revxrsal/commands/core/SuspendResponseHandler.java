@@ -0,0 +1,54 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.process.ResponseHandler;
+
+import static revxrsal.commands.ktx.call.KotlinConstants.isCoroutineSuspended;
+
+/**
+ * A response handler for Kotlin suspend functions. The value is ignored if the
+ * function has suspended, in which case the response is handled once the
+ * function resumes.
+ */
+final class SuspendResponseHandler implements ResponseHandler<Object> {
+
+    private final ResponseHandler<Object> delegate;
+
+    public SuspendResponseHandler(ResponseHandler<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override public void handleResponse(Object response, @NotNull CommandActor actor, @NotNull ExecutableCommand command) {
+        if (!isCoroutineSuspended(response))
+            delegate.handleResponse(response, actor, command);
+    }
+
+    @Override public boolean requiresPlatformThread() {
+        return delegate.requiresPlatformThread();
+    }
+}
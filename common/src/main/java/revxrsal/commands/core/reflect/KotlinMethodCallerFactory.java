@@ -28,25 +28,13 @@ import revxrsal.commands.annotation.Optional;
 import revxrsal.commands.ktx.call.KotlinFunction;
 
 import java.lang.reflect.Method;
-import java.util.List;
-
-import static revxrsal.commands.ktx.call.KotlinConstants.ABSENT_VALUE;
-import static revxrsal.commands.util.Collections.listOf;
 
 final class KotlinMethodCallerFactory implements MethodCallerFactory {
 
     public static final KotlinMethodCallerFactory INSTANCE = new KotlinMethodCallerFactory();
 
     @Override public @NotNull MethodCaller createFor(@NotNull Method method) {
-        KotlinFunction function = KotlinFunction.wrap(method);
-        return (instance, arguments) -> {
-            List<Object> list = listOf(arguments);
-            list.replaceAll(v -> v == ABSENT_VALUE ? null : v);
-            return function.call(
-                    instance,
-                    list,
-                    parameter -> parameter.isAnnotationPresent(Optional.class)
-            );
-        };
+        return KotlinFunction.wrap(method)
+                .createCaller(parameter -> parameter.isAnnotationPresent(Optional.class));
     }
-}
\ No newline at end of file
+}
@@ -31,10 +31,6 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.List;
-
-import static java.util.Collections.addAll;
 
 /**
  * A {@link MethodCallerFactory} that uses the method handles API to generate
@@ -49,15 +45,27 @@ final class MethodHandlesCallerFactory implements MethodCallerFactory {
         MethodHandle handle = MethodHandles.lookup().unreflect(method);
         String methodString = method.toString();
         boolean isStatic = Modifier.isStatic(method.getModifiers());
+        // (instance?, Object[]) -> Object, so that calls do not need to
+        // copy the arguments into a new list every time
+        MethodHandle spreader = handle.asFixedArity()
+                .asType(handle.type().generic())
+                .asSpreader(Object[].class, method.getParameterCount());
         return new MethodCaller() {
             @SneakyThrows @Override public Object call(@Nullable Object instance, Object... arguments) {
-                if (!isStatic) {
-                    List<Object> args = new ArrayList<>();
-                    args.add(instance);
-                    addAll(args, arguments);
-                    return handle.invokeWithArguments(args);
-                }
-                return handle.invokeWithArguments(arguments);
+                if (!isStatic)
+                    return (Object) spreader.invokeExact(instance, arguments);
+                return (Object) spreader.invokeExact(arguments);
+            }
+
+            @Override public BoundMethodCaller bindTo(@Nullable Object instance) {
+                if (isStatic)
+                    return MethodCaller.super.bindTo(instance);
+                MethodHandle bound = spreader.bindTo(instance);
+                return new BoundMethodCaller() {
+                    @SneakyThrows @Override public Object call(@NotNull Object... arguments) {
+                        return (Object) bound.invokeExact(arguments);
+                    }
+                };
             }
 
             @Override public String toString() {
@@ -108,6 +108,8 @@ public abstract class CommandExceptionAdapter implements CommandExceptionHandler
 
     public void cooldown(@NotNull CommandActor actor, @NotNull CooldownException exception) {}
 
+    public void rateLimited(@NotNull CommandActor actor, @NotNull RateLimitedException exception) {}
+
     public void invalidHelpPage(@NotNull CommandActor actor, @NotNull InvalidHelpPageException exception) {}
 
     public void sendableException(@NotNull CommandActor actor, @NotNull SendableException exception) {}
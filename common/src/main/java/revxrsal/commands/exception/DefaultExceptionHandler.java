@@ -33,6 +33,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
+import static revxrsal.commands.util.Collections.listOf;
+
 /**
  * Default implementation of {@link CommandExceptionHandler}, which sends basic messages
  * describing the exception.
@@ -75,8 +77,7 @@ public class DefaultExceptionHandler extends CommandExceptionAdapter {
 
     @Override public void argumentParse(@NotNull CommandActor actor, @NotNull ArgumentParseException exception) {
         actor.errorLocalized("invalid-quoted-string");
-        actor.error(exception.getSourceString());
-        actor.error(exception.getAnnotatedPosition());
+        actor.error(listOf(exception.getSourceString(), exception.getAnnotatedPosition()));
     }
 
     @Override public void commandInvocation(@NotNull CommandActor actor, @NotNull CommandInvocationException exception) {
@@ -92,6 +93,8 @@ public class DefaultExceptionHandler extends CommandExceptionAdapter {
 
     @Override public void invalidCommand(@NotNull CommandActor actor, @NotNull InvalidCommandException exception) {
         actor.errorLocalized("invalid-command", exception.getInput());
+        if (exception.getSuggestion() != null)
+            actor.errorLocalized("did-you-mean", exception.getSuggestion());
     }
 
     @Override public void invalidSubcommand(@NotNull CommandActor actor, @NotNull InvalidSubcommandException exception) {
@@ -100,12 +103,18 @@ public class DefaultExceptionHandler extends CommandExceptionAdapter {
 
     @Override public void noSubcommandSpecified(@NotNull CommandActor actor, @NotNull NoSubcommandSpecifiedException exception) {
         actor.errorLocalized("no-subcommand-specified");
+        if (exception.getSuggestion() != null)
+            actor.errorLocalized("did-you-mean", exception.getCategory().getPath().toRealString() + ' ' + exception.getSuggestion());
     }
 
     @Override public void cooldown(@NotNull CommandActor actor, @NotNull CooldownException exception) {
         actor.errorLocalized("on-cooldown", formatTimeFancy(exception.getTimeLeftMillis()));
     }
 
+    @Override public void rateLimited(@NotNull CommandActor actor, @NotNull RateLimitedException exception) {
+        actor.errorLocalized("rate-limited", formatTimeFancy(Math.max(1000L, exception.getTimeLeftMillis())));
+    }
+
     @Override public void invalidHelpPage(@NotNull CommandActor actor, @NotNull InvalidHelpPageException exception) {
         actor.errorLocalized("invalid-help-page", exception.getPage(), exception.getPageCount());
     }
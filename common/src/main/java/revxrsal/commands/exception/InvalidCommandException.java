@@ -26,6 +26,7 @@ package revxrsal.commands.exception;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.core.CommandPath;
 
 /**
@@ -48,4 +49,14 @@ public class InvalidCommandException extends RuntimeException {
      */
     private final @NotNull String input;
 
+    /**
+     * The name of the root command closest to the input, which the actor
+     * can use. This is {@code null} if there is none.
+     */
+    private final @Nullable String suggestion;
+
+    public InvalidCommandException(@NotNull CommandPath path, @NotNull String input) {
+        this(path, input, null);
+    }
+
 }
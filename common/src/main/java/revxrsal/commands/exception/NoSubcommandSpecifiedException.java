@@ -26,6 +26,7 @@ package revxrsal.commands.exception;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.annotation.Default;
 import revxrsal.commands.command.CommandCategory;
 
@@ -46,4 +47,15 @@ public class NoSubcommandSpecifiedException extends RuntimeException {
      */
     private final @NotNull CommandCategory category;
 
+    /**
+     * The name of the subcommand closest to the input, which the actor
+     * can use. This is {@code null} if no subcommand was inputted, or
+     * none is close to it.
+     */
+    private final @Nullable String suggestion;
+
+    public NoSubcommandSpecifiedException(@NotNull CommandCategory category) {
+        this(category, null);
+    }
+
 }
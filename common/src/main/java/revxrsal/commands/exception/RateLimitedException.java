@@ -0,0 +1,90 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.exception;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.annotation.RateLimit;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.concurrent.TimeUnit;
+
+import static revxrsal.commands.util.Preconditions.notNull;
+
+/**
+ * Thrown when the {@link CommandActor} executes a command more often
+ * than its {@link RateLimit} allows.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    /**
+     * The command that was rate limited
+     */
+    private final @NotNull ExecutableCommand command;
+
+    /**
+     * The time left (in milliseconds)
+     */
+    private final long timeLeft;
+
+    /**
+     * Creates a new {@link RateLimitedException}
+     *
+     * @param command  The command that was rate limited
+     * @param timeLeft The time left in milliseconds until a permit is available
+     */
+    public RateLimitedException(@NotNull ExecutableCommand command, long timeLeft) {
+        this.command = command;
+        this.timeLeft = timeLeft;
+    }
+
+    /**
+     * Returns the command that was rate limited
+     *
+     * @return The command
+     */
+    public @NotNull ExecutableCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the time left until the command can be executed again
+     *
+     * @return Time left in milliseconds
+     */
+    public long getTimeLeftMillis() {
+        return timeLeft;
+    }
+
+    /**
+     * Returns the time left in the given unit
+     *
+     * @param unit Unit to convert to
+     * @return The time left
+     */
+    public long getTimeLeft(@NotNull TimeUnit unit) {
+        notNull(unit, "unit");
+        return unit.convert(timeLeft, TimeUnit.MILLISECONDS);
+    }
+}
@@ -23,50 +23,229 @@
  */
 package revxrsal.commands.ktx
 
+import kotlinx.coroutines.*
 import revxrsal.commands.CommandHandler
 import revxrsal.commands.CommandHandlerVisitor
+import revxrsal.commands.annotation.DistributeOnMethods
+import revxrsal.commands.command.CommandActor
+import revxrsal.commands.command.ExecutableCommand
+import revxrsal.commands.ktx.call.DisposableContinuation
 import revxrsal.commands.process.ContextResolver
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
 import kotlin.coroutines.Continuation
+import kotlin.coroutines.CoroutineContext
 import kotlin.coroutines.EmptyCoroutineContext
 
 /**
  * A [CommandHandlerVisitor] that allows command functions to be [suspend]
  * functions. This will allow running coroutine methods inside them directly.
  *
- * This works by registering resolvers for Kotlin's [Continuation].
+ * Every command that suspends runs in its own [Job], which is a child of the
+ * [scope]'s job, and resumes on the [scope]'s dispatcher (if any). The function
+ * runs on the dispatching thread until it first suspends. Once the function
+ * returns, its value is passed to the command's
+ * [revxrsal.commands.process.ResponseHandler].
+ *
+ * Running commands are cancelled when:
+ * - the [scope] is cancelled
+ * - they exceed their [CommandTimeout], or the [defaultTimeoutMillis]
+ * - [cancel] is invoked for their actor, such as when the actor disconnects
+ * - [cancelAll] is invoked, such as when the plugin is disabled
+ *
+ * Unregistering commands does not cancel them.
+ *
+ * This works by registering resolvers for Kotlin's [Continuation], and requires
+ * `kotlinx.coroutines` at runtime. The [Default] support, used when no scope
+ * is given, only requires the Kotlin standard library.
  *
  * To enable, use [CommandHandler.supportSuspendFunctions]
  */
-object SuspendFunctionsSupport : CommandHandlerVisitor {
+class SuspendFunctionsSupport @JvmOverloads constructor(
+    private val scope: CoroutineScope,
+    private val defaultTimeoutMillis: Long = 0
+) : CommandHandlerVisitor {
+
+    /**
+     * The support used by [CommandHandler.supportSuspendFunctions] when no
+     * scope is given. Commands do not run in a [Job], cannot be cancelled or
+     * timed out, and resume on whichever thread resumes them.
+     */
+    companion object Default : CommandHandlerVisitor {
+
+        /**
+         * The default support, for use from Java
+         */
+        @JvmField
+        val INSTANCE: CommandHandlerVisitor = this
+
+        override fun visit(handler: CommandHandler) {
+            handler.registerContextResolverFactory {
+                if (it.isLastInMethod && it.type.isAssignableFrom(Continuation::class.java))
+                    ContextResolver { context ->
+                        CommandContinuation(
+                            context.commandHandler(),
+                            context.actor(),
+                            context.parameter().declaringCommand
+                        )
+                    }
+                else
+                    null
+            }
+        }
+    }
+
+    /**
+     * The running commands of every actor
+     */
+    private val running = ConcurrentHashMap<UUID, MutableSet<Job>>()
 
     override fun visit(handler: CommandHandler) {
         handler.registerContextResolverFactory {
             if (it.isLastInMethod && it.type.isAssignableFrom(Continuation::class.java))
-                ContinuationResolver
+                ContextResolver { context ->
+                    ScopedContinuation(
+                        context.commandHandler(),
+                        context.actor(),
+                        context.parameter().declaringCommand
+                    )
+                }
             else
                 null
         }
     }
 
-    private object ContinuationResolver : ContextResolver<Continuation<Any>> {
+    /**
+     * Cancels all the running commands of the given actor
+     */
+    fun cancel(actor: UUID) {
+        running.remove(actor)?.forEach { it.cancel() }
+    }
+
+    /**
+     * Cancels all the running commands of the given actor
+     */
+    fun cancel(actor: CommandActor) = cancel(actor.uniqueId)
+
+    /**
+     * Cancels all the running commands
+     */
+    fun cancelAll() {
+        running.keys.forEach { cancel(it) }
+    }
+
+    private fun track(actor: UUID, job: Job) {
+        running.computeIfAbsent(actor) { ConcurrentHashMap.newKeySet() }.add(job)
+        job.invokeOnCompletion {
+            running.computeIfPresent(actor) { _, jobs ->
+                jobs.remove(job)
+                if (jobs.isEmpty()) null else jobs
+            }
+        }
+    }
+
+    /**
+     * A continuation that runs the command in its own [Job]. The job is only
+     * created once the function needs its context, which is when it first
+     * suspends. If the function never suspends, the dispatcher disposes the
+     * continuation, which completes the job.
+     */
+    private inner class ScopedContinuation(
+        handler: CommandHandler,
+        actor: CommandActor,
+        command: ExecutableCommand
+    ) : CommandContinuation(handler, actor, command), DisposableContinuation {
+
+        @Volatile
+        private var job: CompletableJob? = null
 
-        override fun resolve(context: ContextResolver.ContextResolverContext): Continuation<Any> {
-            return BasicContinuation {
-                context.commandHandler.exceptionHandler.handleException(it, context.actor())
+        override val context: CoroutineContext by lazy {
+            val job = Job(scope.coroutineContext[Job])
+            this.job = job
+            track(actor.uniqueId, job)
+            val timeout = command.getAnnotation(CommandTimeout::class.java)
+                ?.let { it.unit.toMillis(it.value) }
+                ?: defaultTimeoutMillis
+            if (timeout > 0) {
+                val timer = scope.launch {
+                    delay(timeout)
+                    job.cancel(CommandTimeoutException(command, timeout))
+                }
+                job.invokeOnCompletion { timer.cancel() }
             }
+            scope.coroutineContext + job + CoroutineName(command.path.toRealString())
+        }
+
+        override fun resumeWith(result: Result<Any?>) {
+            dispose()
+            super.resumeWith(result)
+        }
+
+        override fun dispose() {
+            job?.complete()
         }
     }
 
-    private class BasicContinuation<T>(private val handleException: (Throwable) -> Unit) : Continuation<T> {
+    /**
+     * A continuation that passes the value the function resumes with to the
+     * command's response handler, and its exception to the exception handler.
+     */
+    private open class CommandContinuation(
+        protected val handler: CommandHandler,
+        protected val actor: CommandActor,
+        protected val command: ExecutableCommand
+    ) : Continuation<Any?> {
 
-        override val context get() = EmptyCoroutineContext
+        override val context: CoroutineContext
+            get() = EmptyCoroutineContext
 
-        override fun resumeWith(result: Result<T>) {
+        override fun resumeWith(result: Result<Any?>) {
             result.fold(
-                onSuccess = {},
-                onFailure = { handleException(it) }
+                onSuccess = { respond(it) },
+                onFailure = {
+                    // commands cancelled by their actor or scope are not errors
+                    if (it !is CancellationException || it is CommandTimeoutException)
+                        handler.exceptionHandler.handleException(it, actor)
+                }
             )
         }
+
+        private fun respond(value: Any?) {
+            val responseHandler = command.getResponseHandler<Any?>()
+            val respond = Runnable {
+                try {
+                    responseHandler.handleResponse(value, actor, command)
+                } catch (t: Throwable) {
+                    handler.exceptionHandler.handleException(t, actor)
+                }
+            }
+            if (responseHandler.requiresPlatformThread())
+                handler.platformExecutor.execute(respond)
+            else
+                respond.run()
+        }
     }
+}
+
+/**
+ * Sets the maximum time a [suspend] command may run for, after which it is
+ * cancelled with a [CommandTimeoutException].
+ *
+ * @see SuspendFunctionsSupport
+ */
+@DistributeOnMethods
+@Retention(AnnotationRetention.RUNTIME)
+@Target(AnnotationTarget.FUNCTION, AnnotationTarget.CLASS)
+annotation class CommandTimeout(
+    val value: Long,
+    val unit: TimeUnit = TimeUnit.SECONDS
+)
 
-}
\ No newline at end of file
+/**
+ * Thrown when a [suspend] command exceeds its [CommandTimeout]
+ */
+class CommandTimeoutException(
+    val command: ExecutableCommand,
+    val timeoutMillis: Long
+) : CancellationException("Command '${command.path.toRealString()}' timed out after $timeoutMillis ms")
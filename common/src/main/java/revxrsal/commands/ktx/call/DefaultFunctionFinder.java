@@ -42,8 +42,8 @@ import static revxrsal.commands.util.Collections.insertAtBeginning;
  * the Kotlin compiler. This will attempt to find it the following order:
  * <ol>
  *     <li>
- *         Find a <code>(name)$default</code> function with the parameters + 2 additional
- *         synthetic ones
+ *         Find a <code>(name)$default</code> function with the parameters + the additional
+ *         synthetic ones (an int mask for every 32 parameters, and a marker)
  *     </li>
  *     <li>
  *         Find a <code>(name)$default</code> function with the declaring class as the parameter,
@@ -159,9 +159,12 @@ final class DefaultFunctionFinder {
     }
 
     private static @NotNull List<Class<?>> getSyntheticParameters(Method method) {
-        List<Class<?>> parameters = new ArrayList<>(method.getParameterCount() + 3);
+        int maskCount = (method.getParameterCount() + Integer.SIZE - 1) / Integer.SIZE;
+        List<Class<?>> parameters = new ArrayList<>(method.getParameterCount() + maskCount + 2);
         Collections.addAll(parameters, method.getParameterTypes());
-        parameters.add(int.class);
+        // one mask for every 32 parameters
+        for (int i = 0; i < maskCount; i++)
+            parameters.add(int.class);
         parameters.add(Object.class);
         return parameters;
     }
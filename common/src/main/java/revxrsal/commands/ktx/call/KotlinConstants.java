@@ -50,6 +50,19 @@ public final class KotlinConstants {
             findClass("kotlin.coroutines.Continuation")
     );
 
+    /**
+     * The {@code COROUTINE_SUSPENDED} marker, returned by suspend functions
+     * that have suspended.
+     */
+    private static final Supplier<Object> COROUTINE_SUSPENDED = lazy(() -> {
+        Class<?> singletons = findClass("kotlin.coroutines.intrinsics.CoroutineSingletons");
+        if (singletons == null) return null;
+        for (Object constant : singletons.getEnumConstants())
+            if (((Enum<?>) constant).name().equals("COROUTINE_SUSPENDED"))
+                return constant;
+        return null;
+    });
+
     /**
      * The {@link kotlin.jvm.JvmStatic} annotation
      */
@@ -123,6 +136,17 @@ public final class KotlinConstants {
         return CONTINUATION.get();
     }
 
+    /**
+     * Tests whether the given value is the marker returned by suspend
+     * functions when they suspend
+     *
+     * @param value Value to test
+     * @return True if the function has suspended
+     */
+    public static boolean isCoroutineSuspended(@Nullable Object value) {
+        return value != null && value == COROUTINE_SUSPENDED.get();
+    }
+
     /**
      * Tests whether is the given class a Kotlin-generated class
      *
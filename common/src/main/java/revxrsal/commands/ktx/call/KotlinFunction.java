@@ -26,6 +26,7 @@ package revxrsal.commands.ktx.call;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.core.reflect.MethodCaller;
 import revxrsal.commands.util.Preconditions;
 
 import java.lang.reflect.Method;
@@ -95,6 +96,22 @@ public interface KotlinFunction {
             @NotNull Function<Parameter, Boolean> isOptional
     );
 
+    /**
+     * Creates a {@link MethodCaller} that invokes this function with
+     * positional arguments, where a {@code null} (or {@link KotlinConstants#ABSENT_VALUE})
+     * uses the default value of the parameter.
+     * <p>
+     * Unlike {@link #call(Object, List, Function)}, the optional parameters, their
+     * mask bits and the layout of the synthetic default function are computed once,
+     * so invoking the returned caller does not create any maps or lists.
+     *
+     * @param isOptional A function that reports whether a parameter is optional.
+     *                   This is only invoked once per parameter.
+     * @return The method caller
+     * @see #call(Object, List, Function)
+     */
+    @NotNull MethodCaller createCaller(@NotNull Function<Parameter, Boolean> isOptional);
+
     /**
      * Calls the function with the given arguments, mapped by the index
      * of each parameter. Indexing starts from zero.
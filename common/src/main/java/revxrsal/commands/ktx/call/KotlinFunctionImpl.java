@@ -90,6 +90,12 @@ final class KotlinFunctionImpl implements KotlinFunction {
         return callByParameters(instance, callArgs, isOptional);
     }
 
+    @Override
+    public @NotNull MethodCaller createCaller(@NotNull Function<Parameter, Boolean> isOptional) {
+        Preconditions.notNull(isOptional, "isOptional");
+        return new KotlinFunctionCaller(this, isOptional);
+    }
+
     @Override
     public <T> T callByIndices(
             @Nullable Object instance,
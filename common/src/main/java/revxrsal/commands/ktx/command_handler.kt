@@ -23,6 +23,7 @@
  */
 package revxrsal.commands.ktx
 
+import kotlinx.coroutines.CoroutineScope
 import revxrsal.commands.CommandHandler
 import revxrsal.commands.annotation.dynamic.AnnotationReplacer
 import revxrsal.commands.command.CommandActor
@@ -133,4 +134,16 @@ inline fun <reified T> CommandHandler.responseHandler(handler: ResponseHandler<T
  * Tells the command handler to add support for functions with the [suspend]
  * modifier.
  */
-fun CommandHandler.supportSuspendFunctions() = accept(SuspendFunctionsSupport)
\ No newline at end of file
+fun CommandHandler.supportSuspendFunctions() = accept(SuspendFunctionsSupport)
+
+/**
+ * Tells the command handler to add support for functions with the [suspend]
+ * modifier, running them in the given [scope].
+ *
+ * @return The created support, which can be used to cancel running commands
+ * @see SuspendFunctionsSupport
+ */
+fun CommandHandler.supportSuspendFunctions(
+    scope: CoroutineScope,
+    defaultTimeoutMillis: Long = 0
+): SuspendFunctionsSupport = SuspendFunctionsSupport(scope, defaultTimeoutMillis).also { accept(it) }
\ No newline at end of file
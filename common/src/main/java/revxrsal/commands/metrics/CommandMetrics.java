@@ -0,0 +1,110 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.Map;
+
+/**
+ * Records how long each phase of executing a command takes, and how often
+ * commands fail.
+ * <p>
+ * Implementations are invoked on every dispatch, possibly from several threads
+ * at once, and must therefore be thread-safe and cheap. The default implementation,
+ * {@link #create()}, is lock-free.
+ * <p>
+ * Set with {@link revxrsal.commands.CommandHandler#setMetrics(CommandMetrics)}.
+ */
+public interface CommandMetrics {
+
+    /**
+     * The key under which {@link #snapshot()} reports dispatches that failed
+     * before a command could be found, such as unknown commands.
+     */
+    int UNRESOLVED = -1;
+
+    /**
+     * Returns a {@link CommandMetrics} that records nothing. This is the
+     * default for command handlers.
+     *
+     * @return The disabled metrics
+     */
+    static @NotNull CommandMetrics disabled() {
+        return DisabledMetrics.INSTANCE;
+    }
+
+    /**
+     * Creates a new {@link CommandMetrics} that keeps lock-free counters and
+     * latency histograms for every command.
+     *
+     * @return The new metrics
+     */
+    static @NotNull CommandMetrics create() {
+        return new DefaultCommandMetrics();
+    }
+
+    /**
+     * Returns whether this metrics records anything. When this returns false,
+     * the dispatcher will not measure any time and will not invoke any of the
+     * recording methods.
+     *
+     * @return Whether this metrics is enabled
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Records the time taken by a phase of the command
+     *
+     * @param command       The command. This is null if the command could not
+     *                      be found
+     * @param phase         The measured phase
+     * @param durationNanos The duration, in nanoseconds
+     */
+    void recordPhase(@Nullable ExecutableCommand command, @NotNull CommandPhase phase, long durationNanos);
+
+    /**
+     * Records a failure of the command
+     *
+     * @param command   The command. This is null if the command could not
+     *                  be found
+     * @param throwable The thrown exception
+     */
+    void recordFailure(@Nullable ExecutableCommand command, @NotNull Throwable throwable);
+
+    /**
+     * Returns a point-in-time copy of the recorded statistics, mapped by
+     * their {@link ExecutableCommand#getId()}. Failed dispatches with no
+     * command are mapped to {@link #UNRESOLVED}.
+     *
+     * @return The statistics of all commands
+     */
+    @NotNull @Unmodifiable Map<Integer, CommandStatistics> snapshot();
+
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+/**
+ * Represents the phases of executing a command, each of which is measured
+ * separately by {@link CommandMetrics}.
+ */
+public enum CommandPhase {
+
+    /**
+     * Finding the command that matches the input
+     */
+    LOOKUP,
+
+    /**
+     * Testing the registered {@link revxrsal.commands.process.CommandCondition}s
+     */
+    CONDITIONS,
+
+    /**
+     * Resolving the command parameters from the input
+     */
+    RESOLVE,
+
+    /**
+     * Invoking the command method
+     */
+    INVOKE,
+
+    /**
+     * Handling the result of the command with its {@link revxrsal.commands.process.ResponseHandler}
+     */
+    RESPOND,
+
+    /**
+     * Handling any exception thrown during the previous phases with
+     * the {@link revxrsal.commands.exception.CommandExceptionHandler}
+     */
+    EXCEPTION
+}
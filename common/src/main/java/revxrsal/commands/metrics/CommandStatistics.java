@@ -0,0 +1,90 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Map;
+
+/**
+ * A point-in-time copy of the statistics recorded for a single command.
+ *
+ * @see CommandMetrics#snapshot()
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class CommandStatistics {
+
+    /**
+     * The command ID, or {@link CommandMetrics#UNRESOLVED} for dispatches
+     * that did not match any command.
+     */
+    private final int commandId;
+
+    /**
+     * The full path of the command, or null for {@link CommandMetrics#UNRESOLVED}.
+     */
+    private final @Nullable String path;
+
+    /**
+     * The number of failed executions
+     */
+    private final long failures;
+
+    /**
+     * The number of failures, mapped by the name of the exception class.
+     * Exceptions thrown by the command method itself are reported by
+     * their actual type rather than {@link revxrsal.commands.exception.CommandInvocationException}.
+     */
+    private final @NotNull @Unmodifiable Map<String, Long> failuresByType;
+
+    /**
+     * The latencies of every phase
+     */
+    private final @NotNull @Unmodifiable Map<CommandPhase, LatencySnapshot> phases;
+
+    /**
+     * Returns the latencies recorded for the given phase
+     *
+     * @param phase The phase
+     * @return The latencies
+     */
+    public @NotNull LatencySnapshot getPhase(@NotNull CommandPhase phase) {
+        return phases.getOrDefault(phase, LatencySnapshot.EMPTY);
+    }
+
+    /**
+     * Returns the number of times the command method was invoked
+     *
+     * @return The invocation count
+     */
+    public long getInvocations() {
+        return getPhase(CommandPhase.INVOKE).getCount();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.exception.CommandInvocationException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link CommandMetrics}, which keeps {@link LongAdder} counters
+ * and {@link LatencyHistogram}s for every command ID.
+ */
+final class DefaultCommandMetrics implements CommandMetrics {
+
+    private static final CommandPhase[] PHASES = CommandPhase.values();
+
+    private final Map<Integer, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Recorder unresolved = new Recorder(UNRESOLVED, null);
+
+    @Override public void recordPhase(@Nullable ExecutableCommand command, @NotNull CommandPhase phase, long durationNanos) {
+        recorderOf(command).phases[phase.ordinal()].record(durationNanos);
+    }
+
+    @Override public void recordFailure(@Nullable ExecutableCommand command, @NotNull Throwable throwable) {
+        if (throwable instanceof CommandInvocationException && throwable.getCause() != null)
+            throwable = throwable.getCause();
+        Recorder recorder = recorderOf(command);
+        recorder.failures.increment();
+        recorder.failuresByType.computeIfAbsent(throwable.getClass().getName(), k -> new LongAdder()).increment();
+    }
+
+    private Recorder recorderOf(@Nullable ExecutableCommand command) {
+        if (command == null)
+            return unresolved;
+        Recorder recorder = recorders.get(command.getId());
+        if (recorder == null)
+            recorder = recorders.computeIfAbsent(command.getId(), id -> new Recorder(id, command.getPath().toRealString()));
+        return recorder;
+    }
+
+    @Override public @NotNull @Unmodifiable Map<Integer, CommandStatistics> snapshot() {
+        Map<Integer, CommandStatistics> snapshot = new TreeMap<>();
+        snapshot.put(UNRESOLVED, unresolved.snapshot());
+        for (Recorder recorder : recorders.values())
+            snapshot.put(recorder.id, recorder.snapshot());
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private static final class Recorder {
+
+        private final int id;
+        private final @Nullable String path;
+        private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+        private final LongAdder failures = new LongAdder();
+        private final Map<String, LongAdder> failuresByType = new ConcurrentHashMap<>();
+
+        Recorder(int id, @Nullable String path) {
+            this.id = id;
+            this.path = path;
+            for (int i = 0; i < phases.length; i++)
+                phases[i] = new LatencyHistogram();
+        }
+
+        CommandStatistics snapshot() {
+            Map<CommandPhase, LatencySnapshot> phases = new EnumMap<>(CommandPhase.class);
+            for (CommandPhase phase : PHASES)
+                phases.put(phase, this.phases[phase.ordinal()].snapshot());
+            Map<String, Long> failuresByType = new HashMap<>();
+            this.failuresByType.forEach((type, count) -> failuresByType.put(type, count.sum()));
+            return new CommandStatistics(
+                    id,
+                    path,
+                    failures.sum(),
+                    Collections.unmodifiableMap(failuresByType),
+                    Collections.unmodifiableMap(phases)
+            );
+        }
+    }
+}
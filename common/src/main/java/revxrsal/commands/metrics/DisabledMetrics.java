@@ -0,0 +1,54 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.command.ExecutableCommand;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@link CommandMetrics} that does nothing
+ */
+final class DisabledMetrics implements CommandMetrics {
+
+    static final DisabledMetrics INSTANCE = new DisabledMetrics();
+
+    private DisabledMetrics() {}
+
+    @Override public boolean isEnabled() {
+        return false;
+    }
+
+    @Override public void recordPhase(@Nullable ExecutableCommand command, @NotNull CommandPhase phase, long durationNanos) {}
+
+    @Override public void recordFailure(@Nullable ExecutableCommand command, @NotNull Throwable throwable) {}
+
+    @Override public @NotNull @Unmodifiable Map<Integer, CommandStatistics> snapshot() {
+        return Collections.emptyMap();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.metrics;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A point-in-time copy of the latencies recorded for a single {@link CommandPhase}.
+ * <p>
+ * Latencies are kept in logarithmic buckets, so percentiles are approximate
+ * and may be overestimated by up to 25%.
+ */
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class LatencySnapshot {
+
+    static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, new long[LatencyHistogram.BUCKETS]);
+
+    /**
+     * The number of recorded values
+     */
+    private final @Getter long count;
+
+    /**
+     * The sum of all recorded values, in nanoseconds
+     */
+    private final @Getter long totalNanos;
+
+    /**
+     * The largest recorded value, in nanoseconds
+     */
+    private final @Getter long maxNanos;
+
+    private final long[] buckets;
+
+    /**
+     * Returns the average of the recorded values, in nanoseconds
+     *
+     * @return The mean value
+     */
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Returns the value, in nanoseconds, below which the given percentage
+     * of recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The value at the percentile
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long target = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * count);
+        if (target == 0) target = 1;
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                long highest = i + 1 < buckets.length ? LatencyHistogram.lowestValueAt(i + 1) - 1 : maxNanos;
+                return Math.min(highest, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Returns a copy of the bucket counts. The lower bound of every
+     * bucket is returned by {@link #getBucketLowerBound(int)}.
+     *
+     * @return The bucket counts
+     */
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    /**
+     * Returns the smallest value, in nanoseconds, that falls in the
+     * given bucket.
+     *
+     * @param bucket The bucket index
+     * @return The lower bound of the bucket
+     */
+    public static long getBucketLowerBound(int bucket) {
+        return LatencyHistogram.lowestValueAt(bucket);
+    }
+
+    @Override public String toString() {
+        return "LatencySnapshot(count=" + count
+                + ", mean=" + (long) getMeanNanos()
+                + "ns, p50=" + getValueAtPercentile(50)
+                + "ns, p99=" + getValueAtPercentile(99)
+                + "ns, max=" + maxNanos + "ns)";
+    }
+}
@@ -24,11 +24,13 @@
 package revxrsal.commands.process;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.exception.CommandExceptionHandler;
 
+import java.lang.annotation.Annotation;
 import java.util.List;
 
 /**
@@ -36,7 +38,11 @@ import java.util.List;
  * invocation to continue.
  * <p>
  * These conditions can test against custom annotations in {@link ExecutableCommand}s,
- * and hence perform external checks for reducing boilerplate
+ * and hence perform external checks for reducing boilerplate.
+ * <p>
+ * Conditions that only concern some commands should override {@link #forCommand(ExecutableCommand)},
+ * or be created with {@link #forAnnotation(Class, AnnotatedCondition)}, so that they
+ * are never tested against the commands they do not apply to.
  */
 public interface CommandCondition {
 
@@ -54,4 +60,75 @@ public interface CommandCondition {
                  @NotNull ExecutableCommand command,
                  @NotNull @Unmodifiable List<String> arguments);
 
+    /**
+     * Returns the condition that should be tested whenever the given
+     * command is invoked, or {@code null} if this condition does not apply
+     * to it.
+     * <p>
+     * This is invoked once for every command, when it is registered (or when
+     * this condition is registered, for commands that already exist), which
+     * allows conditions to look up whatever they need from the command, such
+     * as its annotations, ahead of time.
+     * <p>
+     * By default, this returns this condition itself, which is tested against
+     * all commands.
+     *
+     * @param command The command
+     * @return The condition to test, or null if it does not apply.
+     */
+    default @Nullable CommandCondition forCommand(@NotNull ExecutableCommand command) {
+        return this;
+    }
+
+    /**
+     * Creates a condition that only applies to commands that have the given
+     * annotation. The annotation is looked up once for every command, and passed
+     * to the condition when it is tested.
+     *
+     * @param annotationType The annotation type
+     * @param condition      The condition to test
+     * @param <A>            The annotation type
+     * @return The command condition
+     */
+    static <A extends Annotation> @NotNull CommandCondition forAnnotation(@NotNull Class<A> annotationType,
+                                                                         @NotNull AnnotatedCondition<A> condition) {
+        return new CommandCondition() {
+            @Override public void test(@NotNull CommandActor actor, @NotNull ExecutableCommand command, @NotNull @Unmodifiable List<String> arguments) {
+                A annotation = command.getAnnotation(annotationType);
+                if (annotation != null)
+                    condition.test(actor, command, arguments, annotation);
+            }
+
+            @Override public @Nullable CommandCondition forCommand(@NotNull ExecutableCommand command) {
+                A annotation = command.getAnnotation(annotationType);
+                if (annotation == null)
+                    return null;
+                return (actor, c, arguments) -> condition.test(actor, c, arguments, annotation);
+            }
+        };
+    }
+
+    /**
+     * A condition that is tested against commands that have a specific annotation.
+     *
+     * @param <A> The annotation type
+     * @see #forAnnotation(Class, AnnotatedCondition)
+     */
+    @FunctionalInterface
+    interface AnnotatedCondition<A extends Annotation> {
+
+        /**
+         * Evaluates the condition.
+         *
+         * @param actor      The command actor
+         * @param command    The invoked command
+         * @param arguments  An immutable view of command arguments
+         * @param annotation The annotation of the command
+         */
+        void test(@NotNull CommandActor actor,
+                  @NotNull ExecutableCommand command,
+                  @NotNull @Unmodifiable List<String> arguments,
+                  @NotNull A annotation);
+    }
+
 }
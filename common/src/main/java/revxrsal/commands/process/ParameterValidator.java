@@ -24,6 +24,7 @@
 package revxrsal.commands.process;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.command.CommandActor;
 import revxrsal.commands.command.CommandParameter;
@@ -52,6 +53,10 @@ import revxrsal.commands.exception.CommandExceptionHandler;
  * }
  * }</pre>
  * <p>
+ * Validators that only concern some parameters, such as the one above, should
+ * override {@link #forParameter(CommandParameter)} to look up the annotation once,
+ * when the parameter is registered.
+ * <p>
  * These can be registered through {@link CommandHandler#registerParameterValidator(Class, ParameterValidator)}
  *
  * @param <T> The parameter handler
@@ -70,4 +75,21 @@ public interface ParameterValidator<T> {
      */
     void validate(T value, @NotNull CommandParameter parameter, @NotNull CommandActor actor);
 
+    /**
+     * Returns the validator that should validate the values of the given
+     * parameter, or {@code null} if this validator has nothing to check for it.
+     * <p>
+     * This is invoked once for every parameter, when its command is registered,
+     * which allows validators to extract whatever they need from the parameter,
+     * such as its annotations, ahead of time.
+     * <p>
+     * By default, this returns this validator itself.
+     *
+     * @param parameter The parameter
+     * @return The validator to use, or null if it does not apply.
+     */
+    default @Nullable ParameterValidator<T> forParameter(@NotNull CommandParameter parameter) {
+        return this;
+    }
+
 }
@@ -45,6 +45,39 @@ public interface ResponseHandler<T> {
      */
     void handleResponse(T response, @NotNull CommandActor actor, @NotNull ExecutableCommand command);
 
+    /**
+     * Returns whether this response handler must run on the platform thread
+     * (such as the server's main thread). When the command runs on another
+     * executor (see {@link revxrsal.commands.annotation.RunOn}), such handlers
+     * are scheduled on {@link revxrsal.commands.CommandHandler#getPlatformExecutor()}.
+     *
+     * @return Whether this handler requires the platform thread
+     * @see #onPlatformThread(ResponseHandler)
+     */
+    default boolean requiresPlatformThread() {
+        return false;
+    }
+
+    /**
+     * Marks the given response handler as requiring the platform thread.
+     *
+     * @param handler Handler to wrap
+     * @param <T>     The response type
+     * @return The wrapped handler
+     * @see #requiresPlatformThread()
+     */
+    static <T> @NotNull ResponseHandler<T> onPlatformThread(@NotNull ResponseHandler<T> handler) {
+        return new ResponseHandler<T>() {
+            @Override public void handleResponse(T response, @NotNull CommandActor actor, @NotNull ExecutableCommand command) {
+                handler.handleResponse(response, actor, command);
+            }
+
+            @Override public boolean requiresPlatformThread() {
+                return true;
+            }
+        };
+    }
+
     /**
      * A utility method that directly replies with the response.
      * <p>
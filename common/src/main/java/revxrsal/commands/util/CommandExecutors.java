@@ -0,0 +1,107 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides {@link Executor}s suitable for running commands, such as with
+ * {@link revxrsal.commands.CommandHandler#setAsyncExecutor(Executor)}.
+ */
+public final class CommandExecutors {
+
+    private CommandExecutors() {}
+
+    /**
+     * The number of threads used by {@link #virtualThreads()} when virtual
+     * threads are not available. Commands that run asynchronously are usually
+     * blocked on I/O, hence more threads than processors.
+     */
+    private static final int FALLBACK_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * Returns a shared executor that runs every task on a new virtual thread.
+     * This is well suited for commands that spend most of their time blocked,
+     * such as on HTTP or database calls.
+     * <p>
+     * Virtual threads require Java 21 or newer. On older JVMs, this returns
+     * a shared {@link #bounded(int) bounded} pool instead.
+     *
+     * @return The virtual thread executor
+     * @see #supportsVirtualThreads()
+     */
+    public static @NotNull Executor virtualThreads() {
+        return VirtualThreadsHolder.EXECUTOR;
+    }
+
+    /**
+     * Returns whether the current JVM supports virtual threads, in which case
+     * {@link #virtualThreads()} runs tasks on them.
+     *
+     * @return Whether virtual threads are supported
+     */
+    public static boolean supportsVirtualThreads() {
+        return VirtualThreadsHolder.SUPPORTED;
+    }
+
+    /**
+     * Creates a new executor with a fixed number of daemon threads, which
+     * are stopped when idle.
+     *
+     * @param threads The maximum number of threads
+     * @return The new executor
+     */
+    public static @NotNull ExecutorService bounded(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("threads must be positive!");
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "lamp-command-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class VirtualThreadsHolder {
+
+        private static final Executor EXECUTOR;
+        private static final boolean SUPPORTED;
+
+        static {
+            ExecutorService virtual = VirtualThreads.newExecutor();
+            SUPPORTED = virtual != null;
+            EXECUTOR = virtual != null ? virtual : bounded(FALLBACK_THREADS);
+        }
+    }
+}
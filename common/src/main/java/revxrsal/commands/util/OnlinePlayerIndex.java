@@ -0,0 +1,264 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import revxrsal.commands.autocomplete.SuggestionProvider;
+import revxrsal.commands.command.CommandActor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import static revxrsal.commands.util.Preconditions.notNull;
+
+/**
+ * An index of the online players of a platform, which is maintained by
+ * join and quit listeners rather than being recomputed from the platform's
+ * player list on every completion or selector.
+ * <p>
+ * Players are kept sorted by their lower-case name, so that completing
+ * a prefix only visits matching players, and indexed by their lower-case
+ * name for constant-time lookups. Reads never lock, and see an immutable
+ * snapshot of the players. Updates are synchronized and copy the snapshot,
+ * which is fine as players join and leave far less often than they
+ * tab-complete.
+ *
+ * @param <P> The player type
+ */
+public final class OnlinePlayerIndex<P> {
+
+    private final Function<P, String> nameOf;
+    private final Map<String, P> byName = new ConcurrentHashMap<>();
+    private volatile Snapshot<P> snapshot = new Snapshot<>(new Object[0], new String[0]);
+    private volatile BiPredicate<CommandActor, P> visibility = (actor, player) -> true;
+
+    /**
+     * Creates a new, empty {@link OnlinePlayerIndex}
+     *
+     * @param nameOf The function that returns the name of a player
+     */
+    public OnlinePlayerIndex(@NotNull Function<P, String> nameOf) {
+        this.nameOf = notNull(nameOf, "name function");
+    }
+
+    /**
+     * Sets the filter that tests whether an actor can see a player, which
+     * is used by {@link #suggest(String, CommandActor)}. This allows vanished
+     * players to be hidden from completions.
+     * <p>
+     * By default, every player is visible.
+     *
+     * @param visibility The visibility filter
+     */
+    public void setVisibility(@NotNull BiPredicate<CommandActor, P> visibility) {
+        this.visibility = notNull(visibility, "visibility filter");
+    }
+
+    /**
+     * Adds the given player. This replaces any player with the same
+     * name.
+     *
+     * @param player Player to add
+     */
+    public synchronized void add(@NotNull P player) {
+        notNull(player, "player");
+        String name = lowerName(player);
+        P previous = byName.put(name, player);
+        Snapshot<P> current = snapshot;
+        if (previous != null)
+            current = current.without(previous, name);
+        snapshot = current.with(player, name);
+    }
+
+    /**
+     * Removes the given player
+     *
+     * @param player Player to remove
+     */
+    public synchronized void remove(@NotNull P player) {
+        notNull(player, "player");
+        String name = lowerName(player);
+        if (byName.remove(name, player))
+            snapshot = snapshot.without(player, name);
+    }
+
+    /**
+     * Replaces the index content with the given players, unless they are
+     * already the indexed players.
+     *
+     * @param players The online players
+     */
+    public synchronized void sync(@NotNull Collection<? extends P> players) {
+        notNull(players, "players");
+        if (players.size() == byName.size()) {
+            boolean same = true;
+            for (P player : players) {
+                if (byName.get(lowerName(player)) != player) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same)
+                return;
+        }
+        byName.clear();
+        for (P player : players)
+            byName.put(lowerName(player), player);
+        List<P> sorted = new ArrayList<>(byName.values());
+        sorted.sort(Comparator.comparing(this::lowerName));
+        String[] names = new String[sorted.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = lowerName(sorted.get(i));
+        snapshot = new Snapshot<>(sorted.toArray(), names);
+    }
+
+    /**
+     * Returns the online player with the given name, ignoring case
+     *
+     * @param name The player name
+     * @return The player, or null if no such player is online
+     */
+    public @Nullable P get(@NotNull String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns an immutable snapshot of all online players, sorted by name
+     *
+     * @return The online players
+     */
+    public @NotNull @Unmodifiable List<P> all() {
+        return snapshot.view;
+    }
+
+    /**
+     * Returns a random online player
+     *
+     * @return A random player, or null if no players are online
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable P random() {
+        Object[] players = snapshot.players;
+        if (players.length == 0)
+            return null;
+        return (P) players[ThreadLocalRandom.current().nextInt(players.length)];
+    }
+
+    /**
+     * Returns the number of online players
+     *
+     * @return The number of players
+     */
+    public int size() {
+        return snapshot.players.length;
+    }
+
+    /**
+     * Returns the names of the players that start with the given prefix
+     * (ignoring case) and that the given actor can see, sorted by name.
+     *
+     * @param prefix The name prefix
+     * @param actor  The actor completing
+     * @return The player names
+     * @see #setVisibility(BiPredicate)
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<String> suggest(@NotNull String prefix, @NotNull CommandActor actor) {
+        Snapshot<P> snapshot = this.snapshot;
+        BiPredicate<CommandActor, P> visibility = this.visibility;
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        String[] names = snapshot.names;
+        int index = Arrays.binarySearch(names, lowerPrefix);
+        if (index < 0)
+            index = -(index + 1);
+        List<String> suggestions = new ArrayList<>();
+        for (; index < names.length && names[index].startsWith(lowerPrefix); index++) {
+            P player = (P) snapshot.players[index];
+            if (visibility.test(actor, player))
+                suggestions.add(nameOf.apply(player));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Returns a {@link SuggestionProvider} that suggests the names of the
+     * online players that start with the argument being completed.
+     *
+     * @return The suggestion provider
+     * @see #suggest(String, CommandActor)
+     */
+    public @NotNull SuggestionProvider suggestions() {
+        return (args, sender, command) -> suggest(args.isEmpty() ? "" : args.get(args.size() - 1), sender);
+    }
+
+    private String lowerName(P player) {
+        return nameOf.apply(player).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot<P> {
+
+        private final Object[] players;
+        private final String[] names;
+        private final List<P> view;
+
+        @SuppressWarnings("unchecked")
+        Snapshot(Object[] players, String[] names) {
+            this.players = players;
+            this.names = names;
+            this.view = (List<P>) java.util.Collections.unmodifiableList(Arrays.asList(players));
+        }
+
+        Snapshot<P> with(P player, String name) {
+            int index = Arrays.binarySearch(names, name);
+            if (index < 0)
+                index = -(index + 1);
+            return new Snapshot<>(insert(players, index, player), insert(names, index, name));
+        }
+
+        Snapshot<P> without(P player, String name) {
+            int index = Arrays.binarySearch(names, name);
+            if (index < 0 || players[index] != player)
+                return this;
+            return new Snapshot<>(delete(players, index), delete(names, index));
+        }
+
+        private static <T> T[] insert(T[] array, int index, T value) {
+            T[] result = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            result[index] = value;
+            return result;
+        }
+
+        private static <T> T[] delete(T[] array, int index) {
+            T[] result = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -30,8 +30,11 @@ import revxrsal.commands.annotation.Named;
 import revxrsal.commands.annotation.Switch;
 
 import java.lang.reflect.Parameter;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -132,7 +135,25 @@ public final class Strings {
         return new String(array);
     }
 
+    /**
+     * Joins the given lines into a single message, mapping each line with the
+     * given function. The formatting is reset at the start of every line, so
+     * that it looks the same as if the lines were sent separately.
+     *
+     * @param lines  Lines to join
+     * @param mapper Function to map lines with, such as one that colorizes them
+     * @return The joined message
+     */
+    public static String joinLines(@NotNull Collection<String> lines, @NotNull UnaryOperator<String> mapper) {
+        StringJoiner joiner = new StringJoiner("\n§r");
+        for (String line : lines)
+            joiner.add(mapper.apply(line));
+        return joiner.toString();
+    }
+
     public static String colorize(@NotNull String text) {
+        if (text.indexOf('&') == -1)
+            return text;
         char[] b = text.toCharArray();
         for (int i = 0; i < b.length - 1; i++) {
             if (b[i] == '&' && "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx".indexOf(b[i + 1]) > -1) {
@@ -0,0 +1,187 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static revxrsal.commands.util.Preconditions.coerceIn;
+import static revxrsal.commands.util.Preconditions.notNull;
+
+/**
+ * An ordered list of factories, in which factories that only apply to specific,
+ * exact types are indexed by these types.
+ * <p>
+ * Looking up a type only consults the factories that are indexed for that type
+ * and the generic (non-indexed) factories, while still respecting the order
+ * in which all factories were registered. This keeps lookups independent of
+ * how many type-specific factories are registered.
+ * <p>
+ * Lookups are safe to be done from multiple threads, however registering
+ * must be done from a single thread.
+ *
+ * @param <T> The factory type
+ */
+public final class TypeIndexedList<T> {
+
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private volatile Index<T> index = new Index<>(entries);
+
+    /**
+     * Adds the given generic factory to the end of this list. Generic
+     * factories are consulted for all types.
+     *
+     * @param factory Factory to add
+     */
+    public void add(@NotNull T factory) {
+        add(entries.size(), factory);
+    }
+
+    /**
+     * Adds the given generic factory at the given position. Generic
+     * factories are consulted for all types.
+     *
+     * @param priority The position to add at. This will be coerced to
+     *                 fit in the list.
+     * @param factory  Factory to add
+     */
+    public void add(int priority, @NotNull T factory) {
+        addIndexed(priority, factory);
+    }
+
+    /**
+     * Adds the given factory to the end of this list. The factory will
+     * only be consulted for the given types.
+     *
+     * @param factory Factory to add
+     * @param types   The exact types the factory applies to
+     */
+    public void addIndexed(@NotNull T factory, @NotNull Class<?>... types) {
+        addIndexed(entries.size(), factory, types);
+    }
+
+    /**
+     * Adds the given factory at the given position. The factory will
+     * only be consulted for the given types. If no types are specified,
+     * the factory is considered generic.
+     *
+     * @param priority The position to add at. This will be coerced to
+     *                 fit in the list.
+     * @param factory  Factory to add
+     * @param types    The exact types the factory applies to
+     */
+    public void addIndexed(int priority, @NotNull T factory, @NotNull Class<?>... types) {
+        notNull(factory, "factory");
+        entries.add(coerceIn(priority, 0, entries.size()), new Entry<>(factory, types));
+        index = new Index<>(entries);
+    }
+
+    /**
+     * Returns the number of factories in this list
+     *
+     * @return The size of the list
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Applies the given function to all factories that may apply to the
+     * given type, in their registration order, and returns the first
+     * non-null result.
+     *
+     * @param type     The type to look up
+     * @param function The function to apply
+     * @param <R>      The result type
+     * @return The first non-null result, or {@code null} if none was found.
+     */
+    public <R> @Nullable R find(@NotNull Class<?> type, @NotNull Function<? super T, R> function) {
+        Index<T> index = this.index;
+        Slot<T>[] typed = index.indexed.getOrDefault(type, index.empty);
+        Slot<T>[] generic = index.generic;
+        int t = 0, g = 0;
+        while (t < typed.length || g < generic.length) {
+            Slot<T> next;
+            if (g == generic.length || (t < typed.length && typed[t].ordinal < generic[g].ordinal))
+                next = typed[t++];
+            else
+                next = generic[g++];
+            R result = function.apply(next.factory);
+            if (result != null)
+                return result;
+        }
+        return null;
+    }
+
+    private static final class Entry<T> {
+
+        private final T factory;
+        private final Class<?>[] types;
+
+        public Entry(T factory, Class<?>[] types) {
+            this.factory = factory;
+            this.types = types;
+        }
+    }
+
+    private static final class Slot<T> {
+
+        private final int ordinal;
+        private final T factory;
+
+        public Slot(int ordinal, T factory) {
+            this.ordinal = ordinal;
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the list, rebuilt on every registration.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class Index<T> {
+
+        private final Slot<T>[] empty = (Slot<T>[]) new Slot<?>[0];
+        private final Map<Class<?>, Slot<T>[]> indexed = new HashMap<>();
+        private final Slot<T>[] generic;
+
+        public Index(List<Entry<T>> entries) {
+            Map<Class<?>, List<Slot<T>>> indexed = new HashMap<>();
+            List<Slot<T>> generic = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry<T> entry = entries.get(i);
+                Slot<T> slot = new Slot<>(i, entry.factory);
+                if (entry.types.length == 0)
+                    generic.add(slot);
+                for (Class<?> type : entry.types)
+                    indexed.computeIfAbsent(type, t -> new ArrayList<>()).add(slot);
+            }
+            indexed.forEach((type, slots) -> this.indexed.put(type, slots.toArray(empty)));
+            this.generic = generic.toArray(empty);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.SecretCommand;
+import revxrsal.commands.command.CommandActor;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private TestCommandHandler handler;
+    private TestActor actor;
+
+    @BeforeEach void setUp() {
+        handler = new TestCommandHandler();
+        actor = new TestActor("actor", handler);
+    }
+
+    @Test void distanceCountsEdits() {
+        assertEquals(0, NameIndex.distance("warp", "warp"));
+        assertEquals(1, NameIndex.distance("warp", "wrap"));
+        assertEquals(1, NameIndex.distance("help", "hel"));
+        assertEquals(1, NameIndex.distance("help", "hepl"));
+        assertEquals(2, NameIndex.distance("help", "hlpe"));
+        assertEquals(4, NameIndex.distance("", "home"));
+        assertEquals(3, NameIndex.distance("kitten", "sitting"));
+    }
+
+    @Test void distanceEditsSwappedCharactersAgain() {
+        // the optimal string alignment distance is 3 here, which is more than
+        // the distances through "ac" combined
+        assertEquals(1, NameIndex.distance("ca", "ac"));
+        assertEquals(1, NameIndex.distance("ac", "abc"));
+        assertEquals(2, NameIndex.distance("ca", "abc"));
+    }
+
+    @Test void distanceIsAMetric() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String a = randomName(random), b = randomName(random), c = randomName(random);
+            int ab = NameIndex.distance(a, b);
+            assertEquals(ab, NameIndex.distance(b, a), () -> "not symmetric: " + a + ", " + b);
+            assertEquals(a.equals(b), ab == 0, () -> "zero distance: " + a + ", " + b);
+            assertTrue(NameIndex.distance(a, c) <= ab + NameIndex.distance(b, c),
+                    () -> "triangle inequality: " + a + ", " + b + ", " + c);
+        }
+    }
+
+    private static String randomName(Random random) {
+        char[] chars = new char[random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = (char) ('a' + random.nextInt(3));
+        return new String(chars);
+    }
+
+    @Test void suggestsTheClosestVisibleRoot() {
+        handler.register(new Commands());
+        NameIndex names = handler.registry.rootNames;
+        assertEquals("help", names.suggest("hlep", actor));
+        assertEquals("hello", names.suggest("HELO", actor));
+        assertEquals("warp", names.suggest("wrap", actor));
+        assertNull(names.suggest("hidden", actor));
+        assertNull(names.suggest("hiden", actor));
+        assertNull(names.suggest("xyz", actor));
+        // subcommands are not roots
+        assertNull(names.suggest("lsit", actor));
+    }
+
+    @Test void suggestsSubcommandsOfACategory() {
+        handler.register(new Commands());
+        Registry registry = handler.registry;
+        NameIndex names = registry.node(registry.categories.get(CommandPath.get("warp"))).names;
+        assertEquals("list", names.suggest("lsit", actor));
+        assertNull(names.suggest("wrap", actor));
+    }
+
+    @Test void keepsEveryTargetOfTheSameName() {
+        // "warp" is both a secret command and a category with a visible subcommand
+        handler.register(new Commands());
+        Registry registry = handler.registry;
+        assertTrue(registry.executables.get(CommandPath.get("warp")).isSecret());
+        assertNotNull(registry.categories.get(CommandPath.get("warp")));
+        assertEquals("warp", registry.rootNames.suggest("wrap", actor));
+    }
+
+    @Test void reusesTheRootIndexWhileRootsAreUnchanged() {
+        handler.register(new Commands());
+        NameIndex names = handler.registry.rootNames;
+        handler.register(new MoreWarps());
+        assertSame(names, handler.registry.rootNames);
+        handler.register(new Spawn());
+        assertNotSame(names, handler.registry.rootNames);
+        assertEquals("spawn", handler.registry.rootNames.suggest("spwan", actor));
+    }
+
+    static final class Commands {
+
+        @Command("help") void help(CommandActor actor) {}
+
+        @Command("hello") void hello(CommandActor actor) {}
+
+        @Command("hidden") @SecretCommand void hidden(CommandActor actor) {}
+
+        @Command("warp") @SecretCommand void warp(CommandActor actor) {}
+
+        @Command("warp list") void list(CommandActor actor) {}
+    }
+
+    static final class MoreWarps {
+
+        @Command("warp set") void set(CommandActor actor) {}
+    }
+
+    static final class Spawn {
+
+        @Command("spawn") void spawn(CommandActor actor) {}
+    }
+}
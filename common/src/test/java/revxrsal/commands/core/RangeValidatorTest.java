@@ -0,0 +1,133 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.Range;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.CommandParameter;
+import revxrsal.commands.exception.NumberNotInRangeException;
+import revxrsal.commands.process.ParameterValidator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeValidatorTest {
+
+    private TestCommandHandler handler;
+    private TestActor actor;
+
+    @BeforeEach void setUp() {
+        handler = new TestCommandHandler();
+        handler.register(new Commands());
+        actor = new TestActor("actor", handler);
+    }
+
+    private CommandParameter parameter(String command) {
+        return handler.getCommand(CommandPath.get(command)).getParameters().get(1);
+    }
+
+    private boolean accepts(String command, Number value) {
+        CommandParameter parameter = parameter(command);
+        ParameterValidator<Number> validator = RangeValidator.INSTANCE.forParameter(parameter);
+        assertNotNull(validator);
+        boolean accepted = accepts(validator, parameter, value);
+        assertEquals(accepts(RangeValidator.INSTANCE, parameter, value), accepted,
+                () -> "the compiled validator disagrees on " + value + " for " + command);
+        return accepted;
+    }
+
+    private boolean accepts(ParameterValidator<Number> validator, CommandParameter parameter, Number value) {
+        try {
+            validator.validate(value, parameter, actor);
+            return true;
+        } catch (NumberNotInRangeException e) {
+            assertSame(parameter, e.getParameter());
+            assertEquals(value, e.getInput());
+            return false;
+        }
+    }
+
+    @Test void parametersWithoutRangeAreNotValidated() {
+        assertNull(RangeValidator.INSTANCE.forParameter(parameter("plain")));
+    }
+
+    @Test void integralBoundsAreInclusive() {
+        assertFalse(accepts("int", 0));
+        assertTrue(accepts("int", 1));
+        assertTrue(accepts("int", 10));
+        assertFalse(accepts("int", 11));
+        assertFalse(accepts("int", Integer.MIN_VALUE));
+    }
+
+    @Test void integralBoundsAreRoundedInwards() {
+        assertFalse(accepts("fractionalInt", 1));
+        assertTrue(accepts("fractionalInt", 2));
+        assertTrue(accepts("fractionalInt", 10));
+        assertFalse(accepts("fractionalInt", 11));
+        assertFalse(accepts("negative", 0));
+        assertTrue(accepts("negative", -1));
+        assertTrue(accepts("negative", -5));
+        assertFalse(accepts("negative", -6));
+    }
+
+    @Test void longBoundsDoNotOverflow() {
+        assertTrue(accepts("long", Long.MAX_VALUE));
+        assertTrue(accepts("long", 1L));
+        assertFalse(accepts("long", 0L));
+        assertFalse(accepts("long", Long.MIN_VALUE));
+    }
+
+    @Test void decimalBoundsAreExact() {
+        assertFalse(accepts("double", 1.49));
+        assertTrue(accepts("double", 1.5));
+        assertTrue(accepts("double", 10.5));
+        assertFalse(accepts("double", 10.51));
+        assertFalse(accepts("double", Double.POSITIVE_INFINITY));
+    }
+
+    @Test void boxedParametersUseIntegralBounds() {
+        assertFalse(accepts("boxed", 1));
+        assertTrue(accepts("boxed", 2));
+        assertTrue(accepts("boxed", null));
+    }
+
+    static final class Commands {
+
+        @Command("plain") void plain(CommandActor actor, int value) {}
+
+        @Command("int") void integer(CommandActor actor, @Range(max = 10) int value) {}
+
+        @Command("fractionalInt") void fractionalInt(CommandActor actor, @Range(min = 1.5, max = 10.5) int value) {}
+
+        @Command("negative") void negative(CommandActor actor, @Range(min = -5.5, max = -0.5) short value) {}
+
+        @Command("long") void longValue(CommandActor actor, @Range long value) {}
+
+        @Command("double") void doubleValue(CommandActor actor, @Range(min = 1.5, max = 10.5) double value) {}
+
+        @Command("boxed") void boxed(CommandActor actor, @Range(min = 1.5, max = 10.5) Integer value) {}
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.RateLimit;
+import revxrsal.commands.annotation.RateLimit.Scope;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.exception.RateLimitedException;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private TestCommandHandler handler;
+    private TestActor alice, bob;
+
+    @BeforeEach void setUp() {
+        handler = new TestCommandHandler();
+        alice = new TestActor("alice", handler);
+        bob = new TestActor("bob", handler);
+    }
+
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS, burst = 5)
+    void burst() {}
+
+    @RateLimit(permits = 1, per = 300, unit = TimeUnit.MILLISECONDS)
+    void refill() {}
+
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS, scope = Scope.COMMAND)
+    void command() {}
+
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS, burst = 2, scope = Scope.GLOBAL)
+    void globalSlow() {}
+
+    @RateLimit(permits = 10, per = 1, unit = TimeUnit.MINUTES, scope = Scope.GLOBAL)
+    void globalFast() {}
+
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS, completions = true)
+    void completions() {}
+
+    @RateLimit(permits = 0)
+    void noPermits() {}
+
+    @Command("limited")
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS)
+    void limited(CommandActor actor) {}
+
+    private RateLimiter limiter(String name, Class<?>... parameters) throws NoSuchMethodException {
+        Method method = getClass().getDeclaredMethod(name, parameters);
+        return RateLimiter.forExecutions(handler, method, method.getAnnotation(RateLimit.class));
+    }
+
+    @Test void burstToleranceAllowsBurstPermitsAtOnce() throws Exception {
+        RateLimiter limiter = limiter("burst");
+        for (int i = 0; i < 5; i++)
+            assertTrue(limiter.tryAcquire(alice), "permit " + i + " of the burst was rejected");
+        assertFalse(limiter.tryAcquire(alice));
+    }
+
+    @Test void actorsHaveTheirOwnBuckets() throws Exception {
+        RateLimiter limiter = limiter("refill");
+        assertTrue(limiter.tryAcquire(alice));
+        assertFalse(limiter.tryAcquire(alice));
+        assertTrue(limiter.tryAcquire(bob));
+    }
+
+    @Test void permitsAreRefilledAfterTheInterval() throws Exception {
+        RateLimiter limiter = limiter("refill");
+        assertTrue(limiter.tryAcquire(alice));
+        assertFalse(limiter.tryAcquire(alice));
+        Thread.sleep(350);
+        assertTrue(limiter.tryAcquire(alice));
+        assertFalse(limiter.tryAcquire(alice));
+    }
+
+    @Test void commandScopeIsSharedBetweenActors() throws Exception {
+        RateLimiter limiter = limiter("command");
+        assertTrue(limiter.tryAcquire(alice));
+        assertFalse(limiter.tryAcquire(bob));
+    }
+
+    @Test void globalBucketIsSharedBetweenCommands() throws Exception {
+        RateLimiter slow = limiter("globalSlow");
+        RateLimiter fast = limiter("globalFast");
+        assertTrue(slow.tryAcquire(alice));
+        assertTrue(slow.tryAcquire(bob));
+        // the bucket is now two hours ahead, far beyond the minute
+        // of tolerance that the fast command allows
+        assertFalse(fast.tryAcquire(alice));
+        assertFalse(slow.tryAcquire(alice));
+    }
+
+    @Test void globalCommandsUseTheirOwnLimits() throws Exception {
+        RateLimiter slow = limiter("globalSlow");
+        RateLimiter fast = limiter("globalFast");
+        // a full burst of the fast command only puts the bucket a minute
+        // ahead, which is within the hour of tolerance of the slow command
+        for (int i = 0; i < 10; i++)
+            assertTrue(fast.tryAcquire(alice), "permit " + i + " of the burst was rejected");
+        assertFalse(fast.tryAcquire(bob));
+        assertTrue(slow.tryAcquire(bob));
+    }
+
+    @Test void globalBucketBelongsToTheHandler() throws Exception {
+        assertTrue(limiter("globalSlow").tryAcquire(alice));
+        assertTrue(limiter("globalSlow").tryAcquire(alice));
+        assertFalse(limiter("globalSlow").tryAcquire(alice));
+        handler = new TestCommandHandler();
+        assertTrue(limiter("globalSlow").tryAcquire(alice));
+    }
+
+    @Test void completionsAreOnlyLimitedWhenRequested() throws Exception {
+        Method refill = getClass().getDeclaredMethod("refill");
+        assertNull(RateLimiter.forCompletions(handler, refill, refill.getAnnotation(RateLimit.class)));
+        Method completions = getClass().getDeclaredMethod("completions");
+        RateLimiter limiter = RateLimiter.forCompletions(handler, completions, completions.getAnnotation(RateLimit.class));
+        assertNotNull(limiter);
+        assertTrue(limiter.tryAcquire(alice));
+        assertFalse(limiter.tryAcquire(alice));
+        // completions do not take from the execution bucket
+        assertTrue(limiter("completions").tryAcquire(alice));
+    }
+
+    @Test void acquireReportsTheTimeLeft() throws Exception {
+        handler.register(this);
+        ExecutableCommand command = handler.getCommand(CommandPath.get("limited"));
+        RateLimiter limiter = limiter("limited", CommandActor.class);
+        limiter.acquire(alice, command);
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> limiter.acquire(alice, command));
+        assertSame(command, e.getCommand());
+        long left = e.getTimeLeft(TimeUnit.MINUTES);
+        assertTrue(left > 55 && left <= 60, "unexpected time left: " + left);
+    }
+
+    @Test void invalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> limiter("noPermits"));
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.DefaultFor;
+import revxrsal.commands.command.CommandActor;
+import revxrsal.commands.command.ExecutableCommand;
+import revxrsal.commands.exception.CommandErrorException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistryTest {
+
+    private TestCommandHandler handler;
+    private TestActor actor;
+
+    @BeforeEach void setUp() {
+        handler = new TestCommandHandler();
+        actor = new TestActor("actor", handler);
+    }
+
+    private static CommandPath path(String path) {
+        return CommandPath.get(path.split(" "));
+    }
+
+    @Test void registeringPublishesANewSnapshot() {
+        handler.register(new Warps());
+        Registry before = handler.registry;
+        Map<CommandPath, CommandExecutable> executables = new HashMap<>(before.executables);
+        Registry.Node warp = before.node(before.categories.get(path("warp")));
+        Map<CommandPath, ExecutableCommand> subcommands = new HashMap<>(warp.commands);
+
+        handler.register(new Spawn());
+        handler.unregister("warp list");
+
+        assertNotSame(before, handler.registry);
+        assertEquals(executables, before.executables);
+        assertSame(warp, before.node(before.categories.get(path("warp"))));
+        assertEquals(subcommands, warp.commands);
+        assertNotNull(handler.registry.executables.get(path("spawn")));
+        assertNull(handler.registry.executables.get(path("warp list")));
+    }
+
+    @Test void snapshotsCannotBeModified() {
+        handler.register(new Warps());
+        Registry registry = handler.registry;
+        Registry.Node warp = registry.node(registry.categories.get(path("warp")));
+        assertThrows(UnsupportedOperationException.class, () -> registry.executables.clear());
+        assertThrows(UnsupportedOperationException.class, () -> registry.categories.clear());
+        assertThrows(UnsupportedOperationException.class, () -> warp.commands.clear());
+        assertThrows(UnsupportedOperationException.class, () -> warp.categories.put(path("warp x"), warp.parent));
+        assertThrows(UnsupportedOperationException.class, () -> handler.getCommands().clear());
+    }
+
+    @Test void publishedCommandsAndUnchangedNodesAreReused() {
+        handler.register(new Warps());
+        Registry before = handler.registry;
+        handler.register(new Spawn());
+        Registry after = handler.registry;
+        for (Map.Entry<CommandPath, CommandExecutable> entry : before.executables.entrySet())
+            assertSame(entry.getValue(), after.executables.get(entry.getKey()));
+        BaseCommandCategory warp = before.categories.get(path("warp"));
+        assertSame(warp, after.categories.get(path("warp")));
+        assertSame(before.node(warp), after.node(warp));
+    }
+
+    @Test void changedNodesAreReplaced() {
+        handler.register(new Warps());
+        Registry before = handler.registry;
+        BaseCommandCategory warp = before.categories.get(path("warp"));
+        handler.register(new WarpSet());
+        Registry.Node node = handler.registry.node(warp);
+        assertNotSame(before.node(warp), node);
+        assertTrue(node.commands.containsKey(path("warp set")));
+        assertFalse(before.node(warp).commands.containsKey(path("warp set")));
+    }
+
+    @Test void removedCommandsAndCategoriesAreNotContained() {
+        handler.register(new Warps());
+        BaseCommandCategory warp = handler.registry.categories.get(path("warp"));
+        ExecutableCommand list = handler.getCommand(path("warp list"));
+        assertTrue(handler.registry.contains(list));
+        handler.unregister("warp");
+        assertSame(Registry.Node.EMPTY, handler.registry.node(warp));
+        assertFalse(handler.registry.contains(list));
+        assertTrue(handler.registry.contains(handler.getCommand(path("help"))));
+    }
+
+    @Test void laterConditionsApplyToPublishedCommands() {
+        Warps warps = new Warps();
+        handler.register(warps);
+        Registry before = handler.registry;
+        handler.dispatch(actor, "warp list");
+        assertEquals(1, warps.listed.get());
+
+        handler.registerCondition((actor, command, arguments) -> {
+            throw new CommandErrorException("denied");
+        });
+        // conditions are the only part of a published command that changes
+        assertSame(before, handler.registry);
+        handler.dispatch(actor, "warp list");
+        assertEquals(1, warps.listed.get());
+        assertTrue(actor.errors.contains("denied"));
+
+        // and commands published afterwards have it too
+        handler.register(new Spawn());
+        actor.errors.clear();
+        handler.dispatch(actor, "spawn");
+        assertTrue(actor.errors.contains("denied"));
+    }
+
+    @Test void dispatchingWhileRegisteringSeesConsistentSnapshots() throws Exception {
+        Warps warps = new Warps();
+        handler.register(warps);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    Spawn spawn = new Spawn();
+                    handler.register(spawn);
+                    handler.unregister("spawn");
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 5_000; i++) {
+                handler.dispatch(actor, "warp list");
+                assertTrue(handler.getRootPaths().contains(path("warp")));
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertNull(failure.get());
+        assertEquals(5_000, warps.listed.get());
+        assertTrue(actor.errors.isEmpty(), () -> "errors: " + actor.errors);
+    }
+
+    private static Set<CommandPath> roots(String... roots) {
+        Set<CommandPath> paths = new HashSet<>();
+        for (String root : roots)
+            paths.add(path(root));
+        return paths;
+    }
+
+    @Test void registeringOnlyRegistersNewRoots() {
+        handler.register(new Warps());
+        handler.register(new Spawn());
+        assertEquals(Arrays.asList(roots("help", "warp"), roots("spawn")), handler.registeredRoots);
+        assertEquals(emptyList(), handler.unregisteredRoots);
+    }
+
+    @Test void changedRootsAreTheRootsOfChangedPaths() {
+        handler.register(new Warps());
+        Registry before = handler.registry;
+        handler.register(new WarpSet(), new Spawn());
+        assertEquals(roots("warp", "spawn"), Registry.changedRoots(before, handler.registry));
+        assertEquals(roots("warp", "spawn"), Registry.changedRoots(handler.registry, before));
+        assertEquals(roots(), Registry.changedRoots(before, before));
+    }
+
+    @Test void changedRootsIncludeReplacedDefaultActions() {
+        WarpDefault warpDefault = new WarpDefault();
+        handler.register(new Warps(), warpDefault);
+        Registry before = handler.registry;
+        handler.reload(warpDefault, new WarpDefault()).join();
+        assertEquals(before.executables, handler.registry.executables);
+        assertEquals(roots("warp"), Registry.changedRoots(before, handler.registry));
+    }
+
+    @Test void unregisteringACategoryRemovesItsSubtree() {
+        handler.register(new Warps(), new WarpSet(), new WarpAdmin());
+        handler.registeredRoots.clear();
+        assertTrue(handler.unregister("warp"));
+        Registry registry = handler.registry;
+        assertEquals(roots("help"), registry.executables.keySet());
+        assertTrue(registry.categories.isEmpty());
+        assertEquals(singletonList(path("warp")), handler.unregisteredRoots);
+        assertEquals(emptyList(), handler.registeredRoots);
+        assertFalse(handler.unregister("warp"));
+    }
+
+    @Test void unregisteringASubcommandKeepsItsRoot() {
+        handler.register(new Warps());
+        handler.registeredRoots.clear();
+        assertTrue(handler.unregister("warp list"));
+        assertNotNull(handler.registry.categories.get(path("warp")));
+        assertNotNull(handler.registry.executables.get(path("warp delete")));
+        assertEquals(emptyList(), handler.unregisteredRoots);
+        assertEquals(singletonList(roots("warp")), handler.registeredRoots);
+    }
+
+    @Test void unregisteringTheLastSubcommandRemovesEmptyCategories() {
+        handler.register(new WarpAdmin(), new Spawn());
+        assertTrue(handler.unregister("warp admin reset"));
+        assertNull(handler.registry.categories.get(path("warp admin")));
+        assertNull(handler.registry.categories.get(path("warp")));
+        assertEquals(singletonList(path("warp")), handler.unregisteredRoots);
+        assertNotNull(handler.registry.executables.get(path("spawn")));
+    }
+
+    @Test void unregisteringAllCommandsUnregistersEveryRoot() {
+        handler.register(new Warps(), new Spawn());
+        handler.unregisterAllCommands();
+        assertTrue(handler.registry.executables.isEmpty());
+        assertTrue(handler.registry.categories.isEmpty());
+        assertEquals(roots("help", "warp", "spawn"), new HashSet<>(handler.unregisteredRoots));
+    }
+
+    @Test void reloadSwapsTheCommandsOfAContainer() {
+        Warps warps = new Warps();
+        Spawn spawn = new Spawn();
+        handler.register(warps, spawn);
+        Registry before = handler.registry;
+        handler.registeredRoots.clear();
+
+        handler.reload(spawn, new SpawnSet()).join();
+
+        Registry after = handler.registry;
+        assertNull(after.executables.get(path("spawn")));
+        assertNotNull(after.executables.get(path("spawn set")));
+        assertSame(before.executables.get(path("warp list")), after.executables.get(path("warp list")));
+        assertEquals(singletonList(roots("spawn")), handler.registeredRoots);
+        assertEquals(emptyList(), handler.unregisteredRoots);
+    }
+
+    @Test void replaceSwapsTheSubtreeOfAPath() {
+        handler.register(new Warps(), new WarpAdmin());
+        handler.registeredRoots.clear();
+
+        handler.replace(path("warp"), new WarpSet()).join();
+
+        Registry after = handler.registry;
+        assertNull(after.executables.get(path("warp list")));
+        assertNull(after.categories.get(path("warp admin")));
+        assertNotNull(after.executables.get(path("warp set")));
+        assertNotNull(after.executables.get(path("help")));
+        assertEquals(singletonList(roots("warp")), handler.registeredRoots);
+        assertEquals(emptyList(), handler.unregisteredRoots);
+    }
+
+    @Test void reloadParsesOnTheAsyncExecutorAndSwapsOnThePlatformExecutor() {
+        Spawn spawn = new Spawn();
+        handler.register(spawn);
+        AtomicInteger parsed = new AtomicInteger(), swapped = new AtomicInteger();
+        handler.setAsyncExecutor(task -> {
+            parsed.incrementAndGet();
+            task.run();
+        });
+        handler.setPlatformExecutor(task -> {
+            swapped.incrementAndGet();
+            task.run();
+        });
+        handler.reload(spawn, new SpawnSet()).join();
+        assertEquals(1, parsed.get());
+        assertEquals(1, swapped.get());
+    }
+
+    @Test void failedReloadKeepsTheOldCommands() {
+        Spawn spawn = new Spawn();
+        handler.register(new Warps(), spawn);
+        Registry before = handler.registry;
+        handler.registeredRoots.clear();
+
+        // "help" is still registered by another container
+        CompletionException e = assertThrows(CompletionException.class, () -> handler.reload(spawn, new Help()).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        assertSame(before, handler.registry);
+        assertEquals(emptyList(), handler.registeredRoots);
+        assertEquals(emptyList(), handler.unregisteredRoots);
+    }
+
+    static final class Warps {
+
+        final AtomicInteger listed = new AtomicInteger();
+
+        @Command("help") void help(CommandActor actor) {}
+
+        @Command("warp list") void list(CommandActor actor) {
+            listed.incrementAndGet();
+        }
+
+        @Command("warp delete") void delete(CommandActor actor) {}
+    }
+
+    static final class WarpSet {
+
+        @Command("warp set") void set(CommandActor actor) {}
+    }
+
+    static final class Spawn {
+
+        @Command("spawn") void spawn(CommandActor actor) {}
+    }
+
+    static final class WarpAdmin {
+
+        @Command("warp admin reset") void reset(CommandActor actor) {}
+    }
+
+    static final class WarpDefault {
+
+        @DefaultFor("warp") void warp(CommandActor actor) {}
+    }
+
+    static final class SpawnSet {
+
+        @Command("spawn set") void set(CommandActor actor) {}
+    }
+
+    static final class Help {
+
+        @Command("help") void help(CommandActor actor) {}
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of lamp, licensed under the MIT License.
+ *
+ *  Copysecond (c) Revxrsal <reflxction.github@gmail.com>
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the seconds
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copysecond notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package revxrsal.commands.core;
+
+import org.jetbrains.annotations.NotNull;
+import revxrsal.commands.CommandHandler;
+import revxrsal.commands.command.CommandActor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A {@link CommandActor} that records what it is sent
+ */
+final class TestActor implements CommandActor {
+
+    private final String name;
+    private final UUID uuid = UUID.randomUUID();
+    private final CommandHandler handler;
+
+    final List<String> replies = new ArrayList<>();
+    final List<String> errors = new ArrayList<>();
+
+    TestActor(@NotNull String name, @NotNull CommandHandler handler) {
+        this.name = name;
+        this.handler = handler;
+    }
+
+    @Override public @NotNull String getName() {
+        return name;
+    }
+
+    @Override public @NotNull UUID getUniqueId() {
+        return uuid;
+    }
+
+    @Override public void reply(@NotNull String message) {
+        replies.add(message);
+    }
+
+    @Override public void error(@NotNull String message) {
+        errors.add(message);
+    }
+
+    @Override public CommandHandler getCommandHandler() {
+        return handler;
+    }
+}
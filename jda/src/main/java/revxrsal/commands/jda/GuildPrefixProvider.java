@@ -0,0 +1,40 @@
+package revxrsal.commands.jda;
+
+import java.util.Collection;
+
+import net.dv8tion.jda.api.entities.Guild;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Provides the prefixes that message commands are recognized with in a specific guild.
+ * <p>
+ * The prefixes of a guild either replace or fall back to the handler's prefixes:
+ * <ul>
+ *     <li>If the provider returns any prefixes, only they are recognized in the guild,
+ *     and the handler's prefixes are not.</li>
+ *     <li>If the provider returns no prefixes, the handler's prefixes are used.</li>
+ * </ul>
+ * In both cases, the mention prefix is recognized as well if it is
+ * {@link JDACommandHandler#enableMentionPrefix() enabled}.
+ * <p>
+ * Prefixes are requested once for every guild, and are cached until
+ * {@link JDACommandHandler#invalidateGuildPrefixes(long)} is called for that guild,
+ * or until they expire if an expiry was given to
+ * {@link JDACommandHandler#setGuildPrefixProvider(GuildPrefixProvider, long, java.util.concurrent.TimeUnit)}.
+ *
+ * @see JDACommandHandler#setGuildPrefixProvider(GuildPrefixProvider)
+ */
+@FunctionalInterface
+public interface GuildPrefixProvider {
+
+    /**
+     * Returns the prefixes of the given guild. If no prefixes are returned,
+     * the handler's prefixes are used instead.
+     * <p>
+     * This may be invoked concurrently for the same guild.
+     *
+     * @param guild The guild
+     * @return The prefixes of the guild
+     */
+    @NotNull Collection<String> getPrefixes(@NotNull Guild guild);
+}
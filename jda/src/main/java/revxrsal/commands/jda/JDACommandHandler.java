@@ -1,6 +1,7 @@
 package revxrsal.commands.jda;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import net.dv8tion.jda.api.JDA;
 import org.jetbrains.annotations.NotNull;
@@ -57,6 +58,65 @@ public interface JDACommandHandler extends CommandHandler {
      */
     @NotNull @UnmodifiableView List<SlashCommandMapper> getSlashCommandMappers();
 
+    /**
+     * Adds a prefix that message commands are recognized with, in addition to
+     * the prefix this handler was created with.
+     *
+     * @param prefix Prefix to add
+     * @return This command handler
+     */
+    @NotNull JDACommandHandler addPrefix(@NotNull String prefix);
+
+    /**
+     * Allows message commands to be invoked by mentioning the bot, followed by
+     * a space and the command.
+     *
+     * @return This command handler
+     */
+    @NotNull JDACommandHandler enableMentionPrefix();
+
+    /**
+     * Sets the provider of guild-specific prefixes. In guilds that have prefixes,
+     * they replace the prefixes of this handler. The mention prefix, if
+     * {@link #enableMentionPrefix() enabled}, applies in every guild.
+     * <p>
+     * The prefixes of every guild are cached for as long as the handler
+     * exists, and must be invalidated with {@link #invalidateGuildPrefixes(long)}
+     * when they change. Use {@link #setGuildPrefixProvider(GuildPrefixProvider, long, TimeUnit)}
+     * to have them expire instead.
+     *
+     * @param provider The prefix provider
+     * @return This command handler
+     * @see GuildPrefixProvider
+     */
+    @NotNull JDACommandHandler setGuildPrefixProvider(@NotNull GuildPrefixProvider provider);
+
+    /**
+     * Sets the provider of guild-specific prefixes, whose prefixes are
+     * requested again once they have been cached for the given duration.
+     * They can still be invalidated earlier with {@link #invalidateGuildPrefixes(long)}.
+     *
+     * @param provider    The prefix provider
+     * @param expireAfter How long the prefixes of a guild are cached for.
+     *                    Zero caches them until they are invalidated.
+     * @param unit        The time unit of {@code expireAfter}
+     * @return This command handler
+     * @see #setGuildPrefixProvider(GuildPrefixProvider)
+     */
+    @NotNull JDACommandHandler setGuildPrefixProvider(@NotNull GuildPrefixProvider provider, long expireAfter, @NotNull TimeUnit unit);
+
+    /**
+     * Invalidates the cached prefixes of the given guild, so that they are
+     * requested again from the {@link GuildPrefixProvider} on the next message.
+     * <p>
+     * Prefixes that are being requested while this is called are used for
+     * the message they were requested for, but are not cached.
+     *
+     * @param guildId The ID of the guild
+     * @return This command handler
+     */
+    @NotNull JDACommandHandler invalidateGuildPrefixes(long guildId);
+
     /**
      * Creates a new {@link JDACommandHandler} for the given JDA instance.
      * <p>
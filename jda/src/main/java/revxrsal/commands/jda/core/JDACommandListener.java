@@ -36,7 +36,7 @@ import revxrsal.commands.jda.core.actor.BaseJDASlashCommandActor;
 
 @AllArgsConstructor
 final class JDACommandListener implements EventListener {
-    private final String prefix;
+    private final PrefixResolver prefixes;
     private final JDACommandHandler handler;
 
     @Override
@@ -64,8 +64,8 @@ final class JDACommandListener implements EventListener {
             return;
         CommandParameter parameter = foundParameter.get();
         try {
-            Collection<String> suggestions = parameter.getSuggestionProvider()
-                    .getSuggestions(event.getOptions().stream().map(OptionMapping::getAsString).collect(Collectors.toList()), JDAActor.wrap(event, handler),
+            Collection<String> suggestions = handler.getAutoCompleter()
+                    .suggest(parameter, event.getOptions().stream().map(OptionMapping::getAsString).collect(Collectors.toList()), JDAActor.wrap(event, handler),
                             command);
             event.replyChoices(suggestions.stream().map(suggestion -> {
                 if (focusedOption.getType() == OptionType.NUMBER)
@@ -94,11 +94,10 @@ final class JDACommandListener implements EventListener {
         if (event.isWebhookMessage())
             return;
         String content = event.getMessage().getContentRaw();
-        if (!content.startsWith(prefix))
-            return;
-        content = content.substring(prefix.length());
-        if (content.isEmpty())
+        int start = prefixes.resolve(event, content);
+        if (start < 0 || start == content.length())
             return;
+        content = content.substring(start);
 
         JDAActor actor = new BaseJDAMessageActor(event, handler);
         try {
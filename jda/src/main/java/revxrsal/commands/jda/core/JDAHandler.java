@@ -3,6 +3,7 @@ package revxrsal.commands.jda.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -20,14 +21,17 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import revxrsal.commands.annotation.DefaultFor;
+import revxrsal.commands.annotation.RateLimit;
 import revxrsal.commands.annotation.Subcommand;
 import revxrsal.commands.core.BaseCommandHandler;
+import revxrsal.commands.jda.GuildPrefixProvider;
 import revxrsal.commands.jda.JDAActor;
 import revxrsal.commands.jda.JDACommandHandler;
 import revxrsal.commands.jda.JDAPermission;
 import revxrsal.commands.jda.SlashCommandMapper;
 import revxrsal.commands.jda.annotation.GuildOnly;
 import revxrsal.commands.jda.exception.JDAExceptionAdapter;
+import revxrsal.commands.process.CommandCondition;
 import revxrsal.commands.process.ContextResolver;
 import revxrsal.commands.process.ValueResolver;
 
@@ -40,6 +44,7 @@ import static revxrsal.commands.util.Preconditions.coerceIn;
 public final class JDAHandler extends BaseCommandHandler implements JDACommandHandler {
     private final List<SlashCommandMapper> slashCommandMappers = new ArrayList<>();
     private final JDA jda;
+    private final PrefixResolver prefixes = new PrefixResolver();
 
     public JDAHandler(@NotNull JDA jda, @NotNull String prefix) {
         super();
@@ -65,12 +70,15 @@ public final class JDAHandler extends BaseCommandHandler implements JDACommandHa
         registerResponseHandler(MessageEmbed.class, (response, actor, command) -> actor.as(JDAActor.class).getChannel().sendMessageEmbeds(response).queue());
         setExceptionHandler(JDAExceptionAdapter.INSTANCE);
         registerPermissionReader(JDAPermission::new);
-        registerCondition((actor, command, arguments) -> {
-            if (command.hasAnnotation(GuildOnly.class))
-                actor.as(JDAActor.class).checkInGuild(command);
+        registerCondition(CommandCondition.forAnnotation(GuildOnly.class,
+                (actor, command, arguments, guildOnly) -> actor.as(JDAActor.class).checkInGuild(command)));
+        setRateLimitGuild(actor -> {
+            JDAActor jdaActor = actor.as(JDAActor.class);
+            return jdaActor.isGuildEvent() ? jdaActor.getGuild().getIdLong() : RateLimit.NO_GUILD;
         });
         registerSlashCommandMapper(new BasicSlashCommandMapper());
-        jda.addEventListener(new JDACommandListener(prefix, this));
+        prefixes.addPrefix(prefix);
+        jda.addEventListener(new JDACommandListener(prefixes, this));
     }
 
     @Override
@@ -92,6 +100,40 @@ public final class JDAHandler extends BaseCommandHandler implements JDACommandHa
         return Collections.unmodifiableList(slashCommandMappers);
     }
 
+    @Override
+    public @NotNull JDACommandHandler addPrefix(@NotNull String prefix) {
+        notNull(prefix, "prefix");
+        prefixes.addPrefix(prefix);
+        return this;
+    }
+
+    @Override
+    public @NotNull JDACommandHandler enableMentionPrefix() {
+        prefixes.enableMentionPrefix();
+        return this;
+    }
+
+    @Override
+    public @NotNull JDACommandHandler setGuildPrefixProvider(@NotNull GuildPrefixProvider provider) {
+        return setGuildPrefixProvider(provider, 0, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public @NotNull JDACommandHandler setGuildPrefixProvider(@NotNull GuildPrefixProvider provider, long expireAfter, @NotNull TimeUnit unit) {
+        notNull(provider, "guild prefix provider");
+        notNull(unit, "time unit");
+        if (expireAfter < 0)
+            throw new IllegalArgumentException("expireAfter must not be negative!");
+        prefixes.setGuildPrefixProvider(provider, expireAfter, unit);
+        return this;
+    }
+
+    @Override
+    public @NotNull JDACommandHandler invalidateGuildPrefixes(long guildId) {
+        prefixes.invalidate(guildId);
+        return this;
+    }
+
     /**
      * Registers all existing commands using {@link JDA#updateCommands()}. Currently it have limitations:
      * <ul>
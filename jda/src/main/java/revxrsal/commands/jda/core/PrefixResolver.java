@@ -0,0 +1,140 @@
+package revxrsal.commands.jda.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import revxrsal.commands.jda.GuildPrefixProvider;
+
+/**
+ * Finds the prefix that a message command starts with.
+ * <p>
+ * The prefixes of every guild are compiled into a {@link PrefixTrie} the first
+ * time a message is received from it, and are reused until they are invalidated
+ * or expire.
+ * <p>
+ * Every invalidation advances a generation counter before it removes any trie,
+ * and a trie is only cached if no invalidation happened while it was being
+ * built. A trie built from prefixes that were invalidated in the meantime is
+ * therefore used for the message it was built for, but never cached.
+ */
+final class PrefixResolver {
+
+    private final Set<String> prefixes = new CopyOnWriteArraySet<>();
+    private final Map<Long, GuildTrie> guildTries = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile long generation = 0;
+    private volatile boolean mentionPrefix = false;
+    private volatile @Nullable GuildPrefixProvider guildPrefixes;
+    private volatile long expireAfter = 0; // in nanoseconds, or 0 if guild prefixes never expire
+    private volatile @Nullable PrefixTrie trie; // the trie of the global prefixes, or null if it must be rebuilt
+
+    void addPrefix(@NotNull String prefix) {
+        prefixes.add(prefix);
+        invalidate();
+    }
+
+    void enableMentionPrefix() {
+        mentionPrefix = true;
+        invalidate();
+    }
+
+    void setGuildPrefixProvider(@Nullable GuildPrefixProvider provider, long expireAfter, @NotNull TimeUnit unit) {
+        guildPrefixes = provider;
+        this.expireAfter = unit.toNanos(expireAfter);
+        invalidate();
+    }
+
+    void invalidate(long guildId) {
+        synchronized (lock) {
+            generation++;
+        }
+        guildTries.remove(guildId);
+    }
+
+    void invalidate() {
+        synchronized (lock) {
+            generation++;
+            trie = null;
+        }
+        guildTries.clear();
+    }
+
+    /**
+     * Returns the index at which the command starts in the given message
+     *
+     * @param event   The message event
+     * @param content The raw content of the message
+     * @return The length of the matched prefix, or -1 if the message does
+     * not start with any prefix.
+     */
+    int resolve(@NotNull MessageReceivedEvent event, @NotNull String content) {
+        GuildPrefixProvider provider = guildPrefixes;
+        if (provider != null && event.isFromGuild())
+            return getTrie(event.getGuild(), provider).match(content);
+        return getTrie(event.getJDA()).match(content);
+    }
+
+    private @NotNull PrefixTrie getTrie(@NotNull JDA jda) {
+        PrefixTrie trie = this.trie;
+        if (trie == null) {
+            long generation = this.generation;
+            trie = build(prefixes, jda);
+            synchronized (lock) {
+                if (this.generation == generation)
+                    this.trie = trie;
+            }
+        }
+        return trie;
+    }
+
+    private @NotNull PrefixTrie getTrie(@NotNull Guild guild, @NotNull GuildPrefixProvider provider) {
+        long now = System.nanoTime();
+        GuildTrie cached = guildTries.get(guild.getIdLong());
+        if (cached != null && !cached.isExpired(now, expireAfter))
+            return cached.trie;
+        long generation = this.generation;
+        Collection<String> guildPrefixes = provider.getPrefixes(guild);
+        GuildTrie built = new GuildTrie(build(guildPrefixes.isEmpty() ? prefixes : guildPrefixes, guild.getJDA()), now);
+        // invalidations advance the generation before removing tries, so this
+        // can never put back a trie that was invalidated while it was built.
+        guildTries.compute(guild.getIdLong(), (id, current) -> this.generation == generation ? built : current);
+        return built.trie;
+    }
+
+    private @NotNull PrefixTrie build(@NotNull Collection<String> prefixes, @NotNull JDA jda) {
+        if (!mentionPrefix)
+            return new PrefixTrie(prefixes);
+        List<String> all = new ArrayList<>(prefixes);
+        String id = jda.getSelfUser().getId();
+        all.add("<@" + id + "> ");
+        all.add("<@!" + id + "> ");
+        return new PrefixTrie(all);
+    }
+
+    private static final class GuildTrie {
+
+        private final PrefixTrie trie;
+        private final long createdAt;
+
+        GuildTrie(PrefixTrie trie, long createdAt) {
+            this.trie = trie;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long expireAfter) {
+            return expireAfter > 0 && now - createdAt >= expireAfter;
+        }
+    }
+}
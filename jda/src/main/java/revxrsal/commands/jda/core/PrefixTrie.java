@@ -0,0 +1,85 @@
+package revxrsal.commands.jda.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable trie of command prefixes, matched against message content
+ * one character at a time. Messages that do not start with any prefix are
+ * rejected as soon as they diverge from all of them, which is usually at
+ * the first character.
+ */
+final class PrefixTrie {
+
+    private final Node root;
+
+    PrefixTrie(@NotNull Collection<String> prefixes) {
+        Builder builder = new Builder();
+        for (String prefix : prefixes) {
+            Builder node = builder;
+            for (int i = 0; i < prefix.length(); i++)
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+            node.terminal = true;
+        }
+        root = builder.build();
+    }
+
+    /**
+     * Returns the length of the longest prefix that the given content starts with
+     *
+     * @param content The message content
+     * @return The length of the prefix, or -1 if it does not start with any.
+     */
+    int match(@NotNull String content) {
+        Node node = root;
+        int matched = node.terminal ? 0 : -1;
+        for (int i = 0; i < content.length(); i++) {
+            node = node.child(content.charAt(i));
+            if (node == null)
+                break;
+            if (node.terminal)
+                matched = i + 1;
+        }
+        return matched;
+    }
+
+    private static final class Node {
+
+        private final char[] keys;
+        private final Node[] children;
+        private final boolean terminal;
+
+        Node(char[] keys, Node[] children, boolean terminal) {
+            this.keys = keys;
+            this.children = children;
+            this.terminal = terminal;
+        }
+
+        @Nullable Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static final class Builder {
+
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private boolean terminal;
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(keys, nodes, terminal);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package revxrsal.commands.jda.core.actor;
 
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.Event;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.CommandHandler;
@@ -8,6 +9,9 @@ import revxrsal.commands.jda.JDAActor;
 import revxrsal.commands.jda.exception.GuildOnlyCommandException;
 import revxrsal.commands.jda.exception.PrivateMessageOnlyCommandException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -45,6 +49,41 @@ public abstract class BaseActorJDA implements JDAActor {
         getChannel().sendMessage(handler.getMessagePrefix() + message).queue();
     }
 
+    @Override public void reply(@NotNull Collection<String> lines) {
+        for (String message : joinLines(lines))
+            getChannel().sendMessage(message).queue();
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        reply(lines);
+    }
+
+    /**
+     * Joins the given lines into as few messages as possible, each within
+     * Discord's message length limit. Lines that do not fit in a message on
+     * their own are left as they are.
+     *
+     * @param lines Lines to join
+     * @return The messages to send
+     */
+    protected @NotNull List<String> joinLines(@NotNull Collection<String> lines) {
+        List<String> messages = new ArrayList<>();
+        StringBuilder message = new StringBuilder();
+        for (String line : lines) {
+            line = handler.getMessagePrefix() + line;
+            if (message.length() > 0 && message.length() + 1 + line.length() > Message.MAX_CONTENT_LENGTH) {
+                messages.add(message.toString());
+                message.setLength(0);
+            }
+            if (message.length() > 0)
+                message.append('\n');
+            message.append(line);
+        }
+        if (message.length() > 0)
+            messages.add(message.toString());
+        return messages;
+    }
+
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
@@ -10,6 +10,9 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import revxrsal.commands.CommandHandler;
 import revxrsal.commands.jda.actor.SlashCommandJDAActor;
 
+import java.util.Collection;
+import java.util.List;
+
 public class BaseJDASlashCommandActor extends BaseActorJDA implements SlashCommandJDAActor {
     public BaseJDASlashCommandActor(SlashCommandInteractionEvent event, CommandHandler handler) {
         super(event, handler);
@@ -25,6 +28,20 @@ public class BaseJDASlashCommandActor extends BaseActorJDA implements SlashComma
         getSlashEvent().reply(getCommandHandler().getMessagePrefix() + message).queue();
     }
 
+    /*
+     * An interaction can only be replied to once, so the rest of the
+     * messages are sent as follow-ups.
+     */
+    @Override
+    public void reply(@NotNull Collection<String> lines) {
+        List<String> messages = joinLines(lines);
+        if (messages.isEmpty())
+            return;
+        getSlashEvent().reply(messages.get(0)).queue();
+        for (String message : messages.subList(1, messages.size()))
+            getSlashEvent().getHook().sendMessage(message).queue();
+    }
+
     @Override
     public @NotNull User getUser() {
         return getSlashEvent().getUser();
@@ -0,0 +1,65 @@
+package revxrsal.commands.jda.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixTrieTest {
+
+    private static PrefixTrie trie(String... prefixes) {
+        return new PrefixTrie(Arrays.asList(prefixes));
+    }
+
+    @Test void matchesTheLongestPrefix() {
+        PrefixTrie trie = trie("!", "!!", "!bot ");
+        assertEquals(1, trie.match("!help"));
+        assertEquals(2, trie.match("!!help"));
+        assertEquals(5, trie.match("!bot help"));
+        // diverges from "!bot " after the shorter prefix matched
+        assertEquals(1, trie.match("!bob"));
+        assertEquals(1, trie.match("!bo"));
+    }
+
+    @Test void orderOfPrefixesDoesNotMatter() {
+        assertEquals(4, trie("la", "lamp").match("lamp help"));
+        assertEquals(4, trie("lamp", "la").match("lamp help"));
+        assertEquals(2, trie("lamp", "la").match("lam help"));
+    }
+
+    @Test void rejectsContentWithoutAPrefix() {
+        PrefixTrie trie = trie("!", "?");
+        assertEquals(-1, trie.match("help"));
+        assertEquals(-1, trie.match(""));
+        assertEquals(-1, trie("!bot").match("!bo"));
+        assertEquals(-1, trie().match("!help"));
+    }
+
+    @Test void matchesContentThatIsOnlyAPrefix() {
+        assertEquals(1, trie("!").match("!"));
+        assertEquals(4, trie("!", "!bot").match("!bot"));
+    }
+
+    @Test void emptyPrefixMatchesEverything() {
+        PrefixTrie trie = new PrefixTrie(Collections.singletonList(""));
+        assertEquals(0, trie.match("help"));
+        assertEquals(0, trie.match(""));
+        assertEquals(1, trie("", "!").match("!help"));
+    }
+
+    @Test void prefixesAreCaseSensitive() {
+        PrefixTrie trie = trie("Bot ");
+        assertEquals(4, trie.match("Bot help"));
+        assertEquals(-1, trie.match("bot help"));
+    }
+
+    @Test void prefixesMayContainAnyCharacter() {
+        PrefixTrie trie = trie("<@123> ", "🤖", "é");
+        assertEquals(7, trie.match("<@123> help"));
+        assertEquals(2, trie.match("🤖help"));
+        assertEquals(1, trie.match("éhelp"));
+        assertEquals(-1, trie.match("<@124> help"));
+    }
+}
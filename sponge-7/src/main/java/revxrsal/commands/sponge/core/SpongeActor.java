@@ -7,14 +7,17 @@ import org.spongepowered.api.command.source.ConsoleSource;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.text.Text;
 import revxrsal.commands.CommandHandler;
+import revxrsal.commands.core.BaseCommandHandler;
 import revxrsal.commands.sponge.SpongeCommandActor;
 import revxrsal.commands.sponge.exception.SenderNotConsoleException;
 import revxrsal.commands.sponge.exception.SenderNotPlayerException;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.UUID;
 
 import static revxrsal.commands.util.Strings.colorize;
+import static revxrsal.commands.util.Strings.joinLines;
 
 public final class SpongeActor implements SpongeCommandActor {
 
@@ -37,17 +40,39 @@ public final class SpongeActor implements SpongeCommandActor {
     }
 
     @Override public void reply(@NotNull String message) {
-        source.sendMessage(Text.of(colorize(handler.getMessagePrefix() + message)));
+        source.sendMessage(Text.of(colorizeReply(message)));
     }
 
     @Override public void error(@NotNull String message) {
-        reply("&c" + message);
+        source.sendMessage(Text.of(colorizeError(message)));
+    }
+
+    @Override public void reply(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            source.sendMessage(Text.of(joinLines(lines, this::colorizeReply)));
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            source.sendMessage(Text.of(joinLines(lines, this::colorizeError)));
     }
 
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
 
+    private String colorizeReply(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeReply(message);
+        return colorize(handler.getMessagePrefix() + message);
+    }
+
+    private String colorizeError(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeError(message);
+        return colorize(handler.getMessagePrefix() + "&c" + message);
+    }
+
     @Override public @NotNull CommandSource getSource() {
         return source;
     }
@@ -12,16 +12,16 @@ import org.spongepowered.api.scheduler.Scheduler;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.selector.Selector;
 import org.spongepowered.api.world.World;
-import revxrsal.commands.CommandHandler;
 import revxrsal.commands.autocomplete.SuggestionProvider;
-import revxrsal.commands.command.CommandCategory;
-import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.BaseCommandHandler;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.sponge.SpongeCommandActor;
 import revxrsal.commands.sponge.SpongeCommandHandler;
 import revxrsal.commands.sponge.exception.InvalidPlayerException;
 import revxrsal.commands.sponge.exception.SpongeExceptionAdapter;
 
+import java.util.Set;
+
 import static revxrsal.commands.util.Preconditions.notNull;
 
 @ApiStatus.Internal
@@ -65,17 +65,9 @@ public class SpongeHandler extends BaseCommandHandler implements SpongeCommandHa
         setExceptionHandler(SpongeExceptionAdapter.INSTANCE);
     }
 
-    @Override public @NotNull CommandHandler register(@NotNull Object... commands) {
-        super.register(commands);
-        for (ExecutableCommand command : executables.values()) {
-            if (command.getParent() != null) continue;
-            createPluginCommand(command.getName());
-        }
-        for (CommandCategory category : categories.values()) {
-            if (category.getParent() != null) continue;
-            createPluginCommand(category.getName());
-        }
-        return this;
+    @Override protected void registerRootCommands(@NotNull Set<CommandPath> roots) {
+        for (CommandPath root : roots)
+            createPluginCommand(root.getFirst());
     }
 
     private void createPluginCommand(String name) {
@@ -8,14 +8,17 @@ import org.spongepowered.api.command.CommandCause;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import revxrsal.commands.CommandHandler;
+import revxrsal.commands.core.BaseCommandHandler;
 import revxrsal.commands.sponge.SpongeCommandActor;
 import revxrsal.commands.sponge.exception.SenderNotConsoleException;
 import revxrsal.commands.sponge.exception.SenderNotPlayerException;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.UUID;
 
 import static revxrsal.commands.util.Strings.colorize;
+import static revxrsal.commands.util.Strings.joinLines;
 
 public final class SpongeActor implements SpongeCommandActor {
 
@@ -38,17 +41,39 @@ public final class SpongeActor implements SpongeCommandActor {
     }
 
     @Override public void reply(@NotNull String message) {
-        source.audience().sendMessage(Component.text(colorize(handler.getMessagePrefix() + message)));
+        source.audience().sendMessage(Component.text(colorizeReply(message)));
     }
 
     @Override public void error(@NotNull String message) {
-        reply("&c" + message);
+        source.audience().sendMessage(Component.text(colorizeError(message)));
+    }
+
+    @Override public void reply(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            source.audience().sendMessage(Component.text(joinLines(lines, this::colorizeReply)));
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        if (!lines.isEmpty())
+            source.audience().sendMessage(Component.text(joinLines(lines, this::colorizeError)));
     }
 
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
 
+    private String colorizeReply(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeReply(message);
+        return colorize(handler.getMessagePrefix() + message);
+    }
+
+    private String colorizeError(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeError(message);
+        return colorize(handler.getMessagePrefix() + "&c" + message);
+    }
+
     @Override public @NotNull CommandCause getSource() {
         return source;
     }
@@ -14,12 +14,11 @@ import org.spongepowered.api.event.lifecycle.StartingEngineEvent;
 import org.spongepowered.api.scheduler.Scheduler;
 import org.spongepowered.api.world.World;
 import org.spongepowered.plugin.PluginContainer;
-import revxrsal.commands.CommandHandler;
 import revxrsal.commands.autocomplete.SuggestionProvider;
-import revxrsal.commands.command.CommandCategory;
 import revxrsal.commands.command.CommandPermission;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.BaseCommandHandler;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.sponge.SpongeCommandActor;
 import revxrsal.commands.sponge.SpongeCommandHandler;
 import revxrsal.commands.sponge.exception.InvalidPlayerException;
@@ -27,6 +26,7 @@ import revxrsal.commands.sponge.exception.SpongeExceptionAdapter;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static revxrsal.commands.util.Preconditions.notNull;
 
@@ -87,18 +87,12 @@ public class SpongeHandler extends BaseCommandHandler implements SpongeCommandHa
                 .registerParameterSuggestions(World.class, "worlds");
     }
 
-    @Override
-    public @NotNull CommandHandler register(@NotNull Object... commands) {
-        super.register(commands);
-        for (ExecutableCommand command : executables.values()) {
-            if (command.getParent() != null) continue;
-            createPluginCommand(command.getName(), command.getPermission());
-        }
-        for (CommandCategory category : categories.values()) {
-            if (category.getParent() != null) continue;
-            createPluginCommand(category.getName(), category.getPermission());
+    @Override protected void registerRootCommands(@NotNull Set<CommandPath> roots) {
+        for (CommandPath root : roots) {
+            ExecutableCommand command = getCommand(root);
+            CommandPermission permission = command != null ? command.getPermission() : getCategory(root).getPermission();
+            createPluginCommand(root.getFirst(), permission);
         }
-        return this;
     }
 
     private void createPluginCommand(String name, @NotNull CommandPermission permission) {
@@ -1,8 +1,10 @@
 package revxrsal.commands.velocity;
 
+import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.CommandHandler;
+import revxrsal.commands.util.OnlinePlayerIndex;
 import revxrsal.commands.velocity.core.VelocityHandler;
 
 /**
@@ -18,6 +20,19 @@ public interface VelocityCommandHandler extends CommandHandler {
      */
     ProxyServer getServer();
 
+    /**
+     * Returns the index of online players, which is used to complete and
+     * resolve players.
+     * <p>
+     * The index is maintained by join and quit listeners, which requires
+     * the handler to be created with a plugin instance. Otherwise, it is
+     * synchronized with {@link ProxyServer#getAllPlayers()} whenever it is
+     * requested.
+     *
+     * @return The online player index
+     */
+    @NotNull OnlinePlayerIndex<Player> getPlayerIndex();
+
     /**
      * Creates a new {@link VelocityCommandHandler} for the given proxy.
      *
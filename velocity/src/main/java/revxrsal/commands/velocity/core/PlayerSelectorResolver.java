@@ -1,17 +1,16 @@
 package revxrsal.commands.velocity.core;
 
 import com.velocitypowered.api.proxy.Player;
-import com.velocitypowered.api.proxy.ProxyServer;
 import org.jetbrains.annotations.NotNull;
 import revxrsal.commands.process.ValueResolver;
+import revxrsal.commands.util.OnlinePlayerIndex;
 import revxrsal.commands.velocity.PlayerSelector;
 import revxrsal.commands.velocity.VelocityCommandActor;
+import revxrsal.commands.velocity.VelocityCommandHandler;
 import revxrsal.commands.velocity.exception.InvalidPlayerException;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
 enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
 
@@ -19,17 +18,18 @@ enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
 
     @Override public PlayerSelector resolve(@NotNull ValueResolverContext context) {
         VelocityCommandActor vActor = context.actor();
-        ProxyServer server = vActor.getServer();
         String value = context.pop().toLowerCase();
         List<Player> coll = new ArrayList<>();
-        Player[] players = server.getAllPlayers().toArray(new Player[0]);
+        OnlinePlayerIndex<Player> players = ((VelocityCommandHandler) vActor.getCommandHandler()).getPlayerIndex();
         switch (value) {
-            case "@r":
-                coll.add(players[ThreadLocalRandom.current().nextInt(players.length)]);
+            case "@r": {
+                Player player = players.random();
+                if (player != null)
+                    coll.add(player);
                 return coll::iterator;
+            }
             case "@a": {
-                Collections.addAll(coll, players);
-                return coll::iterator;
+                return players.all()::iterator;
             }
             case "@s":
             case "@p": {
@@ -37,7 +37,9 @@ enum PlayerSelectorResolver implements ValueResolver<PlayerSelector> {
                 return coll::iterator;
             }
             default: {
-                Player player = server.getPlayer(value).orElseThrow(() -> new InvalidPlayerException(context.parameter(), value));
+                Player player = players.get(value);
+                if (player == null)
+                    throw new InvalidPlayerException(context.parameter(), value);
                 coll.add(player);
                 return coll::iterator;
             }
@@ -9,15 +9,18 @@ import net.kyori.adventure.text.ComponentLike;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import revxrsal.commands.CommandHandler;
+import revxrsal.commands.core.BaseCommandHandler;
 import revxrsal.commands.velocity.VelocityCommandActor;
 import revxrsal.commands.velocity.exception.SenderNotConsoleException;
 import revxrsal.commands.velocity.exception.SenderNotPlayerException;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.UUID;
 
 import static revxrsal.commands.util.Preconditions.notNull;
 import static revxrsal.commands.util.Strings.colorize;
+import static revxrsal.commands.util.Strings.joinLines;
 
 public final class VelocityActor implements VelocityCommandActor {
 
@@ -43,17 +46,42 @@ public final class VelocityActor implements VelocityCommandActor {
 
     @Override public void reply(@NotNull String message) {
         notNull(message, "message");
-        source.sendMessage(Component.text(colorize(handler.getMessagePrefix() + message)));
+        source.sendMessage(Component.text(colorizeReply(message)));
     }
 
     @Override public void error(@NotNull String message) {
-        reply("&c" + message);
+        notNull(message, "message");
+        source.sendMessage(Component.text(colorizeError(message)));
+    }
+
+    @Override public void reply(@NotNull Collection<String> lines) {
+        notNull(lines, "lines");
+        if (!lines.isEmpty())
+            source.sendMessage(Component.text(joinLines(lines, this::colorizeReply)));
+    }
+
+    @Override public void error(@NotNull Collection<String> lines) {
+        notNull(lines, "lines");
+        if (!lines.isEmpty())
+            source.sendMessage(Component.text(joinLines(lines, this::colorizeError)));
     }
 
     @Override public CommandHandler getCommandHandler() {
         return handler;
     }
 
+    private String colorizeReply(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeReply(message);
+        return colorize(handler.getMessagePrefix() + message);
+    }
+
+    private String colorizeError(String message) {
+        if (handler instanceof BaseCommandHandler)
+            return ((BaseCommandHandler) handler).colorizeError(message);
+        return colorize(handler.getMessagePrefix() + "&c" + message);
+    }
+
     @Override public @NotNull CommandSource getSource() {
         return source;
     }
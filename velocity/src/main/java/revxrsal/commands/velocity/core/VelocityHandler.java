@@ -8,12 +8,13 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import revxrsal.commands.CommandHandler;
 import revxrsal.commands.autocomplete.SuggestionProvider;
 import revxrsal.commands.command.CommandCategory;
 import revxrsal.commands.command.ExecutableCommand;
 import revxrsal.commands.core.BaseCommandHandler;
+import revxrsal.commands.core.CommandPath;
 import revxrsal.commands.process.ContextResolver;
+import revxrsal.commands.util.OnlinePlayerIndex;
 import revxrsal.commands.velocity.PlayerSelector;
 import revxrsal.commands.velocity.VelocityCommandActor;
 import revxrsal.commands.velocity.VelocityCommandHandler;
@@ -21,6 +22,7 @@ import revxrsal.commands.velocity.exception.InvalidPlayerException;
 import revxrsal.commands.velocity.exception.VelocityExceptionAdapter;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static revxrsal.commands.util.Preconditions.notNull;
 
@@ -29,12 +31,18 @@ public final class VelocityHandler extends BaseCommandHandler implements Velocit
 
     private final ProxyServer server;
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType") private final Optional<PluginContainer> plugin;
+    private final OnlinePlayerIndex<Player> playerIndex = new OnlinePlayerIndex<>(Player::getUsername);
+    private final boolean trackingPlayers;
 //    private final DummyVelocityBrigadier brigadier = new DummyVelocityBrigadier(this);
 
     public VelocityHandler(@Nullable Object plugin, @NotNull ProxyServer server) {
         super();
         this.plugin = plugin == null ? Optional.empty() : server.getPluginManager().fromInstance(plugin);
         this.server = notNull(server, "proxy server");
+        this.trackingPlayers = this.plugin.isPresent();
+        playerIndex.sync(server.getAllPlayers());
+        if (trackingPlayers)
+            server.getEventManager().register(plugin, new VelocityPlayerListener(playerIndex));
         registerPermissionReader(VelocityPermissionReader.INSTANCE);
         registerSenderResolver(VelocitySenderResolver.INSTANCE);
         registerDependency(ProxyServer.class, server);
@@ -43,30 +51,29 @@ public final class VelocityHandler extends BaseCommandHandler implements Velocit
             String name = context.pop();
             if (name.equalsIgnoreCase("me") || name.equalsIgnoreCase("self"))
                 return context.actor().as(VelocityCommandActor.class).requirePlayer();
-            return server.getPlayer(name)
-                    .orElseThrow(() -> new InvalidPlayerException(context.parameter(), name));
+            Player player = getPlayerIndex().get(name);
+            if (player == null)
+                throw new InvalidPlayerException(context.parameter(), name);
+            return player;
         });
         registerValueResolver(PlayerSelector.class, PlayerSelectorResolver.INSTANCE);
         getAutoCompleter()
-                .registerSuggestion("players", SuggestionProvider.map(server::getAllPlayers, Player::getUsername))
+                .registerSuggestion("players", (args, sender, command) -> getPlayerIndex()
+                        .suggest(args.isEmpty() ? "" : args.get(args.size() - 1), sender))
                 .registerParameterSuggestions(Player.class, "players")
                 .registerSuggestion("playerSelector", SuggestionProvider.of("@a", "@p", "@r", "@s")
                         .compose(getAutoCompleter().getSuggestionProvider("players")))
                 .registerParameterSuggestions(PlayerSelector.class, "playerSelector");
         setExceptionHandler(VelocityExceptionAdapter.INSTANCE);
+        if (plugin != null)
+            setAsyncExecutor(task -> server.getScheduler().buildTask(plugin, task).schedule());
     }
 
-    @Override public @NotNull CommandHandler register(@NotNull Object... commands) {
-        super.register(commands);
-        for (ExecutableCommand command : executables.values()) {
-            if (command.getParent() != null) continue;
-            createPluginCommand(command);
+    @Override protected void registerRootCommands(@NotNull Set<CommandPath> roots) {
+        for (CommandPath root : roots) {
+            ExecutableCommand command = getCommand(root);
+            createPluginCommand(command != null ? command : getCategory(root));
         }
-        for (CommandCategory category : categories.values()) {
-            if (category.getParent() != null) continue;
-            createPluginCommand(category);
-        }
-        return this;
     }
 
     private void createPluginCommand(Object commandComponent) {
@@ -100,6 +107,12 @@ public final class VelocityHandler extends BaseCommandHandler implements Velocit
         server.getCommandManager().register(alias, command);
     }
 
+    @Override protected void unregisterRootCommand(@NotNull CommandPath root) {
+        server.getCommandManager().unregister(root.getFirst());
+        if (getNamespace() != null)
+            server.getCommandManager().unregister(getNamespace() + ":" + root.getFirst());
+    }
+
     private @Nullable String getNamespace() {
         return plugin.map(p -> p.getDescription().getId()).orElse(null);
     }
@@ -108,6 +121,12 @@ public final class VelocityHandler extends BaseCommandHandler implements Velocit
         return server.getCommandManager().metaBuilder(alias);
     }
 
+    @Override public @NotNull OnlinePlayerIndex<Player> getPlayerIndex() {
+        if (!trackingPlayers) // no plugin to register the player listener with
+            playerIndex.sync(server.getAllPlayers());
+        return playerIndex;
+    }
+
     @Override public ProxyServer getServer() {
         return server;
     }
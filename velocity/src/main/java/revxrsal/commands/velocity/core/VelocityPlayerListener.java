@@ -0,0 +1,27 @@
+package revxrsal.commands.velocity.core;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.proxy.Player;
+import revxrsal.commands.util.OnlinePlayerIndex;
+
+final class VelocityPlayerListener {
+
+    private final OnlinePlayerIndex<Player> playerIndex;
+
+    public VelocityPlayerListener(OnlinePlayerIndex<Player> playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    @Subscribe(order = PostOrder.FIRST)
+    public void onPostLogin(PostLoginEvent event) {
+        playerIndex.add(event.getPlayer());
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        playerIndex.remove(event.getPlayer());
+    }
+}